@@ -0,0 +1,22 @@
+-- Widen id columns of an existing database to hold ids created by the snowflake strategy.
+DROP VIEW IF EXISTS view_transactions;
+
+ALTER TABLE users ALTER COLUMN id TYPE VARCHAR(32);
+ALTER TABLE ledgers ALTER COLUMN id TYPE VARCHAR(32);
+ALTER TABLE user_ledgers ALTER COLUMN user_id TYPE VARCHAR(32);
+ALTER TABLE user_ledgers ALTER COLUMN ledger_id TYPE VARCHAR(32);
+ALTER TABLE transactions ALTER COLUMN id TYPE VARCHAR(32);
+ALTER TABLE transactions ALTER COLUMN ledger_id TYPE VARCHAR(32);
+ALTER TABLE transactions ALTER COLUMN user_id TYPE VARCHAR(32);
+
+CREATE VIEW view_transactions AS
+SELECT t.id,
+       t.ledger_id,
+       t.user_id,
+       u.username,
+       t.amount,
+       t.description,
+       t.transaction_date,
+       t.created_at
+FROM transactions t
+         LEFT JOIN users u on t.user_id = u.id;
@@ -0,0 +1,62 @@
+-- Create the rollup tables in an existing database and fill them from `transactions`.
+CREATE TABLE IF NOT EXISTS ledger_balances
+(
+    ledger_id         VARCHAR(32) PRIMARY KEY REFERENCES ledgers (id),
+    income            BIGINT NOT NULL DEFAULT 0,
+    expense           BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    updated_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS ledger_daily_summaries
+(
+    ledger_id         VARCHAR(32) REFERENCES ledgers (id),
+    user_id           VARCHAR(32) REFERENCES users (id),
+    summary_date      DATE   NOT NULL,
+    income            BIGINT NOT NULL DEFAULT 0,
+    expense           BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (ledger_id, summary_date, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_monthly_summaries
+(
+    ledger_id         VARCHAR(32) REFERENCES ledgers (id),
+    user_id           VARCHAR(32) REFERENCES users (id),
+    summary_month     DATE   NOT NULL, -- the first day of the month
+    income            BIGINT NOT NULL DEFAULT 0,
+    expense           BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (ledger_id, summary_month, user_id)
+);
+
+INSERT INTO ledger_balances (ledger_id, income, expense, transaction_count)
+SELECT ledger_id,
+       COALESCE(SUM(amount) FILTER (WHERE amount > 0), 0),
+       COALESCE(-SUM(amount) FILTER (WHERE amount < 0), 0),
+       COUNT(*)
+FROM transactions
+GROUP BY ledger_id
+ON CONFLICT DO NOTHING;
+
+INSERT INTO ledger_daily_summaries (ledger_id, user_id, summary_date, income, expense, transaction_count)
+SELECT ledger_id,
+       user_id,
+       transaction_date::DATE,
+       COALESCE(SUM(amount) FILTER (WHERE amount > 0), 0),
+       COALESCE(-SUM(amount) FILTER (WHERE amount < 0), 0),
+       COUNT(*)
+FROM transactions
+GROUP BY ledger_id, user_id, transaction_date::DATE
+ON CONFLICT DO NOTHING;
+
+INSERT INTO ledger_monthly_summaries (ledger_id, user_id, summary_month, income, expense, transaction_count)
+SELECT ledger_id,
+       user_id,
+       DATE_TRUNC('month', transaction_date)::DATE,
+       COALESCE(SUM(amount) FILTER (WHERE amount > 0), 0),
+       COALESCE(-SUM(amount) FILTER (WHERE amount < 0), 0),
+       COUNT(*)
+FROM transactions
+GROUP BY ledger_id, user_id, DATE_TRUNC('month', transaction_date)::DATE
+ON CONFLICT DO NOTHING;
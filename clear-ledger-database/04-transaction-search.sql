@@ -0,0 +1,9 @@
+-- Index transaction descriptions of an existing database for searching.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE transactions
+    ADD COLUMN IF NOT EXISTS description_tsv TSVECTOR
+        GENERATED ALWAYS AS (TO_TSVECTOR('simple', COALESCE(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_description_tsv ON transactions USING GIN (description_tsv);
+CREATE INDEX IF NOT EXISTS idx_transactions_description_trgm ON transactions USING GIN (description gin_trgm_ops);
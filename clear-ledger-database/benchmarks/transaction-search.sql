@@ -0,0 +1,48 @@
+-- Compare the indexed description search with a plain ILIKE scan.
+--
+-- Run against a scratch database migrated by starting the server against it once:
+--   psql -d clear_ledger_bench -f benchmarks/transaction-search.sql
+-- Each query is run with EXPLAIN (ANALYZE, BUFFERS), compare the plans and execution times.
+
+BEGIN;
+
+INSERT INTO users (id, username, password, email)
+VALUES ('bench-user', 'bench', '-', 'bench@example.com');
+INSERT INTO ledgers (id, name)
+VALUES ('bench-ledger', 'bench');
+
+-- two million transactions spread over ten years, a few descriptions mention "coffee"
+INSERT INTO transactions (id, ledger_id, user_id, amount, description, transaction_date)
+SELECT 'bench-' || n,
+       'bench-ledger',
+       'bench-user',
+       (RANDOM() * 20000)::INTEGER - 10000,
+       CASE WHEN n % 997 = 0 THEN 'morning coffee at station ' || n ELSE MD5(n::TEXT) || ' groceries' END,
+       TIMESTAMP '2015-01-01' + (n || ' minutes')::INTERVAL * 2.6
+FROM GENERATE_SERIES(1, 2000000) AS n;
+
+ANALYZE transactions;
+
+-- naive scan
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, description, transaction_date
+FROM transactions
+WHERE ledger_id = 'bench-ledger'
+  AND description ILIKE '%coffee%'
+ORDER BY transaction_date DESC, id DESC
+LIMIT 20;
+
+-- ranked search as issued by TransactionRepository.searchViewTransactions
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, description, transaction_date, rank
+FROM (SELECT t.id, t.description, t.transaction_date,
+             GREATEST(TS_RANK(t.description_tsv, PLAINTO_TSQUERY('simple', 'coffee')),
+                      SIMILARITY(t.description, 'coffee'))::FLOAT8 AS rank
+      FROM transactions t
+      WHERE t.ledger_id = 'bench-ledger'
+        AND (t.description_tsv @@ PLAINTO_TSQUERY('simple', 'coffee')
+            OR t.description ILIKE '%coffee%')) r
+ORDER BY rank DESC, transaction_date DESC, id DESC
+LIMIT 20;
+
+ROLLBACK;
@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.0"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 val artefactVersion: String by project
@@ -44,6 +45,8 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("com.mybatis-flex:mybatis-flex-spring-boot3-starter:1.10.4")
     implementation("com.zaxxer:HikariCP")
+    implementation("org.flywaydb:flyway-core")
+    runtimeOnly("org.flywaydb:flyway-database-postgresql")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
     implementation("org.springframework.boot:spring-boot-starter-mail")
@@ -51,6 +54,7 @@ dependencies {
     testImplementation("org.springframework.security:spring-security-test")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("io.projectreactor:reactor-test")
+    testImplementation("com.icegreen:greenmail-junit5:2.1.2")
     runtimeOnly("org.postgresql:postgresql")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
 }
@@ -58,3 +62,17 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+jmh {
+    // run with ./gradlew jmh, benchmarks live in src/jmh/java
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
+tasks.register<JavaExec>("loadTest") {
+    // run against a started server, e.g. ./gradlew loadTest --args="http://localhost:8080/ledgers 5000 60s"
+    description = "Drives a running server with concurrent connections and reports throughput."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.onixbyte.clearledger.LoadTest")
+}
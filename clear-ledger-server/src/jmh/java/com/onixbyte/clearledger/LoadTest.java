@@ -0,0 +1,116 @@
+package com.onixbyte.clearledger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a running server with a fixed count of concurrent connections, each sending requests one
+ * after another, and reports throughput and latency.
+ * <p>
+ * Run it once against a server on platform threads and once against a server with
+ * {@code spring.threads.virtual.enabled} to compare the two modes, for example:
+ * <pre>
+ * CLEAR_LEDGER_TOKEN=... ./gradlew loadTest --args="http://localhost:8080/ledgers 5000 60s"
+ * </pre>
+ * Arguments are the URL, the count of concurrent connections (default {@code 5000}) and the
+ * duration (default {@code 30s}). The token in {@code CLEAR_LEDGER_TOKEN} is sent as the
+ * {@code Authorization} header if set.
+ *
+ * @author zihluwang
+ */
+public class LoadTest {
+
+    /**
+     * Latencies are counted in buckets of one millisecond, slower requests in the last bucket.
+     */
+    private static final int LATENCY_BUCKETS = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadTest <url> [connections] [duration]");
+            System.exit(1);
+        }
+        var uri = URI.create(args[0]);
+        var connections = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        var duration = args.length > 2 ? Duration.parse("PT" + args[2].toUpperCase()) : Duration.ofSeconds(30);
+
+        var requestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        Optional.ofNullable(System.getenv("CLEAR_LEDGER_TOKEN"))
+                .ifPresent((token) -> requestBuilder.header("Authorization", token));
+        var request = requestBuilder.build();
+
+        var latencies = new AtomicLongArray(LATENCY_BUCKETS);
+        var succeeded = new LongAdder();
+        var failed = new LongAdder();
+
+        System.out.printf("Sending requests to %s over %d connections for %s.%n", uri, connections, duration);
+        var start = new CountDownLatch(1);
+        var deadline = new long[1];
+        // the client opens a keep-alive connection for every request in flight
+        try (var client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < connections; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    while (System.nanoTime() - deadline[0] < 0) {
+                        var sentAt = System.nanoTime();
+                        try {
+                            var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() < 400) {
+                                succeeded.increment();
+                            } else {
+                                failed.increment();
+                            }
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                        var millis = Duration.ofNanos(System.nanoTime() - sentAt).toMillis();
+                        latencies.incrementAndGet((int) Math.min(LATENCY_BUCKETS - 1, millis));
+                    }
+                });
+            }
+
+            deadline[0] = System.nanoTime() + duration.toNanos();
+            start.countDown();
+        }
+
+        var total = succeeded.sum() + failed.sum();
+        System.out.printf("Requests:   %d (%d failed)%n", total, failed.sum());
+        System.out.printf("Throughput: %.1f requests/s%n", succeeded.sum() / (duration.toMillis() / 1000D));
+        System.out.printf("Latency:    p50 %d ms, p90 %d ms, p99 %d ms, max %d ms%n",
+                percentile(latencies, total, 0.5),
+                percentile(latencies, total, 0.9),
+                percentile(latencies, total, 0.99),
+                percentile(latencies, total, 1));
+    }
+
+    private static long percentile(AtomicLongArray latencies, long total, double ratio) {
+        var rank = (long) Math.ceil(total * ratio);
+        var seen = 0L;
+        for (var millis = 0; millis < latencies.length(); millis++) {
+            seen += latencies.get(millis);
+            if (seen >= rank && seen > 0) {
+                return millis;
+            }
+        }
+        return 0L;
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.onixbyte.clearledger.cache.codec;
+
+import com.onixbyte.clearledger.data.dto.BizUser;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON serializer formerly used by the user cache with the binary codec, encoding
+ * and decoding a typical cached user.
+ * <p>
+ * Besides the time per operation, each benchmark reports {@code payloadBytes}, the size of the
+ * value stored on the cache server.
+ *
+ * @author zihluwang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserCodecBenchmark {
+
+    private final BizUser user = BizUser.builder()
+            .id("U250101000001")
+            .username("alice.wonderland")
+            .email("alice.wonderland@example.com")
+            .build();
+
+    private RedisSerializer<BizUser> json;
+    private RedisSerializer<BizUser> binary;
+
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() {
+        json = new Jackson2JsonRedisSerializer<>(BizUser.class);
+        binary = new BinaryRedisSerializer<>(new BizUserCodec(), json);
+        jsonPayload = json.serialize(user);
+        binaryPayload = binary.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] encodeJson(PayloadSize payloadSize) {
+        var payload = json.serialize(user);
+        payloadSize.payloadBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public byte[] encodeBinary(PayloadSize payloadSize) {
+        var payload = binary.serialize(user);
+        payloadSize.payloadBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public BizUser decodeJson(PayloadSize payloadSize) {
+        payloadSize.payloadBytes = jsonPayload.length;
+        return json.deserialize(jsonPayload);
+    }
+
+    @Benchmark
+    public BizUser decodeBinary(PayloadSize payloadSize) {
+        payloadSize.payloadBytes = binaryPayload.length;
+        return binary.deserialize(binaryPayload);
+    }
+
+    /**
+     * Reports the size of the payload handled by a benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.onixbyte.clearledger.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.onixbyte.clearledger.store.LocalExpiringStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import com.onixbyte.simplejwt.TokenResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving the tokens of incoming requests with and without {@link VerifiedTokenCache},
+ * the step of {@link UserAuthenticationFilter} that verifies signatures.
+ * <p>
+ * Every request carries one of {@code activeTokens} day-long HS512 tokens, the algorithm of the
+ * sample configuration, so each token is reused many times as it is by logged in users.
+ *
+ * @author zihluwang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class TokenVerificationBenchmark {
+
+    private static final String SECRET = "a_sample_secret_with_64_characters_12345678901234567890123456789";
+    private static final String ISSUER = "ClearLedger :: Server";
+
+    @Param({"100", "10000"})
+    private int activeTokens;
+
+    private String[] tokens;
+    private JWTVerifier verifier;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        var algorithm = Algorithm.HMAC512(SECRET);
+        verifier = JWT.require(algorithm).withIssuer(ISSUER).build();
+
+        tokens = new String[activeTokens];
+        for (var i = 0; i < activeTokens; i++) {
+            tokens[i] = JWT.create()
+                    .withIssuer(ISSUER)
+                    .withAudience("user" + i)
+                    .withSubject("ClearLedger :: User")
+                    .withIssuedAt(Instant.now())
+                    .withExpiresAt(Instant.now().plus(Duration.ofDays(1)))
+                    .sign(algorithm);
+        }
+
+        // only resolve is called by the cache
+        var tokenResolver = (TokenResolver<DecodedJWT>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TokenResolver.class},
+                (proxy, method, args) -> {
+                    if ("resolve".equals(method.getName())) {
+                        return verifier.verify((String) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        // no token is revoked
+        verifiedTokenCache = new VerifiedTokenCache(tokenResolver, new LocalExpiringStore<>(), new CacheKeyComposer("clear-ledger-server"));
+    }
+
+    @Benchmark
+    public String verifyEveryRequest() {
+        return verifier.verify(nextToken()).getAudience().getFirst();
+    }
+
+    @Benchmark
+    public String verifyOncePerToken() {
+        return verifiedTokenCache.resolve(nextToken()).username();
+    }
+
+    private String nextToken() {
+        return tokens[ThreadLocalRandom.current().nextInt(tokens.length)];
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.property.SerialProperty;
+import com.onixbyte.clearledger.store.SerialCounter;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the throughput of issuing serials, comparing one increment of the counter per serial
+ * with serials handed out from leased blocks. The counter stands in for the cache server and waits
+ * the given round trip on every increment.
+ *
+ * @author zihluwang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class SerialServiceBenchmark {
+
+    private static final String TAG = "tx";
+
+    /**
+     * Round trip to the cache server in microseconds.
+     */
+    @Param({"0", "200"})
+    public long roundTripMicros;
+
+    private final LocalDate today = LocalDate.now();
+
+    private ExecutorService ioThreadPool;
+    private SerialService incrementingSerialService;
+    private SerialService leasingSerialService;
+
+    @Setup
+    public void setUp() {
+        ioThreadPool = Executors.newFixedThreadPool(2);
+        var serialCounter = new StandInCounter(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+
+        incrementingSerialService = new SerialService(serialCounter, new CacheKeyComposer("benchmark"),
+                new SerialProperty(), ioThreadPool);
+
+        var leasedProperty = new SerialProperty();
+        leasedProperty.setLeased(true);
+        leasingSerialService = new SerialService(serialCounter, new CacheKeyComposer("benchmark"),
+                leasedProperty, ioThreadPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ioThreadPool.shutdownNow();
+    }
+
+    @Benchmark
+    public Long incrementPerSerial() {
+        return incrementingSerialService.nextSerial(TAG, today);
+    }
+
+    @Benchmark
+    public Long leasedBlocks() {
+        return leasingSerialService.nextSerial(TAG, today);
+    }
+
+    /**
+     * Counts in process after waiting the round trip, ignoring the ceiling so the benchmark never
+     * runs out of serials.
+     */
+    private static final class StandInCounter implements SerialCounter {
+
+        private final long roundTripNanos;
+        private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+        private StandInCounter(long roundTripNanos) {
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        public long increment(String key, long delta, long ceiling, Duration ttl) {
+            if (roundTripNanos > 0) {
+                LockSupport.parkNanos(roundTripNanos);
+            }
+            return counters.computeIfAbsent(key, (ignored) -> new AtomicLong()).addAndGet(delta);
+        }
+
+        @Override
+        public long remaining(String key, long ceiling) {
+            return Long.MAX_VALUE;
+        }
+
+    }
+
+}
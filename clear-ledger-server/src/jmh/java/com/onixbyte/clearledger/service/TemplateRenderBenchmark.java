@@ -0,0 +1,64 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.property.TemplateProperty;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of rendering the {@code verification-code} template, comparing the
+ * preloaded templates and pooled buffers of {@link TemplateService} with looking the template up
+ * from FreeMarker and rendering into a new writer on every call.
+ *
+ * @author zihluwang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class TemplateRenderBenchmark {
+
+    private static final String TEMPLATE_NAME = "verification-code";
+
+    private final Map<String, Object> params = Map.of("verificationCode", "482913");
+
+    private Configuration freemarkerConfig;
+    private TemplateService templateService;
+
+    @Setup
+    public void setUp() {
+        freemarkerConfig = new Configuration(Configuration.VERSION_2_3_32);
+        freemarkerConfig.setClassForTemplateLoading(TemplateRenderBenchmark.class, "/templates");
+        freemarkerConfig.setDefaultEncoding(StandardCharsets.UTF_8.name());
+
+        templateService = new TemplateService(freemarkerConfig, new TemplateProperty());
+        templateService.afterSingletonsInstantiated();
+    }
+
+    @Benchmark
+    public String lookupAndNewWriter() throws IOException, TemplateException {
+        var template = freemarkerConfig.getTemplate(TEMPLATE_NAME + ".ftlh");
+        var writer = new StringWriter();
+        template.process(params, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String preloadedAndPooled() {
+        return templateService.process(TEMPLATE_NAME, params);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.onixbyte.clearledger.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * A bounded in-process cache whose entries expire after a time to live, kept in front of the
+ * cache server to save a round trip for hot keys.
+ * <p>
+ * When the cache is full, expired entries are dropped first, then about a tenth of the entries
+ * in no particular order. This keeps writes cheap and is good enough for caches sized well above
+ * their working set. Hits and misses are counted for monitoring.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values, which must not be {@code null}
+ * @author zihluwang
+ */
+public class NearCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final long ttlNanos;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Create a near cache.
+     *
+     * @param maximumSize maximum count of entries
+     * @param ttl         default time to live of entries
+     */
+    public NearCache(int maximumSize, Duration ttl) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive.");
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Get the value cached under the given key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if absent or expired
+     */
+    public V get(K key) {
+        var entry = entries.get(key);
+        if (Objects.nonNull(entry)) {
+            if (entry.expiresAt() - System.nanoTime() > 0) {
+                hitCount.increment();
+                return entry.value();
+            }
+            entries.remove(key, entry);
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Cache a value with the default time to live.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        put(key, value, ttlNanos);
+    }
+
+    /**
+     * Cache a value with its own time to live.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param ttl   time to live of this entry
+     */
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    private void put(K key, V value, long ttlNanos) {
+        Objects.requireNonNull(value, "Value must not be null.");
+        if (ttlNanos <= 0) {
+            return;
+        }
+        if (entries.size() >= maximumSize && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Remove the entry of the given key.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove the entries whose keys match the given predicate.
+     *
+     * @param predicate the predicate matching keys to remove
+     */
+    public void invalidateIf(Predicate<? super K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Remove all expired entries.
+     */
+    public void removeExpired() {
+        var now = System.nanoTime();
+        entries.values().removeIf((entry) -> entry.expiresAt() - now <= 0);
+    }
+
+    /**
+     * Get the count of entries, including expired entries not removed yet.
+     *
+     * @return count of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Get the ratio of hits to all lookups.
+     *
+     * @return the hit ratio, or {@code 0} if nothing has been looked up
+     */
+    public double getHitRatio() {
+        var hits = hitCount.sum();
+        var total = hits + missCount.sum();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    private void evict() {
+        removeExpired();
+
+        var excess = entries.size() - maximumSize + Math.max(1, maximumSize / 10);
+        var iterator = entries.keySet().iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+}
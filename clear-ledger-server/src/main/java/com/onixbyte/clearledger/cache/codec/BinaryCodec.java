@@ -0,0 +1,71 @@
+package com.onixbyte.clearledger.cache.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding of one type of cached object, used by {@link BinaryRedisSerializer}.
+ * <p>
+ * Every encoding carries the schema version it was written with. A codec writes its current
+ * version and must still read every older version, so a change of the schema only needs a new
+ * version and a new branch in {@link #read(int, DataInput)}.
+ *
+ * @param <T> type of the encoded objects
+ * @author zihluwang
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * Get the schema version written by this codec, from {@code 1} to {@code 255}.
+     *
+     * @return current schema version
+     */
+    int getVersion();
+
+    /**
+     * Write the fields of the given value with the current schema.
+     *
+     * @param value  the value
+     * @param output the output to write to
+     * @throws IOException if the value cannot be written
+     */
+    void write(T value, DataOutput output) throws IOException;
+
+    /**
+     * Read a value written with the given schema version.
+     *
+     * @param version schema version the value was written with, never above the current version
+     * @param input   the input to read from
+     * @return the value
+     * @throws IOException if the value cannot be read
+     */
+    T read(int version, DataInput input) throws IOException;
+
+    /**
+     * Write a string that may be {@code null}, shorter than 65536 bytes in modified UTF-8.
+     *
+     * @param output the output to write to
+     * @param value  the string
+     * @throws IOException if the string cannot be written
+     */
+    static void writeNullableString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(Objects.nonNull(value));
+        if (Objects.nonNull(value)) {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * Read a string written by {@link #writeNullableString(DataOutput, String)}.
+     *
+     * @param input the input to read from
+     * @return the string, or {@code null}
+     * @throws IOException if the string cannot be read
+     */
+    static String readNullableString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.onixbyte.clearledger.cache.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Redis serializer writing values with a {@link BinaryCodec}.
+ * <p>
+ * Each value starts with a marker byte and the schema version of the codec, followed by the
+ * fields written by the codec. The marker can never start a JSON document, so values of another
+ * encoding, such as those written before this serializer was configured, are handed to the
+ * fallback serializer. Values of a version newer than the codec, written by a newer node during
+ * a rolling deployment, are read as absent so they are reloaded instead of failing.
+ *
+ * @param <T> type of the serialised values
+ * @author zihluwang
+ */
+public class BinaryRedisSerializer<T> implements RedisSerializer<T> {
+
+    /**
+     * First byte of every binary value, a byte no UTF-8 text starts with.
+     */
+    static final byte MARKER = (byte) 0xB1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private final BinaryCodec<T> codec;
+    private final RedisSerializer<T> fallback;
+
+    /**
+     * Create a serializer reading values of other encodings with the given fallback.
+     *
+     * @param codec    the codec of the values
+     * @param fallback the serializer of values not written by this serializer, or {@code null}
+     *                 to reject them
+     */
+    public BinaryRedisSerializer(BinaryCodec<T> codec, RedisSerializer<T> fallback) {
+        if (codec.getVersion() < 1 || codec.getVersion() > 255) {
+            throw new IllegalArgumentException("Codec version must be between 1 and 255.");
+        }
+        this.codec = codec;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (Objects.isNull(value)) {
+            return new byte[0];
+        }
+
+        var bytes = new ByteArrayOutputStream(64);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeByte(MARKER);
+            output.writeByte(codec.getVersion());
+            codec.write(value, output);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialise value with binary codec.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (Objects.isNull(bytes) || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes[0] != MARKER) {
+            if (Objects.isNull(fallback)) {
+                throw new SerializationException("Cannot deserialise value not written with binary codec.");
+            }
+            return fallback.deserialize(bytes);
+        }
+
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Cannot deserialise truncated binary value.");
+        }
+        var version = Byte.toUnsignedInt(bytes[1]);
+        if (version > codec.getVersion()) {
+            return null;
+        }
+        try (var input = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH))) {
+            return codec.read(version, input);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialise value with binary codec.", e);
+        }
+    }
+
+}
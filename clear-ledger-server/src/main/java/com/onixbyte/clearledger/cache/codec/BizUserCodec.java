@@ -0,0 +1,39 @@
+package com.onixbyte.clearledger.cache.codec;
+
+import com.onixbyte.clearledger.data.dto.BizUser;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary codec of cached {@link BizUser}s.
+ * <p>
+ * Version 1 holds the id, username and email, each of which may be {@code null}.
+ *
+ * @author zihluwang
+ */
+public final class BizUserCodec implements BinaryCodec<BizUser> {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(BizUser value, DataOutput output) throws IOException {
+        BinaryCodec.writeNullableString(output, value.id());
+        BinaryCodec.writeNullableString(output, value.username());
+        BinaryCodec.writeNullableString(output, value.email());
+    }
+
+    @Override
+    public BizUser read(int version, DataInput input) throws IOException {
+        return BizUser.builder()
+                .id(BinaryCodec.readNullableString(input))
+                .username(BinaryCodec.readNullableString(input))
+                .email(BinaryCodec.readNullableString(input))
+                .build();
+    }
+
+}
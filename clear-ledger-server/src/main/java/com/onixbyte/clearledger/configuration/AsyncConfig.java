@@ -1,9 +1,9 @@
 package com.onixbyte.clearledger.configuration;
 
+import com.onixbyte.clearledger.executor.ExecutorRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
@@ -11,20 +11,15 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean
-    public Executor taskExecutor() {
-        var executor = new ThreadPoolTaskExecutor();
-
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("AsyncThread-");
-        executor.setKeepAliveSeconds(60);
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-
-        executor.initialize();
-        return executor;
+    /**
+     * The executor of {@code @Async} tasks, shut down by the executor registry.
+     *
+     * @param executorRegistry the executor registry
+     * @return the executor of {@code @Async} tasks
+     */
+    @Bean(destroyMethod = "")
+    public Executor taskExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.get(ExecutorRegistry.ASYNC);
     }
 
 }
@@ -1,47 +1,220 @@
 package com.onixbyte.clearledger.configuration;
 
+import com.onixbyte.clearledger.cache.codec.BinaryCodec;
+import com.onixbyte.clearledger.cache.codec.BinaryRedisSerializer;
+import com.onixbyte.clearledger.cache.codec.BizUserCodec;
+import com.onixbyte.clearledger.configuration.property.ResilienceProperty;
+import com.onixbyte.clearledger.configuration.property.UserCacheProperty;
+import com.onixbyte.clearledger.constant.CacheEncoding;
 import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.repository.SerialCounterRepository;
+import com.onixbyte.clearledger.security.VerifiedTokenCache;
+import com.onixbyte.clearledger.service.LedgerMembershipService;
+import com.onixbyte.clearledger.service.UserCacheService;
+import com.onixbyte.clearledger.store.CircuitBreaker;
+import com.onixbyte.clearledger.store.CircuitBreakerHealthIndicator;
+import com.onixbyte.clearledger.store.ExpiringStore;
+import com.onixbyte.clearledger.store.GuardedExpiringStore;
+import com.onixbyte.clearledger.store.JdbcSerialCounter;
+import com.onixbyte.clearledger.store.RedisExpiringStore;
+import com.onixbyte.clearledger.store.RedisSerialCounter;
+import com.onixbyte.clearledger.store.RedisVerificationCodeStore;
+import com.onixbyte.clearledger.store.ResilientExpiringStore;
+import com.onixbyte.clearledger.store.ResilientSerialCounter;
+import com.onixbyte.clearledger.store.ResilientVerificationCodeStore;
+import com.onixbyte.clearledger.store.SerialCounter;
+import com.onixbyte.clearledger.store.VerificationCodeStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.List;
+
+/**
+ * Stores kept on the cache server, shared by all nodes. Single-node deployments running the
+ * {@code embedded} profile use the in-process stores of {@link EmbeddedConfig} instead.
+ * <p>
+ * Every store is guarded by a circuit breaker of its own, so a stalled cache server makes requests
+ * fall back instead of waiting for timeouts: users and permissions are loaded from the database,
+ * serials are counted in the database, and verification codes and revocations are refused with
+ * 503 until the cache server recovers, as they cannot be answered anywhere else.
+ *
+ * @author zihluwang
+ */
 @Configuration
+@Profile("!embedded")
+@EnableConfigurationProperties({UserCacheProperty.class, ResilienceProperty.class})
 public class CacheConfig {
 
     @Bean
-    public RedisTemplate<String, BizUser> userCache(RedisConnectionFactory redisConnectionFactory) {
-        var userCache = new RedisTemplate<String, BizUser>();
-        userCache.setConnectionFactory(redisConnectionFactory);
-        userCache.setKeySerializer(RedisSerializer.string());
-        userCache.setValueSerializer(new Jackson2JsonRedisSerializer<>(BizUser.class));
+    public CircuitBreaker userCacheCircuitBreaker(ResilienceProperty resilienceProperty) {
+        return new CircuitBreaker("user-cache", resilienceProperty);
+    }
+
+    @Bean
+    public CircuitBreaker serialCounterCircuitBreaker(ResilienceProperty resilienceProperty) {
+        return new CircuitBreaker("serial-counter", resilienceProperty);
+    }
+
+    @Bean
+    public CircuitBreaker verificationCodeCircuitBreaker(ResilienceProperty resilienceProperty) {
+        return new CircuitBreaker("verification-code", resilienceProperty);
+    }
+
+    @Bean
+    public CircuitBreaker permissionCacheCircuitBreaker(ResilienceProperty resilienceProperty) {
+        return new CircuitBreaker("permission-cache", resilienceProperty);
+    }
+
+    @Bean
+    public CircuitBreaker revokedTokenCacheCircuitBreaker(ResilienceProperty resilienceProperty) {
+        return new CircuitBreaker("revoked-token-cache", resilienceProperty);
+    }
+
+    @Bean
+    public CircuitBreakerHealthIndicator circuitBreakersHealthIndicator(List<CircuitBreaker> circuitBreakers) {
+        return new CircuitBreakerHealthIndicator(circuitBreakers);
+    }
+
+    @Bean
+    public ExpiringStore<BizUser> userCache(RedisConnectionFactory redisConnectionFactory,
+                                            UserCacheProperty userCacheProperty,
+                                            CircuitBreaker userCacheCircuitBreaker) {
+        return new ResilientExpiringStore<>(new RedisExpiringStore<>(redisTemplate(redisConnectionFactory,
+                valueSerializer(userCacheProperty.getEncoding(), new BizUserCodec(), BizUser.class))),
+                userCacheCircuitBreaker);
+    }
 
-        userCache.afterPropertiesSet();
-        return userCache;
+    /**
+     * Count serials in the database while the cache server is unavailable. Registered as a bean
+     * so its expired counters are purged.
+     *
+     * @param serialCounterRepository repository of the counters
+     * @return the fallback counter
+     */
+    @Bean
+    public JdbcSerialCounter fallbackSerialCounter(SerialCounterRepository serialCounterRepository,
+                                                   PlatformTransactionManager transactionManager) {
+        return new JdbcSerialCounter(serialCounterRepository, transactionManager);
     }
 
     @Bean
-    public RedisTemplate<String, Long> serialCache(RedisConnectionFactory redisConnectionFactory) {
-        var serialCache = new RedisTemplate<String, Long>();
-        serialCache.setConnectionFactory(redisConnectionFactory);
-        serialCache.setKeySerializer(RedisSerializer.string());
-        serialCache.setValueSerializer(new Jackson2JsonRedisSerializer<>(Long.class));
+    @Primary
+    public SerialCounter serialCounter(RedisConnectionFactory redisConnectionFactory,
+                                       JdbcSerialCounter fallbackSerialCounter,
+                                       CircuitBreaker serialCounterCircuitBreaker,
+                                       ResilienceProperty resilienceProperty) {
+        return new ResilientSerialCounter(
+                new RedisSerialCounter(redisTemplate(redisConnectionFactory, new Jackson2JsonRedisSerializer<>(Long.class))),
+                fallbackSerialCounter,
+                serialCounterCircuitBreaker,
+                resilienceProperty.getSerialFallbackFloor());
+    }
 
-        serialCache.afterPropertiesSet();
-        return serialCache;
+    @Bean
+    public VerificationCodeStore verificationCodeStore(RedisConnectionFactory redisConnectionFactory,
+                                                       CacheKeyComposer cacheKeyComposer,
+                                                       CircuitBreaker verificationCodeCircuitBreaker) {
+        return new ResilientVerificationCodeStore(
+                new RedisVerificationCodeStore(redisTemplate(redisConnectionFactory, RedisSerializer.string()), cacheKeyComposer),
+                verificationCodeCircuitBreaker);
     }
 
     @Bean
-    public RedisTemplate<String, String> verificationCodeCache(RedisConnectionFactory redisConnectionFactory) {
-        var verificationCodeCache = new RedisTemplate<String, String>();
-        verificationCodeCache.setConnectionFactory(redisConnectionFactory);
-        verificationCodeCache.setKeySerializer(RedisSerializer.string());
-        verificationCodeCache.setValueSerializer(RedisSerializer.string());
+    public ExpiringStore<String> permissionCache(RedisConnectionFactory redisConnectionFactory,
+                                                 CircuitBreaker permissionCacheCircuitBreaker) {
+        return new ResilientExpiringStore<>(new RedisExpiringStore<>(redisTemplate(redisConnectionFactory, RedisSerializer.string())),
+                permissionCacheCircuitBreaker);
+    }
 
-        verificationCodeCache.afterPropertiesSet();
-        return verificationCodeCache;
+    @Bean
+    public ExpiringStore<String> revokedTokenCache(RedisConnectionFactory redisConnectionFactory,
+                                                   CircuitBreaker revokedTokenCacheCircuitBreaker) {
+        return new GuardedExpiringStore<>(new RedisExpiringStore<>(redisTemplate(redisConnectionFactory, RedisSerializer.string())),
+                revokedTokenCacheCircuitBreaker);
+    }
+
+    /**
+     * Create a template with string keys and values written by the given serializer.
+     *
+     * @param redisConnectionFactory connection factory of the cache server
+     * @param valueSerializer        serializer of the values
+     * @param <V>                    type of the values
+     * @return the template
+     */
+    private static <V> RedisTemplate<String, V> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                              RedisSerializer<V> valueSerializer) {
+        var redisTemplate = new RedisTemplate<String, V>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(valueSerializer);
+
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+    /**
+     * Create a value serializer of the given encoding. Values in the other encoding are still
+     * read, so the encoding of a cache can be switched without flushing it.
+     *
+     * @param encoding encoding of written values
+     * @param codec    binary codec of the values
+     * @param type     type of the values
+     * @param <T>      type of the values
+     * @return the value serializer
+     */
+    private static <T> RedisSerializer<T> valueSerializer(CacheEncoding encoding, BinaryCodec<T> codec, Class<T> type) {
+        var json = new Jackson2JsonRedisSerializer<>(type);
+        var binary = new BinaryRedisSerializer<>(codec, json);
+        return switch (encoding) {
+            case BINARY -> binary;
+            case JSON -> new RedisSerializer<>() {
+                @Override
+                public byte[] serialize(T value) {
+                    return json.serialize(value);
+                }
+
+                @Override
+                public T deserialize(byte[] bytes) {
+                    return binary.deserialize(bytes);
+                }
+            };
+        };
+    }
+
+    /**
+     * Subscribe to invalidations published by other nodes, so their in-process caches drop
+     * users changed, tokens revoked and memberships changed elsewhere.
+     *
+     * @param redisConnectionFactory  connection factory of the cache server
+     * @param userCacheService        the service holding the near user cache
+     * @param verifiedTokenCache      the cache of verified tokens
+     * @param ledgerMembershipService the service holding the near membership caches
+     * @param cacheKeyComposer        composer of the channel names
+     * @return the listener container
+     */
+    @Bean
+    public RedisMessageListenerContainer invalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       UserCacheService userCacheService,
+                                                                       VerifiedTokenCache verifiedTokenCache,
+                                                                       LedgerMembershipService ledgerMembershipService,
+                                                                       CacheKeyComposer cacheKeyComposer) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(userCacheService, new ChannelTopic(cacheKeyComposer.getUserInvalidationChannel()));
+        container.addMessageListener(verifiedTokenCache, new ChannelTopic(cacheKeyComposer.getTokenRevocationChannel()));
+        container.addMessageListener(ledgerMembershipService, new ChannelTopic(cacheKeyComposer.getLedgerInvalidationChannel()));
+        return container;
     }
 
 }
@@ -1,11 +1,19 @@
 package com.onixbyte.clearledger.configuration;
 
 import com.onixbyte.clearledger.configuration.property.ConcurrentProperty;
+import com.onixbyte.clearledger.configuration.property.PasswordHashProperty;
+import com.onixbyte.clearledger.constant.QueueType;
+import com.onixbyte.clearledger.constant.RejectionPolicy;
+import com.onixbyte.clearledger.executor.ExecutorRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration class for setting up concurrent thread pools. This class defines beans for different types of thread
@@ -14,42 +22,73 @@ import java.util.concurrent.*;
  *
  * @author zihluwang
  * @see ConcurrentProperty
+ * @see ExecutorRegistry
  * @see ExecutorService
  * @see Executors
  */
 @Configuration
-@EnableConfigurationProperties(ConcurrentProperty.class)
+@EnableConfigurationProperties({ConcurrentProperty.class, PasswordHashProperty.class})
 public class ConcurrentConfig {
 
     /**
-     * A cached thread pool for IO operations.
+     * The registry creating the pools for IO operations, non-IO operations and {@code @Async}
+     * tasks, on virtual threads in the virtual thread mode.
      *
-     * @return a cached thread pool for IO operations
+     * @param concurrentProperty the concurrent property
+     * @param environment        the environment telling if the virtual thread mode is on
+     * @param meterRegistry      the registry of the metrics of the pools
+     * @return the executor registry
      */
     @Bean
-    public ExecutorService ioThreadPool() {
-        return new ThreadPoolExecutor(
-                5,
-                50,
-                60L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(200)
-        );
+    public ExecutorRegistry executorRegistry(ConcurrentProperty concurrentProperty,
+                                             Environment environment,
+                                             MeterRegistry meterRegistry) {
+        return new ExecutorRegistry(concurrentProperty, Threading.VIRTUAL.isActive(environment), meterRegistry);
     }
 
     /**
-     * A fixed thread pool for non-IO operations.
+     * The pool for IO operations, shut down by the executor registry.
      *
-     * @param concurrentProperty the concurrent property
-     * @return a fixed thread pool for non-IO operations
+     * @param executorRegistry the executor registry
+     * @return the pool for IO operations
      */
-    @Bean
-    public ExecutorService taskThreadPool(ConcurrentProperty concurrentProperty) {
-        return new ThreadPoolExecutor(
-                concurrentProperty.getMaxTaskThreadCount(),
-                concurrentProperty.getMaxTaskThreadCount(),
-                0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>(100)
-        );
+    @Bean(destroyMethod = "")
+    public ExecutorService ioThreadPool(ExecutorRegistry executorRegistry) {
+        return executorRegistry.get(ExecutorRegistry.IO);
+    }
+
+    /**
+     * The pool for non-IO operations, shut down by the executor registry.
+     *
+     * @param executorRegistry the executor registry
+     * @return the pool for non-IO operations
+     */
+    @Bean(destroyMethod = "")
+    public ExecutorService taskThreadPool(ExecutorRegistry executorRegistry) {
+        return executorRegistry.get(ExecutorRegistry.TASK);
+    }
+
+    /**
+     * A fixed thread pool hashing passwords, kept apart from request threads so a burst of logins
+     * cannot take every processor. Hashing is bound to processors, so the pool stays on platform
+     * threads in the virtual thread mode. Tasks beyond the queue capacity are rejected, and the
+     * pool is shut down by the executor registry.
+     *
+     * @param executorRegistry     the executor registry
+     * @param passwordHashProperty the password hashing property
+     * @return a fixed thread pool for password hashing
+     */
+    @Bean(destroyMethod = "")
+    public ExecutorService passwordHashThreadPool(ExecutorRegistry executorRegistry,
+                                                  PasswordHashProperty passwordHashProperty) {
+        var pool = new ConcurrentProperty.Pool();
+        pool.setCoreSize(passwordHashProperty.getThreadCount());
+        pool.setMaxSize(passwordHashProperty.getThreadCount());
+        pool.setQueueType(QueueType.ARRAY);
+        pool.setQueueCapacity(passwordHashProperty.getQueueCapacity());
+        pool.setRejectionPolicy(RejectionPolicy.ABORT);
+        pool.setVirtualThreads(false);
+        return executorRegistry.register(ExecutorRegistry.PASSWORD_HASH, pool);
     }
 
 }
@@ -0,0 +1,98 @@
+package com.onixbyte.clearledger.configuration;
+
+import com.onixbyte.clearledger.configuration.property.ReplicaProperty;
+import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.datasource.ReplicaRoutingDataSource;
+import com.onixbyte.clearledger.security.UserHolder;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * Configuration of data sources routing read-only transactions to replicas. Only applied when at
+ * least one replica is configured, otherwise the data source is auto-configured as usual.
+ *
+ * @author zihluwang
+ * @see ReplicaRoutingDataSource
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperty.class)
+@ConditionalOnProperty(prefix = "app.datasource", name = "replicas[0].url")
+public class DataSourceConfig {
+
+    /**
+     * The connection pool of the primary database, configured by {@code spring.datasource}. Schema
+     * migrations always run against it.
+     *
+     * @param dataSourceProperties the primary data source properties
+     * @return the primary connection pool
+     */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * The data source routing read-only transactions to the replicas, which are closed with it.
+     *
+     * @param primaryDataSource the primary connection pool
+     * @param replicaProperty   the replica properties
+     * @return the routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaProperty replicaProperty) {
+        var replicas = new ArrayList<DataSource>();
+        for (var i = 0; i < replicaProperty.getReplicas().size(); i++) {
+            var replica = replicaProperty.getReplicas().get(i);
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+            dataSource.setReadOnly(true);
+            // do not fail the startup when a replica is down, it is skipped until it recovers
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.add(dataSource);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource,
+                replicas,
+                replicaProperty.getRetryInterval(),
+                replicaProperty.getStickyWindow(),
+                () -> Optional.ofNullable(UserHolder.getCurrentUser())
+                        .map(BizUser::id)
+                        .orElse(null));
+    }
+
+    /**
+     * The data source used by the application. A connection is only taken when the first statement
+     * is executed, so the routing sees whether the transaction is read-only.
+     *
+     * @param replicaRoutingDataSource the routing data source
+     * @return the data source used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+}
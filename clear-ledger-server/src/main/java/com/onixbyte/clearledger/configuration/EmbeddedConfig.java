@@ -0,0 +1,67 @@
+package com.onixbyte.clearledger.configuration;
+
+import com.onixbyte.clearledger.configuration.property.UserCacheProperty;
+import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.repository.SerialCounterRepository;
+import com.onixbyte.clearledger.store.ExpiringStore;
+import com.onixbyte.clearledger.store.JdbcSerialCounter;
+import com.onixbyte.clearledger.store.LocalExpiringStore;
+import com.onixbyte.clearledger.store.LocalVerificationCodeStore;
+import com.onixbyte.clearledger.store.SerialCounter;
+import com.onixbyte.clearledger.store.VerificationCodeStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * In-process stores of single-node deployments, which run without a cache server under the
+ * {@code embedded} profile. Serial counters are kept in the database so they survive restarts,
+ * everything else is kept in memory.
+ *
+ * @author zihluwang
+ */
+@Configuration
+@Profile("embedded")
+@EnableConfigurationProperties(UserCacheProperty.class)
+public class EmbeddedConfig {
+
+    /**
+     * Maximum count of cached permission answers.
+     */
+    private static final int PERMISSION_CACHE_SIZE = 100_000;
+
+    @Bean
+    public ExpiringStore<BizUser> userCache(UserCacheProperty userCacheProperty) {
+        return new LocalExpiringStore<>(userCacheProperty.getNearCacheSize());
+    }
+
+    @Bean
+    public SerialCounter serialCounter(SerialCounterRepository serialCounterRepository,
+                                       PlatformTransactionManager transactionManager) {
+        return new JdbcSerialCounter(serialCounterRepository, transactionManager);
+    }
+
+    @Bean
+    public VerificationCodeStore verificationCodeStore() {
+        return new LocalVerificationCodeStore();
+    }
+
+    @Bean
+    public ExpiringStore<String> permissionCache() {
+        return new LocalExpiringStore<>(PERMISSION_CACHE_SIZE);
+    }
+
+    /**
+     * Revocations are never dropped before their tokens expire, so this store is bounded only by
+     * the tokens revoked within their lifetime.
+     *
+     * @return store of revoked tokens
+     */
+    @Bean
+    public ExpiringStore<String> revokedTokenCache() {
+        return new LocalExpiringStore<>();
+    }
+
+}
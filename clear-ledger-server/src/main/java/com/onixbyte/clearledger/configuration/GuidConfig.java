@@ -0,0 +1,57 @@
+package com.onixbyte.clearledger.configuration;
+
+import com.onixbyte.clearledger.configuration.property.GuidProperty;
+import com.onixbyte.clearledger.constant.IdStrategy;
+import com.onixbyte.clearledger.constant.IdType;
+import com.onixbyte.clearledger.generator.BatchGuidCreator;
+import com.onixbyte.clearledger.generator.LedgerIdCreator;
+import com.onixbyte.clearledger.generator.SnowflakeIdCreator;
+import com.onixbyte.clearledger.generator.TransactionIdCreator;
+import com.onixbyte.clearledger.generator.UserIdCreator;
+import com.onixbyte.clearledger.service.SerialService;
+import com.onixbyte.guid.GuidCreator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for id creators. The strategy of each {@link IdType} is selected through
+ * {@link GuidProperty}.
+ *
+ * @author zihluwang
+ * @see GuidProperty
+ * @see IdStrategy
+ */
+@Configuration
+@EnableConfigurationProperties(GuidProperty.class)
+public class GuidConfig {
+
+    @Bean
+    public GuidCreator<String> userIdCreator(GuidProperty guidProperty, SerialService serialService) {
+        return switch (getStrategy(guidProperty, IdType.USER)) {
+            case SERIAL -> new UserIdCreator(serialService);
+            case SNOWFLAKE -> new SnowflakeIdCreator(IdType.USER, guidProperty.getNodeId());
+        };
+    }
+
+    @Bean
+    public GuidCreator<String> ledgerIdCreator(GuidProperty guidProperty, SerialService serialService) {
+        return switch (getStrategy(guidProperty, IdType.LEDGER)) {
+            case SERIAL -> new LedgerIdCreator(serialService);
+            case SNOWFLAKE -> new SnowflakeIdCreator(IdType.LEDGER, guidProperty.getNodeId());
+        };
+    }
+
+    @Bean
+    public BatchGuidCreator<String> transactionIdCreator(GuidProperty guidProperty, SerialService serialService) {
+        return switch (getStrategy(guidProperty, IdType.TRANSACTION)) {
+            case SERIAL -> new TransactionIdCreator(serialService);
+            case SNOWFLAKE -> new SnowflakeIdCreator(IdType.TRANSACTION, guidProperty.getNodeId());
+        };
+    }
+
+    private IdStrategy getStrategy(GuidProperty guidProperty, IdType idType) {
+        return guidProperty.getStrategies().getOrDefault(idType, IdStrategy.SERIAL);
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.onixbyte.clearledger.configuration;
 
+import com.onixbyte.clearledger.configuration.property.PasswordHashProperty;
 import com.onixbyte.clearledger.security.UserAuthenticationFilter;
 import com.onixbyte.clearledger.security.UsernamePasswordAuthenticationProvider;
 import org.springframework.context.annotation.Bean;
@@ -32,16 +33,16 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests((customiser) -> customiser
                         .requestMatchers("/error", "/error/**").permitAll()
-                        .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/auth/logout").authenticated()
+                        .requestMatchers("/auth/**").permitAll()
                         .anyRequest().authenticated())
                 .addFilterBefore(userAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashProperty passwordHashProperty) {
+        return new BCryptPasswordEncoder(passwordHashProperty.getStrength());
     }
 
     @Bean
@@ -0,0 +1,10 @@
+package com.onixbyte.clearledger.configuration;
+
+import com.onixbyte.clearledger.configuration.property.SerialProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SerialProperty.class)
+public class SerialConfig {
+}
@@ -0,0 +1,89 @@
+package com.onixbyte.clearledger.configuration;
+
+import com.onixbyte.clearledger.configuration.property.BulkheadProperty;
+import com.onixbyte.clearledger.datasource.BulkheadDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Configuration of the virtual thread mode, enabled with {@code spring.threads.virtual.enabled}.
+ * <p>
+ * Spring Boot serves requests and runs scheduled tasks on virtual threads in this mode, and the
+ * {@link com.onixbyte.clearledger.executor.ExecutorRegistry} moves {@code @Async} tasks and IO
+ * tasks onto virtual threads as well. Pools sized for processor bound work, such as password
+ * hashing, keep their platform threads.
+ * <p>
+ * Nothing limits the count of virtual threads any more, so the data source is wrapped in a
+ * {@link BulkheadDataSource} holding at most as many connections as the pool has.
+ *
+ * @author zihluwang
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(BulkheadProperty.class)
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    /**
+     * Maximum count of connections held at the same time if the pool size is unknown, the default
+     * pool size of HikariCP.
+     */
+    private static final int DEFAULT_MAX_CONCURRENT_CONNECTIONS = 10;
+
+    /**
+     * Wrap the data source used by the application in a bulkhead.
+     *
+     * @param bulkheadProperty the bulkhead properties
+     * @return the post processor wrapping the data source
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceBulkhead(ObjectProvider<BulkheadProperty> bulkheadProperty) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+
+                var property = bulkheadProperty.getObject();
+                var maxConcurrentConnections = property.getMaxConcurrentConnections();
+                if (Objects.isNull(maxConcurrentConnections)) {
+                    maxConcurrentConnections = getMaximumPoolSize(dataSource);
+                }
+                log.info("Limiting the data source to {} concurrent connections.", maxConcurrentConnections);
+                return new BulkheadDataSource(dataSource, maxConcurrentConnections, property.getAcquireTimeout());
+            }
+        };
+    }
+
+    /**
+     * Get the maximum size of the primary connection pool behind the given data source.
+     *
+     * @param dataSource the data source
+     * @return the maximum pool size, or the default pool size of HikariCP if unknown
+     */
+    private static int getMaximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to read the maximum pool size of the data source.", e);
+        }
+        return DEFAULT_MAX_CONCURRENT_CONNECTIONS;
+    }
+
+}
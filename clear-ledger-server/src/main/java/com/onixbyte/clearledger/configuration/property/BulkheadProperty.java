@@ -0,0 +1,72 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Database bulkhead configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.datasource.bulkhead} prefix and control
+ * {@link com.onixbyte.clearledger.datasource.BulkheadDataSource}, which limits the connections
+ * held at the same time when requests are served on virtual threads.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.datasource.bulkhead")
+public class BulkheadProperty {
+
+    /**
+     * Maximum count of connections held at the same time. Defaults to the maximum pool size of the
+     * primary connection pool.
+     */
+    private Integer maxConcurrentConnections;
+
+    /**
+     * How long a caller waits for a connection before failing. Default is 2 seconds.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Default constructor.
+     */
+    public BulkheadProperty() {
+    }
+
+    /**
+     * Get the maximum count of connections held at the same time.
+     *
+     * @return maximum count of connections, or {@code null} to use the pool size
+     */
+    public Integer getMaxConcurrentConnections() {
+        return maxConcurrentConnections;
+    }
+
+    /**
+     * Set the maximum count of connections held at the same time.
+     *
+     * @param maxConcurrentConnections maximum count of connections
+     */
+    public void setMaxConcurrentConnections(Integer maxConcurrentConnections) {
+        this.maxConcurrentConnections = maxConcurrentConnections;
+    }
+
+    /**
+     * Get how long a caller waits for a connection.
+     *
+     * @return timeout of waiting for a connection
+     */
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    /**
+     * Set how long a caller waits for a connection.
+     *
+     * @param acquireTimeout timeout of waiting for a connection
+     */
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+}
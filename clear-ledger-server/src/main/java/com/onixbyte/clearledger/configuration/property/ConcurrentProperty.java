@@ -1,19 +1,49 @@
 package com.onixbyte.clearledger.configuration.property;
 
+import com.onixbyte.clearledger.constant.QueueType;
+import com.onixbyte.clearledger.constant.RejectionPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.DeprecatedConfigurationProperty;
+
+import java.time.Duration;
 
 /**
  * Concurrent configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.concurrent} prefix and configure the pools created
+ * by {@link com.onixbyte.clearledger.executor.ExecutorRegistry}. The former
+ * {@code app.concurrent.max-task-thread-count} is still accepted and sizes the pool for non-IO
+ * operations, unless {@code app.concurrent.task.*} sets the sizes itself.
  *
  * @author zihluwang
  */
 @ConfigurationProperties(prefix = "app.concurrent")
 public class ConcurrentProperty {
 
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentProperty.class);
+
+    /**
+     * How long the pools are given to finish running and queued tasks on shutdown before they are
+     * interrupted. Default is 30 seconds.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    /**
+     * The pool for IO operations.
+     */
+    private Pool io = pool(5, 50, 200, null);
+
+    /**
+     * The pool for non-IO operations, on platform threads unless set otherwise.
+     */
+    private Pool task = pool(20, 20, 100, false);
+
     /**
-     * Maximum count of threads for non-IO operations. Default is {@code 20}.
+     * The pool for {@code @Async} tasks.
      */
-    private Integer maxTaskThreadCount = 20;
+    private Pool async = pool(5, 10, 100, null);
 
     /**
      * Default constructor.
@@ -25,18 +55,209 @@ public class ConcurrentProperty {
      * Get the maximum count of threads for non-IO operations.
      *
      * @return maximum count of threads for non-IO operations
+     * @deprecated use {@code app.concurrent.task.max-size} instead
      */
+    @Deprecated
+    @DeprecatedConfigurationProperty(replacement = "app.concurrent.task.max-size",
+            reason = "The pool for non-IO operations is configured under app.concurrent.task.")
     public Integer getMaxTaskThreadCount() {
-        return maxTaskThreadCount;
+        return task.getMaxSize();
     }
 
     /**
-     * Set the maximum count of threads for non-IO operations.
+     * Set both the core and the maximum count of threads for non-IO operations, as the former
+     * setting did. Sizes set under {@code app.concurrent.task} are bound afterwards and win.
      *
      * @param maxTaskThreadCount maximum count of threads for non-IO operations
+     * @deprecated use {@code app.concurrent.task.core-size} and {@code max-size} instead
      */
+    @Deprecated
     public void setMaxTaskThreadCount(Integer maxTaskThreadCount) {
-        this.maxTaskThreadCount = maxTaskThreadCount;
+        log.warn("app.concurrent.max-task-thread-count is deprecated, set app.concurrent.task.core-size and max-size instead.");
+        task.setCoreSize(maxTaskThreadCount);
+        task.setMaxSize(maxTaskThreadCount);
+    }
+
+    /**
+     * Get how long the pools are given to finish their tasks on shutdown.
+     *
+     * @return shutdown timeout of the pools
+     */
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * Set how long the pools are given to finish their tasks on shutdown.
+     *
+     * @param shutdownTimeout shutdown timeout of the pools
+     */
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Get the pool for IO operations.
+     *
+     * @return the pool for IO operations
+     */
+    public Pool getIo() {
+        return io;
+    }
+
+    /**
+     * Set the pool for IO operations.
+     *
+     * @param io the pool for IO operations
+     */
+    public void setIo(Pool io) {
+        this.io = io;
+    }
+
+    /**
+     * Get the pool for non-IO operations.
+     *
+     * @return the pool for non-IO operations
+     */
+    public Pool getTask() {
+        return task;
+    }
+
+    /**
+     * Set the pool for non-IO operations.
+     *
+     * @param task the pool for non-IO operations
+     */
+    public void setTask(Pool task) {
+        this.task = task;
+    }
+
+    /**
+     * Get the pool for {@code @Async} tasks.
+     *
+     * @return the pool for {@code @Async} tasks
+     */
+    public Pool getAsync() {
+        return async;
+    }
+
+    /**
+     * Set the pool for {@code @Async} tasks.
+     *
+     * @param async the pool for {@code @Async} tasks
+     */
+    public void setAsync(Pool async) {
+        this.async = async;
+    }
+
+    private static Pool pool(int coreSize, int maxSize, int queueCapacity, Boolean virtualThreads) {
+        var pool = new Pool();
+        pool.setCoreSize(coreSize);
+        pool.setMaxSize(maxSize);
+        pool.setQueueCapacity(queueCapacity);
+        pool.setVirtualThreads(virtualThreads);
+        return pool;
+    }
+
+    /**
+     * Settings of a thread pool.
+     */
+    public static class Pool {
+
+        /**
+         * Count of threads kept alive while idle, at most the maximum size. Default is {@code 10}
+         * unless the pool sets its own.
+         */
+        private Integer coreSize = 10;
+
+        /**
+         * Maximum count of threads. Default is {@code 10} unless the pool sets its own.
+         */
+        private Integer maxSize = 10;
+
+        /**
+         * How long threads beyond the core size are kept while idle. Default is 60 seconds.
+         */
+        private Duration keepAlive = Duration.ofSeconds(60);
+
+        /**
+         * Queue holding tasks while all threads are busy. Default is {@link QueueType#LINKED}.
+         */
+        private QueueType queueType = QueueType.LINKED;
+
+        /**
+         * Capacity of the queue, ignored by {@link QueueType#SYNCHRONOUS}.
+         */
+        private Integer queueCapacity = 100;
+
+        /**
+         * What is done with tasks when the threads are busy and the queue is full. Default is
+         * {@link RejectionPolicy#ABORT}.
+         */
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+        /**
+         * Whether every task runs on its own virtual thread instead, ignoring the sizes, queue and
+         * rejection policy. Follows {@code spring.threads.virtual.enabled} if not set.
+         */
+        private Boolean virtualThreads;
+
+        public Integer getCoreSize() {
+            return coreSize;
+        }
+
+        public void setCoreSize(Integer coreSize) {
+            this.coreSize = coreSize;
+        }
+
+        public Integer getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public QueueType getQueueType() {
+            return queueType;
+        }
+
+        public void setQueueType(QueueType queueType) {
+            this.queueType = queueType;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+        public Boolean getVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(Boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
     }
 
 }
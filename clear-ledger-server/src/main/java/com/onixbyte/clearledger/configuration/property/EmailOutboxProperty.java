@@ -0,0 +1,163 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Email outbox configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.email.outbox} prefix and control how
+ * {@link com.onixbyte.clearledger.service.EmailOutboxDispatcher} drains the email outbox.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.email.outbox")
+public class EmailOutboxProperty {
+
+    /**
+     * Maximum count of emails sent over one SMTP connection. Default is {@code 50}.
+     */
+    private Integer batchSize = 50;
+
+    /**
+     * Count of attempts after which an email is given up. Default is {@code 8}.
+     */
+    private Integer maxAttempts = 8;
+
+    /**
+     * Delay before the second attempt, doubled for every further attempt. Default is 30 seconds.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound of the delay between attempts. Default is 1 hour.
+     */
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    /**
+     * How long a claimed batch is reserved for its dispatcher before other dispatchers may take it
+     * over. Must be longer than sending a batch takes. Default is 5 minutes.
+     */
+    private Duration lease = Duration.ofMinutes(5);
+
+    /**
+     * How long sent emails are kept. Default is 7 days.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Default constructor.
+     */
+    public EmailOutboxProperty() {
+    }
+
+    /**
+     * Get the maximum count of emails sent over one SMTP connection.
+     *
+     * @return maximum count of emails per batch
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the maximum count of emails sent over one SMTP connection.
+     *
+     * @param batchSize maximum count of emails per batch
+     */
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the count of attempts after which an email is given up.
+     *
+     * @return maximum count of attempts
+     */
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Set the count of attempts after which an email is given up.
+     *
+     * @param maxAttempts maximum count of attempts
+     */
+    public void setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Get the delay before the second attempt.
+     *
+     * @return delay before the second attempt
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Set the delay before the second attempt.
+     *
+     * @param initialBackoff delay before the second attempt
+     */
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Get the upper bound of the delay between attempts.
+     *
+     * @return upper bound of the delay between attempts
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Set the upper bound of the delay between attempts.
+     *
+     * @param maxBackoff upper bound of the delay between attempts
+     */
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Get how long a claimed batch is reserved for its dispatcher.
+     *
+     * @return lease of claimed batches
+     */
+    public Duration getLease() {
+        return lease;
+    }
+
+    /**
+     * Set how long a claimed batch is reserved for its dispatcher.
+     *
+     * @param lease lease of claimed batches
+     */
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * Get how long sent emails are kept.
+     *
+     * @return retention of sent emails
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Set how long sent emails are kept.
+     *
+     * @param retention retention of sent emails
+     */
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import com.onixbyte.clearledger.constant.IdStrategy;
+import com.onixbyte.clearledger.constant.IdType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Id generation configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.guid} prefix and select the
+ * {@link IdStrategy strategy} used to create ids of each {@link IdType}.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.guid")
+public class GuidProperty {
+
+    /**
+     * Id of this node, must be unique among all nodes using the {@link IdStrategy#SNOWFLAKE}
+     * strategy. Default is {@code 0}.
+     */
+    private Integer nodeId = 0;
+
+    /**
+     * Strategies keyed by id type, types without a strategy use {@link IdStrategy#SERIAL}.
+     */
+    private Map<IdType, IdStrategy> strategies = new EnumMap<>(IdType.class);
+
+    /**
+     * Default constructor.
+     */
+    public GuidProperty() {
+    }
+
+    /**
+     * Get the id of this node.
+     *
+     * @return id of this node
+     */
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Set the id of this node.
+     *
+     * @param nodeId id of this node
+     */
+    public void setNodeId(Integer nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Get the strategies keyed by id type.
+     *
+     * @return strategies keyed by id type
+     */
+    public Map<IdType, IdStrategy> getStrategies() {
+        return strategies;
+    }
+
+    /**
+     * Set the strategies keyed by id type.
+     *
+     * @param strategies strategies keyed by id type
+     */
+    public void setStrategies(Map<IdType, IdStrategy> strategies) {
+        this.strategies = strategies;
+    }
+
+}
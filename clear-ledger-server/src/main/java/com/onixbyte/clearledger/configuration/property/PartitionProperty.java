@@ -0,0 +1,122 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Transaction partition configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.partition} prefix and control how
+ * {@link com.onixbyte.clearledger.service.TransactionPartitionService} maintains the monthly
+ * partitions of {@code transactions}.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.partition")
+public class PartitionProperty {
+
+    /**
+     * Count of months after the current month whose partitions are created ahead of time.
+     * Default is {@code 3}.
+     */
+    private Integer monthsAhead = 3;
+
+    /**
+     * Count of months whose partitions stay attached, including the current month. Older
+     * partitions are detached for archiving. Default is {@code 0}, which keeps all partitions.
+     */
+    private Integer retentionMonths = 0;
+
+    /**
+     * Count of rows copied out of the default partition by each database transaction. Default is
+     * {@code 1000}.
+     */
+    private Integer batchSize = 1_000;
+
+    /**
+     * How long attaching or detaching a partition waits for locks before it gives up until the
+     * next run.
+     * Default is 5 seconds.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Default constructor.
+     */
+    public PartitionProperty() {
+    }
+
+    /**
+     * Get the count of months whose partitions are created ahead of time.
+     *
+     * @return count of months created ahead of time
+     */
+    public Integer getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    /**
+     * Set the count of months whose partitions are created ahead of time.
+     *
+     * @param monthsAhead count of months created ahead of time
+     */
+    public void setMonthsAhead(Integer monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Get the count of months whose partitions stay attached.
+     *
+     * @return count of months kept attached, or {@code 0} to keep all partitions
+     */
+    public Integer getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    /**
+     * Set the count of months whose partitions stay attached.
+     *
+     * @param retentionMonths count of months kept attached, or {@code 0} to keep all partitions
+     */
+    public void setRetentionMonths(Integer retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Get the count of rows copied out of the default partition by each database transaction.
+     *
+     * @return count of rows copied per batch
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the count of rows copied out of the default partition by each database transaction.
+     *
+     * @param batchSize count of rows copied per batch
+     */
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get how long attaching or detaching a partition waits for locks.
+     *
+     * @return lock timeout of attaching or detaching a partition
+     */
+    public Duration getLockTimeout() {
+        return lockTimeout;
+    }
+
+    /**
+     * Set how long attaching or detaching a partition waits for locks.
+     *
+     * @param lockTimeout lock timeout of attaching or detaching a partition
+     */
+    public void setLockTimeout(Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+}
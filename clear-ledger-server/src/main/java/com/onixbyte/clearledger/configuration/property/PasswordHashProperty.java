@@ -0,0 +1,120 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Password hashing configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.password-hash} prefix and control the BCrypt cost
+ * and the dedicated thread pool on which
+ * {@link com.onixbyte.clearledger.service.PasswordHashService} hashes and checks passwords.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.password-hash")
+public class PasswordHashProperty {
+
+    /**
+     * BCrypt cost of new hashes, from {@code 4} to {@code 31}. Hashes of a lower cost are rehashed
+     * on the next successful login. Default is {@code 10}.
+     */
+    private Integer strength = 10;
+
+    /**
+     * Count of threads hashing passwords. Default is half of the available processors, at least
+     * {@code 1}.
+     */
+    private Integer threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Count of hashing tasks allowed to wait for a thread. Requests beyond are rejected with
+     * {@code 503 Service Unavailable}. Default is {@code 64}.
+     */
+    private Integer queueCapacity = 64;
+
+    /**
+     * Delay suggested to rejected clients in the {@code Retry-After} header. Default is 5 seconds.
+     */
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    /**
+     * Default constructor.
+     */
+    public PasswordHashProperty() {
+    }
+
+    /**
+     * Get the BCrypt cost of new hashes.
+     *
+     * @return BCrypt cost of new hashes
+     */
+    public Integer getStrength() {
+        return strength;
+    }
+
+    /**
+     * Set the BCrypt cost of new hashes.
+     *
+     * @param strength BCrypt cost of new hashes
+     */
+    public void setStrength(Integer strength) {
+        this.strength = strength;
+    }
+
+    /**
+     * Get the count of threads hashing passwords.
+     *
+     * @return count of threads hashing passwords
+     */
+    public Integer getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Set the count of threads hashing passwords.
+     *
+     * @param threadCount count of threads hashing passwords
+     */
+    public void setThreadCount(Integer threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Get the count of hashing tasks allowed to wait for a thread.
+     *
+     * @return count of hashing tasks allowed to wait
+     */
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Set the count of hashing tasks allowed to wait for a thread.
+     *
+     * @param queueCapacity count of hashing tasks allowed to wait
+     */
+    public void setQueueCapacity(Integer queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Get the delay suggested to rejected clients.
+     *
+     * @return delay suggested to rejected clients
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Set the delay suggested to rejected clients.
+     *
+     * @param retryAfter delay suggested to rejected clients
+     */
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+}
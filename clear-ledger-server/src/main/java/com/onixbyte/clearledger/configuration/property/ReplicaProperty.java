@@ -0,0 +1,171 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.datasource} prefix. When at least one replica is
+ * configured, read-only transactions are routed to the replicas by
+ * {@link com.onixbyte.clearledger.datasource.ReplicaRoutingDataSource}, while the primary is
+ * still configured by {@code spring.datasource}.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaProperty {
+
+    /**
+     * Replica databases.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * How long a replica failing to hand out a connection is skipped. Default is 30 seconds.
+     */
+    private Duration retryInterval = Duration.ofSeconds(30);
+
+    /**
+     * How long read-only transactions of a user go to the primary after the user wrote. Default
+     * is {@code 0}, which disables stickiness.
+     */
+    private Duration stickyWindow = Duration.ZERO;
+
+    /**
+     * Default constructor.
+     */
+    public ReplicaProperty() {
+    }
+
+    /**
+     * Get the replica databases.
+     *
+     * @return replica databases
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Set the replica databases.
+     *
+     * @param replicas replica databases
+     */
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Get how long a failed replica is skipped.
+     *
+     * @return how long a failed replica is skipped
+     */
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    /**
+     * Set how long a failed replica is skipped.
+     *
+     * @param retryInterval how long a failed replica is skipped
+     */
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * Get how long reads of a user go to the primary after the user wrote.
+     *
+     * @return the sticky window, zero if stickiness is disabled
+     */
+    public Duration getStickyWindow() {
+        return stickyWindow;
+    }
+
+    /**
+     * Set how long reads of a user go to the primary after the user wrote.
+     *
+     * @param stickyWindow the sticky window, zero to disable stickiness
+     */
+    public void setStickyWindow(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    /**
+     * Connection settings of a replica database.
+     */
+    public static class Replica {
+
+        /**
+         * JDBC URL of the replica.
+         */
+        private String url;
+
+        /**
+         * Username of the replica.
+         */
+        private String username;
+
+        /**
+         * Password of the replica.
+         */
+        private String password;
+
+        /**
+         * Maximum size of the connection pool. Default is {@code 10}.
+         */
+        private Integer maximumPoolSize = 10;
+
+        /**
+         * How long to wait for a connection before falling back to the primary. Default is
+         * 1 second.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Integer getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(Integer maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+    }
+
+}
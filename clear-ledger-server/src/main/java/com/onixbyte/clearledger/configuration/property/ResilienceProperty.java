@@ -0,0 +1,197 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Resilience configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.resilience} prefix and control the circuit
+ * breakers guarding the stores on the cache server, see
+ * {@link com.onixbyte.clearledger.store.CircuitBreaker}.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.resilience")
+public class ResilienceProperty {
+
+    /**
+     * Count of most recent calls the failure rate is computed over. Default is {@code 20}.
+     */
+    private Integer windowSize = 20;
+
+    /**
+     * Count of calls in the window before the circuit may open. Default is {@code 10}.
+     */
+    private Integer minimumCalls = 10;
+
+    /**
+     * Ratio of failed calls in the window at which the circuit opens. Default is {@code 0.5}.
+     */
+    private Double failureRateThreshold = 0.5D;
+
+    /**
+     * Calls taking longer than this count as failed even if they succeed. Default is 250
+     * milliseconds.
+     */
+    private Duration slowCallThreshold = Duration.ofMillis(250);
+
+    /**
+     * How long an open circuit falls back without calling the cache server before a few trial
+     * calls are let through. Default is 10 seconds.
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * Count of trial calls which must all succeed to close the circuit again. Default is
+     * {@code 3}.
+     */
+    private Integer trialCalls = 3;
+
+    /**
+     * Serials counted by the database while the cache server is unavailable start from this
+     * value, and serials counted by the cache server must stay below it, so the two never issue
+     * the same serial.
+     * <p>
+     * Serials are four digits, so the floor splits the daily capacity of every counter: the cache
+     * server issues at most {@code floor - 1} serials a day even while the database is never used,
+     * and the database at most {@code 10000 - floor}. Raising the floor gives normal operation
+     * more serials and outages fewer. Default is {@code 9000}, 8999 serials on the cache server
+     * and 1000 in the database.
+     */
+    private Long serialFallbackFloor = 9_000L;
+
+    /**
+     * Default constructor.
+     */
+    public ResilienceProperty() {
+    }
+
+    /**
+     * Get the count of most recent calls the failure rate is computed over.
+     *
+     * @return size of the window
+     */
+    public Integer getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Set the count of most recent calls the failure rate is computed over.
+     *
+     * @param windowSize size of the window
+     */
+    public void setWindowSize(Integer windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Get the count of calls in the window before the circuit may open.
+     *
+     * @return minimum count of calls
+     */
+    public Integer getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * Set the count of calls in the window before the circuit may open.
+     *
+     * @param minimumCalls minimum count of calls
+     */
+    public void setMinimumCalls(Integer minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    /**
+     * Get the ratio of failed calls at which the circuit opens.
+     *
+     * @return failure rate threshold
+     */
+    public Double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Set the ratio of failed calls at which the circuit opens.
+     *
+     * @param failureRateThreshold failure rate threshold
+     */
+    public void setFailureRateThreshold(Double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    /**
+     * Get the duration above which calls count as failed.
+     *
+     * @return slow call threshold
+     */
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    /**
+     * Set the duration above which calls count as failed.
+     *
+     * @param slowCallThreshold slow call threshold
+     */
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    /**
+     * Get how long an open circuit falls back before trial calls are let through.
+     *
+     * @return open duration
+     */
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Set how long an open circuit falls back before trial calls are let through.
+     *
+     * @param openDuration open duration
+     */
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Get the count of trial calls which must succeed to close the circuit.
+     *
+     * @return count of trial calls
+     */
+    public Integer getTrialCalls() {
+        return trialCalls;
+    }
+
+    /**
+     * Set the count of trial calls which must succeed to close the circuit.
+     *
+     * @param trialCalls count of trial calls
+     */
+    public void setTrialCalls(Integer trialCalls) {
+        this.trialCalls = trialCalls;
+    }
+
+    /**
+     * Get the first serial counted by the database while the cache server is unavailable.
+     *
+     * @return floor of fallback serials
+     */
+    public Long getSerialFallbackFloor() {
+        return serialFallbackFloor;
+    }
+
+    /**
+     * Set the first serial counted by the database while the cache server is unavailable.
+     *
+     * @param serialFallbackFloor floor of fallback serials
+     */
+    public void setSerialFallbackFloor(Long serialFallbackFloor) {
+        this.serialFallbackFloor = serialFallbackFloor;
+    }
+
+}
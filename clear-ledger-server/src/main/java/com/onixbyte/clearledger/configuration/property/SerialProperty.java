@@ -0,0 +1,146 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serial allocation configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.serial} prefix and control how
+ * {@link com.onixbyte.clearledger.service.SerialService} obtains serials from the cache server.
+ * When {@link #leased} is enabled, each node reserves a whole block of serials with a single
+ * {@code INCRBY} and hands them out locally, instead of issuing one {@code INCR} per serial.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.serial")
+public class SerialProperty {
+
+    /**
+     * Whether serials are leased in blocks. Default is {@code false}.
+     */
+    private Boolean leased = false;
+
+    /**
+     * Count of serials reserved per lease for tags without a dedicated block size. Default is
+     * {@code 100}.
+     */
+    private Integer defaultBlockSize = 100;
+
+    /**
+     * Block sizes keyed by serial tag, e.g. {@code tx}, {@code ledger} or {@code user}.
+     */
+    private Map<String, Integer> blockSizes = new HashMap<>();
+
+    /**
+     * Fraction of a block that may remain before the next block is leased in the background.
+     * Default is {@code 0.2}.
+     */
+    private Double refillRatio = 0.2;
+
+    /**
+     * Time to live of the daily serial counters. Default is {@code 2} days, which keeps a
+     * counter alive for as long as ids of its day may still be created.
+     */
+    private Duration keyTtl = Duration.ofDays(2);
+
+    /**
+     * Default constructor.
+     */
+    public SerialProperty() {
+    }
+
+    /**
+     * Get whether serials are leased in blocks.
+     *
+     * @return {@code true} if serials are leased in blocks, otherwise {@code false}
+     */
+    public Boolean getLeased() {
+        return leased;
+    }
+
+    /**
+     * Set whether serials are leased in blocks.
+     *
+     * @param leased {@code true} to lease serials in blocks
+     */
+    public void setLeased(Boolean leased) {
+        this.leased = leased;
+    }
+
+    /**
+     * Get the default block size.
+     *
+     * @return count of serials reserved per lease
+     */
+    public Integer getDefaultBlockSize() {
+        return defaultBlockSize;
+    }
+
+    /**
+     * Set the default block size.
+     *
+     * @param defaultBlockSize count of serials reserved per lease
+     */
+    public void setDefaultBlockSize(Integer defaultBlockSize) {
+        this.defaultBlockSize = defaultBlockSize;
+    }
+
+    /**
+     * Get the block sizes keyed by serial tag.
+     *
+     * @return block sizes keyed by serial tag
+     */
+    public Map<String, Integer> getBlockSizes() {
+        return blockSizes;
+    }
+
+    /**
+     * Set the block sizes keyed by serial tag.
+     *
+     * @param blockSizes block sizes keyed by serial tag
+     */
+    public void setBlockSizes(Map<String, Integer> blockSizes) {
+        this.blockSizes = blockSizes;
+    }
+
+    /**
+     * Get the refill ratio.
+     *
+     * @return fraction of a block that may remain before the next block is leased
+     */
+    public Double getRefillRatio() {
+        return refillRatio;
+    }
+
+    /**
+     * Set the refill ratio.
+     *
+     * @param refillRatio fraction of a block that may remain before the next block is leased
+     */
+    public void setRefillRatio(Double refillRatio) {
+        this.refillRatio = refillRatio;
+    }
+
+    /**
+     * Get the time to live of the daily serial counters.
+     *
+     * @return time to live of the daily serial counters
+     */
+    public Duration getKeyTtl() {
+        return keyTtl;
+    }
+
+    /**
+     * Set the time to live of the daily serial counters.
+     *
+     * @param keyTtl time to live of the daily serial counters
+     */
+    public void setKeyTtl(Duration keyTtl) {
+        this.keyTtl = keyTtl;
+    }
+
+}
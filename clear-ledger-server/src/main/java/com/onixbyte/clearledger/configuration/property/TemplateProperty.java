@@ -0,0 +1,46 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Template configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.template} prefix and control how
+ * {@link com.onixbyte.clearledger.service.TemplateService} caches templates.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.template")
+public class TemplateProperty {
+
+    /**
+     * Whether templates are checked for changes on every use instead of being cached once loaded.
+     * Meant for development only. Default is {@code false}.
+     */
+    private Boolean reloadOnChange = false;
+
+    /**
+     * Default constructor.
+     */
+    public TemplateProperty() {
+    }
+
+    /**
+     * Get whether templates are checked for changes on every use.
+     *
+     * @return {@code true} if templates are reloaded on change
+     */
+    public Boolean getReloadOnChange() {
+        return reloadOnChange;
+    }
+
+    /**
+     * Set whether templates are checked for changes on every use.
+     *
+     * @param reloadOnChange {@code true} to reload templates on change
+     */
+    public void setReloadOnChange(Boolean reloadOnChange) {
+        this.reloadOnChange = reloadOnChange;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.onixbyte.clearledger.configuration.property;
+
+import com.onixbyte.clearledger.constant.CacheEncoding;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * User cache configuration properties.
+ * <p>
+ * These properties are bound to the {@code app.user-cache} prefix and control how
+ * {@link com.onixbyte.clearledger.service.UserCacheService} caches authenticated users on each
+ * node and on the cache server.
+ *
+ * @author zihluwang
+ */
+@ConfigurationProperties(prefix = "app.user-cache")
+public class UserCacheProperty {
+
+    /**
+     * Maximum count of users cached on each node. Default is {@code 10000}.
+     */
+    private Integer nearCacheSize = 10_000;
+
+    /**
+     * How long a user stays cached on each node. Changes are broadcast to all nodes, so this only
+     * bounds how stale a node may be when a broadcast is lost. Default is 5 minutes.
+     */
+    private Duration nearCacheTtl = Duration.ofMinutes(5);
+
+    /**
+     * How long a user stays cached on the cache server. Default is 1 day.
+     */
+    private Duration remoteTtl = Duration.ofDays(1);
+
+    /**
+     * Upper bound of a random delay added to the time to live on the cache server, so users
+     * cached together do not expire together. Default is 1 hour.
+     */
+    private Duration remoteTtlJitter = Duration.ofHours(1);
+
+    /**
+     * How long an unknown username stays cached as absent. Default is 1 minute.
+     */
+    private Duration negativeTtl = Duration.ofMinutes(1);
+
+    /**
+     * Encoding of users written to the cache server. Both encodings are read whichever is
+     * written, so this can be switched back and forth across a rolling deployment. Default is
+     * {@link CacheEncoding#BINARY}.
+     */
+    private CacheEncoding encoding = CacheEncoding.BINARY;
+
+    /**
+     * Default constructor.
+     */
+    public UserCacheProperty() {
+    }
+
+    /**
+     * Get the maximum count of users cached on each node.
+     *
+     * @return maximum count of users cached on each node
+     */
+    public Integer getNearCacheSize() {
+        return nearCacheSize;
+    }
+
+    /**
+     * Set the maximum count of users cached on each node.
+     *
+     * @param nearCacheSize maximum count of users cached on each node
+     */
+    public void setNearCacheSize(Integer nearCacheSize) {
+        this.nearCacheSize = nearCacheSize;
+    }
+
+    /**
+     * Get how long a user stays cached on each node.
+     *
+     * @return time to live on each node
+     */
+    public Duration getNearCacheTtl() {
+        return nearCacheTtl;
+    }
+
+    /**
+     * Set how long a user stays cached on each node.
+     *
+     * @param nearCacheTtl time to live on each node
+     */
+    public void setNearCacheTtl(Duration nearCacheTtl) {
+        this.nearCacheTtl = nearCacheTtl;
+    }
+
+    /**
+     * Get how long a user stays cached on the cache server.
+     *
+     * @return time to live on the cache server
+     */
+    public Duration getRemoteTtl() {
+        return remoteTtl;
+    }
+
+    /**
+     * Set how long a user stays cached on the cache server.
+     *
+     * @param remoteTtl time to live on the cache server
+     */
+    public void setRemoteTtl(Duration remoteTtl) {
+        this.remoteTtl = remoteTtl;
+    }
+
+    /**
+     * Get the upper bound of the random delay added to the time to live on the cache server.
+     *
+     * @return upper bound of the jitter
+     */
+    public Duration getRemoteTtlJitter() {
+        return remoteTtlJitter;
+    }
+
+    /**
+     * Set the upper bound of the random delay added to the time to live on the cache server.
+     *
+     * @param remoteTtlJitter upper bound of the jitter
+     */
+    public void setRemoteTtlJitter(Duration remoteTtlJitter) {
+        this.remoteTtlJitter = remoteTtlJitter;
+    }
+
+    /**
+     * Get how long an unknown username stays cached as absent.
+     *
+     * @return time to live of absent users
+     */
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * Set how long an unknown username stays cached as absent.
+     *
+     * @param negativeTtl time to live of absent users
+     */
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    /**
+     * Get the encoding of users written to the cache server.
+     *
+     * @return encoding of cached users
+     */
+    public CacheEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Set the encoding of users written to the cache server.
+     *
+     * @param encoding encoding of cached users
+     */
+    public void setEncoding(CacheEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+}
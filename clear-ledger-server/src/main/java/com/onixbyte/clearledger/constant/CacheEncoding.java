@@ -0,0 +1,22 @@
+package com.onixbyte.clearledger.constant;
+
+/**
+ * Encodings of values written to the cache server.
+ *
+ * @author zihluwang
+ */
+public enum CacheEncoding {
+
+    /**
+     * JSON written by Jackson, readable by every version of this application.
+     */
+    JSON,
+
+    /**
+     * Compact schema-versioned binary written by a
+     * {@link com.onixbyte.clearledger.cache.codec.BinaryCodec}.
+     */
+    BINARY,
+    ;
+
+}
@@ -0,0 +1,55 @@
+package com.onixbyte.clearledger.constant;
+
+import com.onixbyte.clearledger.exception.BizException;
+
+import java.util.Arrays;
+
+/**
+ * Formats a ledger can be exported to.
+ *
+ * @author zihluwang
+ */
+public enum ExportFormat {
+
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV("csv", "text/csv; charset=UTF-8"),
+
+    /**
+     * Newline-delimited JSON, one transaction per line.
+     */
+    NDJSON("ndjson", "application/x-ndjson; charset=UTF-8"),
+    ;
+
+    private final String extension;
+
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Find the export format by its file extension, ignoring case.
+     *
+     * @param extension file extension
+     * @return the export format
+     * @throws BizException if no export format uses the given extension
+     */
+    public static ExportFormat ofExtension(String extension) {
+        return Arrays.stream(values())
+                .filter((format) -> format.extension.equalsIgnoreCase(extension))
+                .findFirst()
+                .orElseThrow(() -> BizException.badRequest("不支持的导出格式"));
+    }
+}
@@ -0,0 +1,23 @@
+package com.onixbyte.clearledger.constant;
+
+/**
+ * Strategies to generate ids of an {@link IdType}.
+ *
+ * @author zihluwang
+ */
+public enum IdStrategy {
+
+    /**
+     * Date followed by a four-digit daily serial issued by the cache server.
+     */
+    SERIAL,
+
+    /**
+     * Date followed by time of day, node id and a local sequence, no cache server is involved.
+     * These ids are longer than {@link #SERIAL} ids and do not sort among them, so an id type
+     * must not switch between the two once ids were created.
+     */
+    SNOWFLAKE,
+    ;
+
+}
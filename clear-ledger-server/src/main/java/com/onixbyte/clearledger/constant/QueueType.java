@@ -0,0 +1,26 @@
+package com.onixbyte.clearledger.constant;
+
+/**
+ * Queues holding the tasks of a thread pool while all its threads are busy.
+ *
+ * @author zihluwang
+ */
+public enum QueueType {
+
+    /**
+     * A linked queue bounded by the queue capacity.
+     */
+    LINKED,
+
+    /**
+     * An array queue of the queue capacity, allocated up front.
+     */
+    ARRAY,
+
+    /**
+     * No queue, every task is handed to a thread directly or rejected if the pool is full.
+     */
+    SYNCHRONOUS,
+    ;
+
+}
@@ -0,0 +1,31 @@
+package com.onixbyte.clearledger.constant;
+
+/**
+ * What a thread pool does with a task when its threads are busy and its queue is full.
+ *
+ * @author zihluwang
+ */
+public enum RejectionPolicy {
+
+    /**
+     * Throw a {@link java.util.concurrent.RejectedExecutionException} to the caller.
+     */
+    ABORT,
+
+    /**
+     * Run the task on the thread of the caller.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Drop the task silently.
+     */
+    DISCARD,
+
+    /**
+     * Drop the oldest task in the queue and submit the task again.
+     */
+    DISCARD_OLDEST,
+    ;
+
+}
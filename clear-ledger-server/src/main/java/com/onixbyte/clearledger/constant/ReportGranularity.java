@@ -0,0 +1,62 @@
+package com.onixbyte.clearledger.constant;
+
+import com.onixbyte.clearledger.exception.BizException;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Lengths of the periods a ledger report is split into.
+ *
+ * @author zihluwang
+ */
+public enum ReportGranularity {
+
+    /**
+     * One period per day.
+     */
+    DAY("day"),
+
+    /**
+     * One period per calendar month.
+     */
+    MONTH("month"),
+    ;
+
+    private final String value;
+
+    ReportGranularity(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the first day of the period containing the given day.
+     *
+     * @param date a day
+     * @return the first day of its period
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Find the granularity by its value, ignoring case.
+     *
+     * @param value granularity value
+     * @return the granularity
+     * @throws BizException if no granularity uses the given value
+     */
+    public static ReportGranularity ofValue(String value) {
+        return Arrays.stream(values())
+                .filter((granularity) -> granularity.value.equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> BizException.badRequest("不支持的统计周期"));
+    }
+}
@@ -93,6 +93,18 @@ public class AuthController {
                 .body(user.toResponse());
     }
 
+    /**
+     * API for user logout, revoking the token of this request on all nodes.
+     *
+     * @param jwt the token of this request
+     * @return no content
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String jwt) {
+        authService.logout(jwt);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/verification-code")
     public ResponseEntity<Void> sendVerificationCode(@RequestParam String audience) {
         authService.sendVerificationCode(audience);
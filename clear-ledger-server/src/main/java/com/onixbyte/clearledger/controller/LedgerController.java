@@ -1,18 +1,24 @@
 package com.onixbyte.clearledger.controller;
 
+import com.onixbyte.clearledger.constant.ExportFormat;
 import com.onixbyte.clearledger.data.dto.BizLedger;
 import com.onixbyte.clearledger.data.request.CreateLedgerRequest;
 import com.onixbyte.clearledger.data.entity.Ledger;
 import com.onixbyte.clearledger.data.request.UpdateLedgerRequest;
 import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.service.ExportService;
 import com.onixbyte.clearledger.service.LedgerService;
 import com.onixbyte.guid.GuidCreator;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -30,11 +36,14 @@ public class LedgerController {
 
     private final GuidCreator<String> ledgerIdCreator;
     private final LedgerService ledgerService;
+    private final ExportService exportService;
 
     public LedgerController(GuidCreator<String> ledgerIdCreator,
-                            LedgerService ledgerService) {
+                            LedgerService ledgerService,
+                            ExportService exportService) {
         this.ledgerIdCreator = ledgerIdCreator;
         this.ledgerService = ledgerService;
+        this.exportService = exportService;
     }
 
     @PostMapping
@@ -87,14 +96,34 @@ public class LedgerController {
     }
 
     @DeleteMapping("/exit/{ledgerId:\\d+}")
-    public ResponseEntity<Void> exitLedger(@PathVariable Long ledgerId) {
+    public ResponseEntity<Void> exitLedger(@PathVariable String ledgerId) {
         ledgerService.exitLedger(ledgerId);
         return ResponseEntity.noContent().build();
     }
 
-    @GetMapping("/export/{ledgerId}")
-    public ResponseEntity<Void> exportLedger(@PathVariable String ledgerId) {
-        return ResponseEntity.noContent().build();
+    /**
+     * Export all transactions of a ledger. The transactions are streamed to the client while they
+     * are read from the database.
+     *
+     * @param ledgerId ledger id
+     * @param format   export format, either {@code csv} or {@code ndjson}
+     * @param response the response to write the transactions to
+     * @throws IOException if writing to the response fails
+     */
+    @GetMapping("/export/{ledgerId:\\d+}")
+    public void exportLedger(@PathVariable String ledgerId,
+                             @RequestParam(required = false, defaultValue = "csv") String format,
+                             HttpServletResponse response) throws IOException {
+        var exportFormat = ExportFormat.ofExtension(format);
+        ledgerService.checkLedgerJoined(ledgerId);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("ledger-%s.%s".formatted(ledgerId, exportFormat.getExtension()))
+                .build()
+                .toString());
+        exportService.exportTransactions(ledgerId, exportFormat, response.getOutputStream());
     }
 
 }
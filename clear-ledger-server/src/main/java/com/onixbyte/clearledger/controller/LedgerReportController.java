@@ -0,0 +1,90 @@
+package com.onixbyte.clearledger.controller;
+
+import com.onixbyte.clearledger.constant.ReportGranularity;
+import com.onixbyte.clearledger.data.dto.BizLedgerReport;
+import com.onixbyte.clearledger.data.dto.BizMemberReport;
+import com.onixbyte.clearledger.data.dto.BizSummary;
+import com.onixbyte.clearledger.service.LedgerReportService;
+import com.onixbyte.clearledger.service.LedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ledger report entrypoint. Every report covers the range {@code [start, end)}, given as
+ * date-times such as {@code 2025-03-01T00:00:00}.
+ *
+ * @author zihluwang
+ */
+@RestController
+@RequestMapping("/ledgers/{ledgerId:\\d+}/report")
+public class LedgerReportController {
+
+    private final LedgerService ledgerService;
+    private final LedgerReportService ledgerReportService;
+
+    public LedgerReportController(LedgerService ledgerService,
+                                  LedgerReportService ledgerReportService) {
+        this.ledgerService = ledgerService;
+        this.ledgerReportService = ledgerReportService;
+    }
+
+    /**
+     * Get the income, expense and balance of a ledger within a range.
+     *
+     * @param ledgerId ledger id
+     * @param start    start of the range, inclusive
+     * @param end      end of the range, exclusive
+     * @return totals of the range
+     */
+    @GetMapping
+    public BizLedgerReport getReport(@PathVariable String ledgerId,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        ledgerService.checkLedgerJoined(ledgerId);
+        return ledgerReportService.getReport(ledgerId, start, end);
+    }
+
+    /**
+     * Get the income and expense of each day or month within a range, periods without
+     * transactions are omitted.
+     *
+     * @param ledgerId    ledger id
+     * @param start       start of the range, inclusive
+     * @param end         end of the range, exclusive
+     * @param granularity either {@code day} or {@code month}
+     * @return totals of each period
+     */
+    @GetMapping("/periods")
+    public List<BizSummary> getPeriodReports(@PathVariable String ledgerId,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                             @RequestParam(required = false, defaultValue = "month") String granularity) {
+        var reportGranularity = ReportGranularity.ofValue(granularity);
+        ledgerService.checkLedgerJoined(ledgerId);
+        return ledgerReportService.getPeriodReports(ledgerId, start, end, reportGranularity);
+    }
+
+    /**
+     * Get the income and expense of each member within a range.
+     *
+     * @param ledgerId ledger id
+     * @param start    start of the range, inclusive
+     * @param end      end of the range, exclusive
+     * @return totals of each member
+     */
+    @GetMapping("/members")
+    public List<BizMemberReport> getMemberReports(@PathVariable String ledgerId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        ledgerService.checkLedgerJoined(ledgerId);
+        return ledgerReportService.getMemberReports(ledgerId, start, end);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.onixbyte.clearledger.controller;
+
+import com.onixbyte.clearledger.data.dto.BizLedgerBalance;
+import com.onixbyte.clearledger.data.dto.BizSummary;
+import com.onixbyte.clearledger.service.LedgerService;
+import com.onixbyte.clearledger.service.LedgerSummaryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Ledger summary entrypoint. Summaries are read from rollups and never scan transactions.
+ *
+ * @author zihluwang
+ */
+@RestController
+@RequestMapping("/ledgers/{ledgerId:\\d+}/summary")
+public class LedgerSummaryController {
+
+    private final LedgerService ledgerService;
+    private final LedgerSummaryService ledgerSummaryService;
+
+    public LedgerSummaryController(LedgerService ledgerService,
+                                   LedgerSummaryService ledgerSummaryService) {
+        this.ledgerService = ledgerService;
+        this.ledgerSummaryService = ledgerSummaryService;
+    }
+
+    /**
+     * Get the balance of a ledger.
+     *
+     * @param ledgerId ledger id
+     * @return totals of all transactions in the ledger
+     */
+    @GetMapping
+    public BizLedgerBalance getBalance(@PathVariable String ledgerId) {
+        ledgerService.checkLedgerJoined(ledgerId);
+        return ledgerSummaryService.getBalance(ledgerId);
+    }
+
+    /**
+     * Get the totals of each day, days without transactions are omitted.
+     *
+     * @param ledgerId  ledger id
+     * @param dateStart the first day, such as {@code 2025-03-01}
+     * @param dateEnd   the last day, inclusive
+     * @return summaries ordered by day
+     */
+    @GetMapping("/daily")
+    public List<BizSummary> getDailySummaries(@PathVariable String ledgerId,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateStart,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateEnd) {
+        ledgerService.checkLedgerJoined(ledgerId);
+        return ledgerSummaryService.getDailySummaries(ledgerId, dateStart, dateEnd);
+    }
+
+    /**
+     * Get the totals of each month, months without transactions are omitted.
+     *
+     * @param ledgerId   ledger id
+     * @param monthStart the first month, such as {@code 2025-03}
+     * @param monthEnd   the last month, inclusive
+     * @return summaries ordered by month
+     */
+    @GetMapping("/monthly")
+    public List<BizSummary> getMonthlySummaries(@PathVariable String ledgerId,
+                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth monthStart,
+                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth monthEnd) {
+        ledgerService.checkLedgerJoined(ledgerId);
+        return ledgerSummaryService.getMonthlySummaries(ledgerId, monthStart, monthEnd);
+    }
+
+}
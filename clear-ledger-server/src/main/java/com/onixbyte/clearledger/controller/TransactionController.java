@@ -3,13 +3,22 @@ package com.onixbyte.clearledger.controller;
 import com.mybatisflex.core.paginate.Page;
 import com.onixbyte.clearledger.data.entity.ViewTransaction;
 import com.onixbyte.clearledger.data.request.CreateTransactionRequest;
+import com.onixbyte.clearledger.data.request.ImportTransactionRequest;
 import com.onixbyte.clearledger.data.request.QueryTransactionRequest;
 import com.onixbyte.clearledger.data.request.UpdateTransactionRequest;
+import com.onixbyte.clearledger.data.response.CursorPage;
+import com.onixbyte.clearledger.data.response.ImportTransactionResponse;
 import com.onixbyte.clearledger.data.response.TransactionResponse;
+import com.onixbyte.clearledger.exception.BizException;
 import com.onixbyte.clearledger.service.TransactionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Transaction Controller.
@@ -37,6 +46,50 @@ public class TransactionController {
                 .map(ViewTransaction::toResponse);
     }
 
+    /**
+     * Get transactions page by page with a cursor, the count of all transactions is not queried.
+     *
+     * @param ledgerId ledger id
+     * @param cursor   the {@code nextCursor} of the previous page, absent for the first page
+     * @param pageSize count of transactions on each page
+     * @param request  query conditions
+     * @return transactions on this page and the cursor of the next page
+     */
+    @GetMapping("/{ledgerId:\\d+}/cursor")
+    public CursorPage<TransactionResponse> getTransactionsByCursor(@PathVariable String ledgerId,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false, defaultValue = "10") Long pageSize,
+                                                                   @ModelAttribute QueryTransactionRequest request) {
+        if (pageSize < 1 || pageSize > 1_000) {
+            throw BizException.badRequest("每页数量必须在 1 至 1000 之间");
+        }
+
+        return transactionService.getTransactionsAfter(ledgerId, cursor, pageSize, request)
+                .map(ViewTransaction::toResponse);
+    }
+
+    /**
+     * Search transactions by description, most relevant first.
+     *
+     * @param ledgerId ledger id
+     * @param keyword  text to search for in descriptions
+     * @param cursor   the {@code nextCursor} of the previous page, absent for the first page
+     * @param pageSize count of transactions on each page
+     * @return matching transactions on this page and the cursor of the next page
+     */
+    @GetMapping("/{ledgerId:\\d+}/search")
+    public CursorPage<TransactionResponse> searchTransactions(@PathVariable String ledgerId,
+                                                              @RequestParam String keyword,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false, defaultValue = "10") Long pageSize) {
+        if (pageSize < 1 || pageSize > 1_000) {
+            throw BizException.badRequest("每页数量必须在 1 至 1000 之间");
+        }
+
+        return transactionService.searchTransactions(ledgerId, keyword, cursor, pageSize)
+                .map(ViewTransaction::toResponse);
+    }
+
     @PostMapping
     public TransactionResponse createTransaction(@RequestBody CreateTransactionRequest request) {
         return transactionService.createTransaction(request)
@@ -48,4 +101,33 @@ public class TransactionController {
         return transactionService.updateTransaction(request)
                 .toResponse();
     }
+
+    /**
+     * Import transactions into a ledger from a JSON array.
+     *
+     * @param ledgerId ledger id
+     * @param requests transactions to import
+     * @return count of imported transactions and errors of the skipped rows
+     */
+    @PostMapping(value = "/{ledgerId:\\d+}/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportTransactionResponse importTransactions(@PathVariable String ledgerId,
+                                                        @RequestBody List<ImportTransactionRequest> requests) {
+        return transactionService.importTransactions(ledgerId, requests);
+    }
+
+    /**
+     * Import transactions into a ledger from an uploaded CSV file.
+     *
+     * @param ledgerId ledger id
+     * @param file     the CSV file
+     * @return count of imported transactions and errors of the skipped rows
+     * @throws IOException if reading the file fails
+     */
+    @PostMapping(value = "/{ledgerId:\\d+}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImportTransactionResponse importTransactionsFromCsv(@PathVariable String ledgerId,
+                                                               @RequestParam("file") MultipartFile file) throws IOException {
+        try (var inputStream = file.getInputStream()) {
+            return transactionService.importTransactionsFromCsv(ledgerId, inputStream);
+        }
+    }
 }
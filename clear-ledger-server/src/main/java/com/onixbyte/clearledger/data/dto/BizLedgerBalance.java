@@ -0,0 +1,31 @@
+package com.onixbyte.clearledger.data.dto;
+
+/**
+ * Totals of all transactions in a ledger.
+ *
+ * @param ledgerId         ledger id
+ * @param income           sum of the positive amounts
+ * @param expense          sum of the negative amounts, as a positive number
+ * @param balance          income minus expense
+ * @param transactionCount count of transactions
+ * @author zihluwang
+ */
+public record BizLedgerBalance(
+        String ledgerId,
+        Long income,
+        Long expense,
+        Long balance,
+        Long transactionCount
+) {
+
+    /**
+     * The balance of a ledger without any transactions.
+     *
+     * @param ledgerId ledger id
+     * @return a balance with all totals being zero
+     */
+    public static BizLedgerBalance empty(String ledgerId) {
+        return new BizLedgerBalance(ledgerId, 0L, 0L, 0L, 0L);
+    }
+
+}
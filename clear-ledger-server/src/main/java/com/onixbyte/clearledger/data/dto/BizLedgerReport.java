@@ -0,0 +1,26 @@
+package com.onixbyte.clearledger.data.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals of the transactions in a ledger within a range of time.
+ *
+ * @param ledgerId         ledger id
+ * @param start            start of the range, inclusive
+ * @param end              end of the range, exclusive
+ * @param income           sum of the positive amounts
+ * @param expense          sum of the negative amounts, as a positive number
+ * @param balance          income minus expense
+ * @param transactionCount count of transactions
+ * @author zihluwang
+ */
+public record BizLedgerReport(
+        String ledgerId,
+        LocalDateTime start,
+        LocalDateTime end,
+        Long income,
+        Long expense,
+        Long balance,
+        Long transactionCount
+) {
+}
@@ -0,0 +1,22 @@
+package com.onixbyte.clearledger.data.dto;
+
+/**
+ * Totals of the transactions a member wrote in a ledger within a range of time.
+ *
+ * @param userId           id of the member
+ * @param username         username of the member, or {@code null} if the user no longer exists
+ * @param income           sum of the positive amounts
+ * @param expense          sum of the negative amounts, as a positive number
+ * @param balance          income minus expense
+ * @param transactionCount count of transactions
+ * @author zihluwang
+ */
+public record BizMemberReport(
+        String userId,
+        String username,
+        Long income,
+        Long expense,
+        Long balance,
+        Long transactionCount
+) {
+}
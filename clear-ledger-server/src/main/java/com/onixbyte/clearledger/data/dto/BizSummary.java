@@ -0,0 +1,20 @@
+package com.onixbyte.clearledger.data.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of the transactions in a ledger within a period.
+ *
+ * @param period           the day, or the first day of the month, this summary covers
+ * @param income           sum of the positive amounts
+ * @param expense          sum of the negative amounts, as a positive number
+ * @param transactionCount count of transactions
+ * @author zihluwang
+ */
+public record BizSummary(
+        LocalDate period,
+        Long income,
+        Long expense,
+        Long transactionCount
+) {
+}
@@ -0,0 +1,22 @@
+package com.onixbyte.clearledger.data.dto;
+
+/**
+ * An email claimed from the outbox for sending.
+ *
+ * @param id       outbox id
+ * @param audience email address of the recipient
+ * @param subject  subject of the email
+ * @param content  content of the email
+ * @param richText whether the content is HTML
+ * @param attempts count of attempts to send this email, including the current one
+ * @author zihluwang
+ */
+public record OutboxEmail(
+        Long id,
+        String audience,
+        String subject,
+        String content,
+        Boolean richText,
+        Integer attempts
+) {
+}
@@ -0,0 +1,28 @@
+package com.onixbyte.clearledger.data.dto;
+
+import com.onixbyte.clearledger.data.entity.ViewTransaction;
+
+/**
+ * A transaction found by a description search, with the relevance of its description.
+ *
+ * @author zihluwang
+ */
+public class RankedTransaction extends ViewTransaction {
+
+    /**
+     * Relevance of the description to the search keyword, higher is more relevant.
+     */
+    private Double rank;
+
+    public RankedTransaction() {
+    }
+
+    public Double getRank() {
+        return rank;
+    }
+
+    public void setRank(Double rank) {
+        this.rank = rank;
+    }
+
+}
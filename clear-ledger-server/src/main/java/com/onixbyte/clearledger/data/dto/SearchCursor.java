@@ -0,0 +1,62 @@
+package com.onixbyte.clearledger.data.dto;
+
+import com.onixbyte.clearledger.exception.BizException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * SearchCursor marks the position of a transaction in search results ordered by rank, transaction
+ * date and id, all descending. It is passed to clients as an opaque string.
+ *
+ * @param rank            rank of the last transaction on the previous page
+ * @param transactionDate transaction date of the last transaction on the previous page
+ * @param id              id of the last transaction on the previous page
+ */
+public record SearchCursor(
+        Double rank,
+        LocalDateTime transactionDate,
+        String id
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static SearchCursor of(RankedTransaction transaction) {
+        return new SearchCursor(transaction.getRank(), transaction.getTransactionDate(), transaction.getId());
+    }
+
+    /**
+     * Decode a cursor received from a client.
+     *
+     * @param cursor the encoded cursor
+     * @return the decoded cursor
+     * @throws BizException if the cursor is malformed
+     */
+    public static SearchCursor decode(String cursor) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var parts = decoded.split("\\|", 3);
+            if (parts.length != 3) {
+                throw BizException.badRequest("分页游标无效");
+            }
+            return new SearchCursor(Double.valueOf(parts[0]), LocalDateTime.parse(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw BizException.badRequest("分页游标无效");
+        }
+    }
+
+    /**
+     * Encode this cursor into an opaque string. The rank is written in full precision, so it
+     * compares equal to the rank computed again by the next query.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((rank + SEPARATOR + transactionDate + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.onixbyte.clearledger.data.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of the transactions a member wrote in a ledger within a day or a month, read from the
+ * rollups or aggregated from raw transactions.
+ *
+ * @param period           the day, or the first day of the month, this bucket covers
+ * @param userId           id of the member
+ * @param income           sum of the positive amounts
+ * @param expense          sum of the negative amounts, as a positive number
+ * @param transactionCount count of transactions
+ * @author zihluwang
+ */
+public record SummaryBucket(
+        LocalDate period,
+        String userId,
+        Long income,
+        Long expense,
+        Long transactionCount
+) {
+}
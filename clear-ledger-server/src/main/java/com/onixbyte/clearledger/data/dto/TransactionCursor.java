@@ -0,0 +1,61 @@
+package com.onixbyte.clearledger.data.dto;
+
+import com.onixbyte.clearledger.data.entity.ViewTransaction;
+import com.onixbyte.clearledger.exception.BizException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * TransactionCursor marks the position of a transaction in a listing ordered by transaction date
+ * and id, both descending. It is passed to clients as an opaque string.
+ *
+ * @param transactionDate transaction date of the last transaction on the previous page
+ * @param id              id of the last transaction on the previous page
+ */
+public record TransactionCursor(
+        LocalDateTime transactionDate,
+        String id
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TransactionCursor of(ViewTransaction transaction) {
+        return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    /**
+     * Decode a cursor received from a client.
+     *
+     * @param cursor the encoded cursor
+     * @return the decoded cursor
+     * @throws BizException if the cursor is malformed
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw BizException.badRequest("分页游标无效");
+            }
+            return new TransactionCursor(LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    decoded.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw BizException.badRequest("分页游标无效");
+        }
+    }
+
+    /**
+     * Encode this cursor into an opaque string.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((transactionDate + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
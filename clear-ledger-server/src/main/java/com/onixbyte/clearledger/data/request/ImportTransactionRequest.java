@@ -0,0 +1,10 @@
+package com.onixbyte.clearledger.data.request;
+
+import java.time.LocalDateTime;
+
+public record ImportTransactionRequest(
+        Integer amount,
+        String description,
+        LocalDateTime transactionDate
+) {
+}
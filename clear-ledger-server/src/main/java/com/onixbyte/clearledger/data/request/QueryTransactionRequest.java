@@ -2,8 +2,16 @@ package com.onixbyte.clearledger.data.request;
 
 import java.time.LocalDate;
 
+/**
+ * Conditions of transaction listings.
+ *
+ * @param transactionDateStart the first day of transactions, only applied with the last day
+ * @param transactionDateEnd   the last day of transactions, only applied with the first day
+ * @param keyword              text the description must contain, ignoring case
+ */
 public record QueryTransactionRequest(
         LocalDate transactionDateStart,
-        LocalDate transactionDateEnd
+        LocalDate transactionDateEnd,
+        String keyword
 ) {
 }
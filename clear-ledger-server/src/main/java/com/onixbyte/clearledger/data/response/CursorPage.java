@@ -0,0 +1,30 @@
+package com.onixbyte.clearledger.data.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a cursor-based listing.
+ *
+ * @param records    records on this page
+ * @param nextCursor cursor to fetch the next page, or {@code null} if this is the last page
+ * @param <T>        type of the records
+ * @author zihluwang
+ */
+public record CursorPage<T>(
+        List<T> records,
+        String nextCursor
+) {
+
+    /**
+     * Convert the records on this page.
+     *
+     * @param mapper the function converting each record
+     * @param <R>    type of the converted records
+     * @return a page containing the converted records and the same cursor
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(records.stream().<R>map(mapper).toList(), nextCursor);
+    }
+
+}
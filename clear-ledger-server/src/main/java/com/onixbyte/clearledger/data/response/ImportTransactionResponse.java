@@ -0,0 +1,29 @@
+package com.onixbyte.clearledger.data.response;
+
+import java.util.List;
+
+/**
+ * Result of a transaction import.
+ *
+ * @param importedCount count of imported transactions
+ * @param errors        rows that were not imported
+ * @author zihluwang
+ */
+public record ImportTransactionResponse(
+        Integer importedCount,
+        List<RowError> errors
+) {
+
+    /**
+     * A row that was not imported.
+     *
+     * @param row     the 1-based row number, the header of a CSV file is not counted
+     * @param message the reason why this row was not imported
+     */
+    public record RowError(
+            Integer row,
+            String message
+    ) {
+    }
+
+}
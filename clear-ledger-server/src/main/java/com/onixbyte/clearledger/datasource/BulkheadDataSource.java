@@ -0,0 +1,111 @@
+package com.onixbyte.clearledger.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A data source limiting how many connections are held at the same time.
+ * <p>
+ * Served on virtual threads, every request may ask for a connection at once, and thousands of
+ * them would queue inside the connection pool until its timeout. This bulkhead lets as many
+ * callers through as the pool has connections and makes the others wait in a fair queue for a
+ * short while, failing fast once that is exceeded. A permit is returned when the connection is
+ * closed.
+ *
+ * @author zihluwang
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    /**
+     * Create a bulkhead data source.
+     *
+     * @param targetDataSource         the data source to limit
+     * @param maxConcurrentConnections maximum count of connections held at the same time
+     * @param acquireTimeout           how long a caller waits for a permit
+     */
+    public BulkheadDataSource(DataSource targetDataSource, int maxConcurrentConnections, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrentConnections, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the count of callers waiting for a permit.
+     *
+     * @return count of waiting callers
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("All database connections are in use, "
+                        + getWaitingCount() + " callers are waiting.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection.", e);
+        }
+    }
+
+    /**
+     * Wrap a connection so closing it returns its permit, exactly once.
+     *
+     * @param connection the connection
+     * @return the wrapped connection
+     */
+    private Connection guard(Connection connection) {
+        var released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.onixbyte.clearledger.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A data source routing read-only transactions to replicas and everything else to the primary.
+ * <p>
+ * Replicas are chosen in turn. A replica failing to hand out a connection is skipped for the
+ * retry interval and the connection is taken from the primary instead. When a sticky window is
+ * set, read-only transactions of a user who started a read-write transaction within the window
+ * are routed to the primary as well, so users read their own writes despite replication lag.
+ * Stickiness is tracked by each node on its own. Reads that must see the primary regardless, such
+ * as answers shared with other nodes, are routed there with {@link #readFromPrimary(Supplier)},
+ * which neither opens a transaction nor makes the user sticky.
+ * <p>
+ * The routing key is decided when a connection is taken, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the read-only flag
+ * of the transaction to be known by then.
+ *
+ * @author zihluwang
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * Count of sticky users above which expired entries are purged on the next write.
+     */
+    private static final int STICKY_PURGE_THRESHOLD = 10_000;
+
+    /**
+     * Set while the current thread reads from the primary on purpose.
+     */
+    private static final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final long retryIntervalMillis;
+    private final long stickyWindowMillis;
+    private final Supplier<String> stickyKeySupplier;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> replicaDownUntil = new ConcurrentHashMap<>();
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    /**
+     * Create a routing data source.
+     *
+     * @param primary           the primary data source
+     * @param replicas          the replica data sources
+     * @param retryInterval     how long a failed replica is skipped
+     * @param stickyWindow      how long reads of a user go to the primary after the user wrote,
+     *                          zero disables stickiness
+     * @param stickyKeySupplier supplies the key of the current user, or {@code null} if unknown
+     */
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<DataSource> replicas,
+                                    Duration retryInterval,
+                                    Duration stickyWindow,
+                                    Supplier<String> stickyKeySupplier) {
+        this.retryIntervalMillis = retryInterval.toMillis();
+        this.stickyWindowMillis = stickyWindow.toMillis();
+        this.stickyKeySupplier = stickyKeySupplier;
+        this.replicas = List.copyOf(replicas);
+
+        var targets = new HashMap<Object, Object>();
+        targets.put(PRIMARY, primary);
+        var keys = new ArrayList<String>(replicas.size());
+        for (var i = 0; i < replicas.size(); i++) {
+            var key = "replica-" + i;
+            keys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        this.replicaKeys = List.copyOf(keys);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run a read whose connection, if taken within it, comes from the primary even in a read-only
+     * transaction. No transaction is started and the user is not made sticky. A connection the
+     * current transaction already holds is used as it is.
+     *
+     * @param read the read
+     * @param <T>  type of the result
+     * @return result of the read
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (Boolean.TRUE.equals(primaryReads.get())) {
+            return read.get();
+        }
+
+        primaryReads.set(true);
+        try {
+            return read.get();
+        } finally {
+            primaryReads.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (Boolean.TRUE.equals(primaryReads.get())) {
+            return PRIMARY;
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWrite();
+            }
+            return PRIMARY;
+        }
+
+        if (isSticky()) {
+            return PRIMARY;
+        }
+
+        var now = System.currentTimeMillis();
+        for (var i = 0; i < replicaKeys.size(); i++) {
+            var key = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+            if (replicaDownUntil.getOrDefault(key, 0L) <= now) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection((dataSource) -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionOpener opener) throws SQLException {
+        var key = determineCurrentLookupKey();
+        var primary = getResolvedDataSources().get(PRIMARY);
+        if (PRIMARY.equals(key)) {
+            return opener.open(primary);
+        }
+
+        try {
+            return opener.open(getResolvedDataSources().get(key));
+        } catch (SQLException e) {
+            replicaDownUntil.put((String) key, System.currentTimeMillis() + retryIntervalMillis);
+            log.warn("Replica {} is unavailable, reading from the primary for the next {} ms.", key, retryIntervalMillis, e);
+            return opener.open(primary);
+        }
+    }
+
+    /**
+     * Close the replica data sources. The primary is managed by its owner.
+     */
+    @Override
+    public void close() {
+        for (var replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close a replica data source.", e);
+                }
+            }
+        }
+    }
+
+    private void markWrite() {
+        if (stickyWindowMillis <= 0) {
+            return;
+        }
+
+        var stickyKey = stickyKeySupplier.get();
+        if (Objects.isNull(stickyKey)) {
+            return;
+        }
+
+        var now = System.currentTimeMillis();
+        stickyUntil.put(stickyKey, now + stickyWindowMillis);
+        if (stickyUntil.size() > STICKY_PURGE_THRESHOLD) {
+            stickyUntil.values().removeIf((until) -> until <= now);
+        }
+    }
+
+    private boolean isSticky() {
+        if (stickyWindowMillis <= 0) {
+            return false;
+        }
+
+        var stickyKey = stickyKeySupplier.get();
+        if (Objects.isNull(stickyKey)) {
+            return false;
+        }
+
+        var until = stickyUntil.get(stickyKey);
+        return Objects.nonNull(until) && until > System.currentTimeMillis();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+
+        Connection open(DataSource dataSource) throws SQLException;
+
+    }
+
+}
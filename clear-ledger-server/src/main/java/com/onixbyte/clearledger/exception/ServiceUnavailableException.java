@@ -1,16 +1,59 @@
 package com.onixbyte.clearledger.exception;
 
+import com.onixbyte.clearledger.data.response.BizExceptionResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Objects;
 
 public class ServiceUnavailableException extends BizException {
 
+    /**
+     * Delay suggested to the client before retrying, or {@code null} if none is suggested.
+     */
+    private final Duration retryAfter;
+
     /**
      * The constructor of this exception.
      *
      * @param message a customised error message
      */
     public ServiceUnavailableException(String message) {
+        this(message, null);
+    }
+
+    /**
+     * The constructor of this exception suggesting when to retry.
+     *
+     * @param message    a customised error message
+     * @param retryAfter delay suggested to the client before retrying
+     */
+    public ServiceUnavailableException(String message, Duration retryAfter) {
         super(HttpStatus.SERVICE_UNAVAILABLE, message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Compose the response, telling the client when to retry with a {@code Retry-After} header if
+     * a delay is suggested.
+     *
+     * @return a canonical response entity
+     */
+    @Override
+    public ResponseEntity<BizExceptionResponse> composeResponse() {
+        var response = super.composeResponse();
+        if (Objects.isNull(retryAfter)) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, retryAfter.toSeconds())))
+                .body(response.getBody());
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
     }
 
 }
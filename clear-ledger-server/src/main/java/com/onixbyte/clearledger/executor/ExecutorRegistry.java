@@ -0,0 +1,226 @@
+package com.onixbyte.clearledger.executor;
+
+import com.onixbyte.clearledger.configuration.property.ConcurrentProperty;
+import com.onixbyte.clearledger.constant.RejectionPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the named executors of the application.
+ * <p>
+ * Every pool configured in {@link ConcurrentProperty} is created here, with threads named after
+ * the pool. Pools configured elsewhere, such as the pool hashing passwords, are added with
+ * {@link #register(String, ConcurrentProperty.Pool)} while the application starts. A pool runs on
+ * platform threads with the configured sizes, queue and rejection policy, or on virtual threads,
+ * one for each task. Pools follow {@code spring.threads.virtual.enabled} unless set otherwise.
+ * <p>
+ * Every pool publishes the {@code executor.*} metrics of Micrometer tagged with its name, among
+ * them the count of active threads, the depth of the queue and the time tasks wait and run, and
+ * counts rejected tasks as {@code executor.rejected}. All pools are shut down with the
+ * application, and are given the configured timeout to finish running and queued tasks.
+ *
+ * @author zihluwang
+ */
+public class ExecutorRegistry implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorRegistry.class);
+
+    /**
+     * Name of the pool for IO operations.
+     */
+    public static final String IO = "io";
+
+    /**
+     * Name of the pool for non-IO operations.
+     */
+    public static final String TASK = "task";
+
+    /**
+     * Name of the pool for {@code @Async} tasks.
+     */
+    public static final String ASYNC = "async";
+
+    /**
+     * Name of the pool hashing passwords.
+     */
+    public static final String PASSWORD_HASH = "password-hash";
+
+    private final ConcurrentProperty concurrentProperty;
+    private final boolean virtualThreadsEnabled;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The executors by name, as created.
+     */
+    private final Map<String, ExecutorService> executors = new LinkedHashMap<>();
+
+    /**
+     * The executors by name, timing every task.
+     */
+    private final Map<String, ExecutorService> monitoredExecutors = new LinkedHashMap<>();
+
+    /**
+     * Create all configured pools.
+     *
+     * @param concurrentProperty    the concurrent properties
+     * @param virtualThreadsEnabled whether pools run on virtual threads unless set otherwise
+     * @param meterRegistry         the registry of the metrics of the pools
+     */
+    public ExecutorRegistry(ConcurrentProperty concurrentProperty,
+                            boolean virtualThreadsEnabled,
+                            MeterRegistry meterRegistry) {
+        this.concurrentProperty = concurrentProperty;
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.meterRegistry = meterRegistry;
+
+        register(IO, concurrentProperty.getIo());
+        register(TASK, concurrentProperty.getTask());
+        register(ASYNC, concurrentProperty.getAsync());
+    }
+
+    /**
+     * Get the executor of the given name.
+     *
+     * @param name name of the pool
+     * @return the executor
+     * @throws IllegalArgumentException if no pool has the given name
+     */
+    public ExecutorService get(String name) {
+        return Optional.ofNullable(monitoredExecutors.get(name))
+                .orElseThrow(() -> new IllegalArgumentException("No executor named " + name + "."));
+    }
+
+    /**
+     * Shut all pools down, interrupting the tasks of pools not finished within the shutdown
+     * timeout.
+     */
+    @Override
+    public void destroy() {
+        executors.values().forEach(ExecutorService::shutdown);
+
+        var deadline = System.nanoTime() + concurrentProperty.getShutdownTimeout().toNanos();
+        for (var entry : executors.entrySet()) {
+            var executor = entry.getValue();
+            try {
+                if (executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            var dropped = executor.shutdownNow();
+            log.warn("Executor {} did not finish in time, interrupted its tasks and dropped {} queued tasks.",
+                    entry.getKey(), dropped.size());
+        }
+    }
+
+    /**
+     * Create a pool of the given name and settings, to be shut down with the other pools.
+     *
+     * @param name name of the pool
+     * @param pool settings of the pool
+     * @return the executor, timing every task
+     * @throws IllegalArgumentException if a pool of the given name already exists
+     */
+    public synchronized ExecutorService register(String name, ConcurrentProperty.Pool pool) {
+        if (executors.containsKey(name)) {
+            throw new IllegalArgumentException("Executor " + name + " already exists.");
+        }
+
+        var rejectedCounter = Counter.builder("executor.rejected")
+                .description("Tasks rejected by the executor")
+                .tag("name", name)
+                .register(meterRegistry);
+
+        var virtualThreads = Optional.ofNullable(pool.getVirtualThreads()).orElse(virtualThreadsEnabled);
+        var executor = virtualThreads
+                ? createVirtualThreadExecutor(name)
+                : createThreadPoolExecutor(name, pool, rejectedCounter);
+
+        var monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+        executors.put(name, executor);
+        monitoredExecutors.put(name, monitoredExecutor);
+        log.info("Created executor {} on {} threads.", name, virtualThreads ? "virtual" : "platform");
+        return monitoredExecutor;
+    }
+
+    private ExecutorService createThreadPoolExecutor(String name, ConcurrentProperty.Pool pool, Counter rejectedCounter) {
+        var maxSize = pool.getMaxSize();
+        var coreSize = Math.min(maxSize, pool.getCoreSize());
+        var rejectionHandler = createRejectionHandler(pool.getRejectionPolicy());
+
+        return new ThreadPoolExecutor(
+                coreSize,
+                maxSize,
+                pool.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+                createQueue(pool),
+                Thread.ofPlatform().name(name + "-", 1).factory(),
+                (runnable, executor) -> {
+                    rejectedCounter.increment();
+                    rejectionHandler.rejectedExecution(runnable, executor);
+                }
+        );
+    }
+
+    /**
+     * Create an executor running every task on its own virtual thread. Micrometer cannot look
+     * into such an executor, so the count of active threads is published here.
+     *
+     * @param name name of the pool
+     * @return the executor
+     */
+    private ExecutorService createVirtualThreadExecutor(String name) {
+        var activeCount = new AtomicInteger();
+        Gauge.builder("executor.active", activeCount, AtomicInteger::get)
+                .description("The approximate number of threads that are actively executing tasks")
+                .tag("name", name)
+                .register(meterRegistry);
+
+        var threadFactory = Thread.ofVirtual().name(name + "-", 1).factory();
+        return Executors.newThreadPerTaskExecutor((runnable) -> threadFactory.newThread(() -> {
+            activeCount.incrementAndGet();
+            try {
+                runnable.run();
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        }));
+    }
+
+    private static BlockingQueue<Runnable> createQueue(ConcurrentProperty.Pool pool) {
+        return switch (pool.getQueueType()) {
+            case LINKED -> new LinkedBlockingQueue<>(pool.getQueueCapacity());
+            case ARRAY -> new ArrayBlockingQueue<>(pool.getQueueCapacity());
+            case SYNCHRONOUS -> new SynchronousQueue<>();
+        };
+    }
+
+    private static RejectedExecutionHandler createRejectionHandler(RejectionPolicy rejectionPolicy) {
+        return switch (rejectionPolicy) {
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+        };
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.onixbyte.clearledger.generator;
+
+import com.onixbyte.guid.GuidCreator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link GuidCreator} that can create many ids at once. Implementations backed by a remote
+ * counter should reserve all ids with a single call.
+ *
+ * @param <T> type of the ids
+ * @author zihluwang
+ */
+public interface BatchGuidCreator<T> extends GuidCreator<T> {
+
+    /**
+     * Create the given count of ids.
+     *
+     * @param count count of ids
+     * @return the created ids
+     */
+    default List<T> nextIds(int count) {
+        var ids = new ArrayList<T>(count);
+        for (var i = 0; i < count; i++) {
+            ids.add(nextId());
+        }
+        return ids;
+    }
+
+    /**
+     * Get the count of ids that can still be created before the ids run out, so large batches can
+     * be sized to leave room for other callers.
+     *
+     * @return count of ids that can still be created, {@link Long#MAX_VALUE} if unbounded
+     */
+    default long remainingIds() {
+        return Long.MAX_VALUE;
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.onixbyte.clearledger.generator;
+
+import com.onixbyte.clearledger.common.Formatters;
+import com.onixbyte.clearledger.constant.IdType;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * A node-local id creator in the spirit of Snowflake.
+ * <p>
+ * An id consists of the {@link IdType} code, the date in {@code yyMMdd} format and a 15-digit
+ * zero-padded number composed of the milliseconds elapsed since the start of that day, the node
+ * id and a per-millisecond sequence. All parts have a fixed width, so ids of the same type sort by
+ * their creation time. Up to 4,096 ids are created per millisecond on each node without talking
+ * to the cache server.
+ * <p>
+ * The date is taken in the zone of the clock, the system default zone unless given otherwise,
+ * the same date {@link com.onixbyte.clearledger.service.SerialService serial ids} carry. The
+ * milliseconds are counted from the instant the day started rather than read from the wall clock,
+ * so a day lengthened by daylight saving time never repeats them.
+ * <p>
+ * Ids of this creator are longer than serial ids and do not sort among them, so an id type must
+ * keep the strategy it started with.
+ * <p>
+ * A clock moving backwards by up to {@value #CLOCK_TOLERANCE_MILLIS} milliseconds is tolerated by
+ * counting on from the last timestamp. Larger steps back are refused instead of waiting for the
+ * clock to catch up while holding the lock of the creator.
+ *
+ * @author zihluwang
+ */
+public class SnowflakeIdCreator implements BatchGuidCreator<String> {
+
+    /**
+     * Bits occupied by the node id.
+     */
+    private static final int NODE_ID_BITS = 10;
+
+    /**
+     * Bits occupied by the sequence within a millisecond.
+     */
+    private static final int SEQUENCE_BITS = 12;
+
+    /**
+     * The maximum node id.
+     */
+    public static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /**
+     * How far the clock may move backwards before ids are refused.
+     */
+    private static final long CLOCK_TOLERANCE_MILLIS = 10L;
+
+    /**
+     * Digits of the numeric part, {@code 90_000_000 << 22} of a 25-hour day still has 15 digits.
+     */
+    private static final int VALUE_DIGITS = 15;
+
+    private final IdType idType;
+    private final long nodeId;
+    private final Clock clock;
+
+    private long lastTimestamp = -1L;
+    private long sequence = 0L;
+
+    /**
+     * Start of the current day, inclusive.
+     */
+    private long dayStart = Long.MAX_VALUE;
+
+    /**
+     * Start of the next day, exclusive end of the current day.
+     */
+    private long dayEnd = Long.MIN_VALUE;
+    private String prefix;
+
+    public SnowflakeIdCreator(IdType idType, long nodeId) {
+        this(idType, nodeId, Clock.systemDefaultZone());
+    }
+
+    public SnowflakeIdCreator(IdType idType, long nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and %d.".formatted(MAX_NODE_ID));
+        }
+        this.idType = idType;
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized String nextId() {
+        var timestamp = clock.millis();
+        if (timestamp < lastTimestamp) {
+            if (lastTimestamp - timestamp > CLOCK_TOLERANCE_MILLIS) {
+                throw new IllegalStateException("Clock moved backwards by %d ms, refusing to create ids."
+                        .formatted(lastTimestamp - timestamp));
+            }
+            // the clock moved backwards slightly, keep counting on the last timestamp instead of repeating ids
+            timestamp = lastTimestamp;
+        }
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // sequence exhausted in this millisecond
+                timestamp = waitUntilAfter(lastTimestamp);
+            }
+        } else {
+            sequence = 0L;
+        }
+        lastTimestamp = timestamp;
+
+        return format(timestamp, sequence);
+    }
+
+    /**
+     * Wait for the clock to pass the given timestamp, at most a millisecond plus the tolerated
+     * step back of the clock.
+     *
+     * @param timestamp the timestamp to pass
+     * @return the first timestamp after the given one
+     * @throws IllegalStateException if the clock moves further backwards while waiting
+     */
+    private long waitUntilAfter(long timestamp) {
+        var current = clock.millis();
+        while (current <= timestamp) {
+            if (timestamp - current > CLOCK_TOLERANCE_MILLIS) {
+                throw new IllegalStateException("Clock moved backwards by %d ms, refusing to create ids."
+                        .formatted(timestamp - current));
+            }
+            Thread.onSpinWait();
+            current = clock.millis();
+        }
+        return current;
+    }
+
+    private String format(long timestamp, long sequence) {
+        if (timestamp < dayStart || timestamp >= dayEnd) {
+            var zone = clock.getZone();
+            var date = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+            prefix = idType.getCode() + date.format(Formatters.SHORTENED_DATE_FORMATTER);
+            dayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+
+        var value = ((timestamp - dayStart) << (NODE_ID_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | sequence;
+        var digits = Long.toString(value);
+        return prefix + "0".repeat(VALUE_DIGITS - digits.length()) + digits;
+    }
+
+}
@@ -3,25 +3,42 @@ package com.onixbyte.clearledger.generator;
 import com.onixbyte.clearledger.constant.IdType;
 import com.onixbyte.clearledger.service.SerialService;
 import com.onixbyte.clearledger.common.Formatters;
-import com.onixbyte.guid.GuidCreator;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
-@Component
-public class TransactionIdCreator implements GuidCreator<String> {
+public class TransactionIdCreator implements BatchGuidCreator<String> {
 
     private final SerialService serialService;
 
-    @Autowired
     public TransactionIdCreator(SerialService serialService) {
         this.serialService = serialService;
     }
 
     @Override
     public String nextId() {
-        var date = LocalDate.now().format(Formatters.SHORTENED_DATE_FORMATTER);
-        return "%s%s%04d".formatted(IdType.TRANSACTION.getCode(), date, serialService.nextSerial("tx"));
+        var today = LocalDate.now();
+        return "%s%s%04d".formatted(IdType.TRANSACTION.getCode(),
+                today.format(Formatters.SHORTENED_DATE_FORMATTER),
+                serialService.nextSerial("tx", today));
+    }
+
+    @Override
+    public List<String> nextIds(int count) {
+        var today = LocalDate.now();
+        var prefix = IdType.TRANSACTION.getCode() + today.format(Formatters.SHORTENED_DATE_FORMATTER);
+        var first = serialService.nextSerials("tx", today, count);
+
+        var ids = new ArrayList<String>(count);
+        for (var i = 0; i < count; i++) {
+            ids.add("%s%04d".formatted(prefix, first + i));
+        }
+        return ids;
+    }
+
+    @Override
+    public long remainingIds() {
+        return serialService.remainingSerials("tx", LocalDate.now());
     }
 }
@@ -0,0 +1,123 @@
+package com.onixbyte.clearledger.repository;
+
+import com.onixbyte.clearledger.data.dto.OutboxEmail;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository of the outbox {@code email_outbox}.
+ *
+ * @author zihluwang
+ */
+@Mapper
+public interface EmailOutboxRepository {
+
+    /**
+     * Add an email to the outbox.
+     *
+     * @param audience email address of the recipient
+     * @param subject  subject of the email
+     * @param content  content of the email
+     * @param richText whether the content is HTML
+     * @return count of affected rows
+     */
+    @Insert("""
+            insert into email_outbox (audience, subject, content, rich_text)
+            values (#{audience}, #{subject}, #{content}, #{richText})
+            """)
+    int insert(@Param("audience") String audience,
+               @Param("subject") String subject,
+               @Param("content") String content,
+               @Param("richText") boolean richText);
+
+    /**
+     * Claim a batch of emails due for sending, oldest first. Rows claimed by other dispatchers are
+     * skipped rather than waited for, and expired claims are taken over.
+     *
+     * @param limit        maximum count of emails to claim
+     * @param leaseSeconds how long the claim holds
+     * @return the claimed emails
+     */
+    @Select("""
+            update email_outbox
+            set status       = 'sending',
+                attempts     = attempts + 1,
+                locked_until = current_timestamp + #{leaseSeconds} * interval '1 second'
+            where id in (select id
+                         from email_outbox
+                         where status in ('pending', 'sending')
+                           and next_attempt_at <= current_timestamp
+                           and (status = 'pending' or locked_until < current_timestamp)
+                         order by next_attempt_at
+                         limit #{limit}
+                         for update skip locked)
+            returning id, audience, subject, content, rich_text, attempts
+            """)
+    List<OutboxEmail> claim(@Param("limit") int limit, @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Mark the given emails as sent.
+     *
+     * @param ids outbox ids
+     * @return count of affected rows
+     */
+    @Update("""
+            <script>
+            update email_outbox
+            set status       = 'sent',
+                sent_at      = current_timestamp,
+                locked_until = null,
+                last_error   = null
+            where id in
+            <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+            </script>
+            """)
+    int markSent(@Param("ids") List<Long> ids);
+
+    /**
+     * Record a failed attempt of an email, either scheduling the next attempt or giving up.
+     *
+     * @param id            outbox id
+     * @param error         reason of the failure
+     * @param nextAttemptAt when to try again, ignored if giving up
+     * @param giveUp        whether no further attempt is made
+     * @return count of affected rows
+     */
+    @Update("""
+            update email_outbox
+            set status          = case when #{giveUp}::boolean then 'failed' else 'pending' end,
+                next_attempt_at = #{nextAttemptAt},
+                locked_until    = null,
+                last_error      = #{error}
+            where id = #{id}
+            """)
+    int markFailed(@Param("id") Long id,
+                   @Param("error") String error,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("giveUp") boolean giveUp);
+
+    /**
+     * Count the emails not sent yet, including those being sent.
+     *
+     * @return count of unsent emails
+     */
+    @Select("select count(*) from email_outbox where status in ('pending', 'sending')")
+    long countUnsent();
+
+    /**
+     * Delete emails sent before the given time.
+     *
+     * @param sentBefore emails sent before this time are deleted
+     * @return count of deleted rows
+     */
+    @Delete("delete from email_outbox where status = 'sent' and sent_at < #{sentBefore}")
+    int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore);
+
+}
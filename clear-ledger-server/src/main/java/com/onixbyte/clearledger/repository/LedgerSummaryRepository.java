@@ -0,0 +1,223 @@
+package com.onixbyte.clearledger.repository;
+
+import com.onixbyte.clearledger.data.dto.BizLedgerBalance;
+import com.onixbyte.clearledger.data.dto.BizSummary;
+import com.onixbyte.clearledger.data.dto.SummaryBucket;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository of the rollup tables {@code ledger_balances}, {@code ledger_daily_summaries} and
+ * {@code ledger_monthly_summaries}. Expenses are stored as positive numbers.
+ *
+ * @author zihluwang
+ */
+@Mapper
+public interface LedgerSummaryRepository {
+
+    /**
+     * Add the given deltas to the balance of a ledger and to the daily and monthly summaries of a
+     * member, creating the rows as needed, in a single statement.
+     *
+     * @param ledgerId         ledger id
+     * @param userId           id of the member who wrote the transactions
+     * @param date             transaction date
+     * @param income           delta of the income
+     * @param expense          delta of the expense
+     * @param transactionCount delta of the transaction count
+     * @return count of affected rows
+     */
+    @Insert("""
+            with balance as (
+                insert into ledger_balances (ledger_id, income, expense, transaction_count, updated_at)
+                values (#{ledgerId}, #{income}, #{expense}, #{transactionCount}, current_timestamp)
+                on conflict (ledger_id) do update
+                set income            = ledger_balances.income + excluded.income,
+                    expense           = ledger_balances.expense + excluded.expense,
+                    transaction_count = ledger_balances.transaction_count + excluded.transaction_count,
+                    updated_at        = excluded.updated_at
+                returning ledger_id
+            ), daily as (
+                insert into ledger_daily_summaries (ledger_id, user_id, summary_date, income, expense, transaction_count)
+                values (#{ledgerId}, #{userId}, #{date}, #{income}, #{expense}, #{transactionCount})
+                on conflict (ledger_id, summary_date, user_id) do update
+                set income            = ledger_daily_summaries.income + excluded.income,
+                    expense           = ledger_daily_summaries.expense + excluded.expense,
+                    transaction_count = ledger_daily_summaries.transaction_count + excluded.transaction_count
+                returning ledger_id
+            )
+            insert into ledger_monthly_summaries (ledger_id, user_id, summary_month, income, expense, transaction_count)
+            values (#{ledgerId}, #{userId}, date_trunc('month', #{date}::date)::date, #{income}, #{expense}, #{transactionCount})
+            on conflict (ledger_id, summary_month, user_id) do update
+            set income            = ledger_monthly_summaries.income + excluded.income,
+                expense           = ledger_monthly_summaries.expense + excluded.expense,
+                transaction_count = ledger_monthly_summaries.transaction_count + excluded.transaction_count
+            """)
+    int applyDelta(@Param("ledgerId") String ledgerId,
+                   @Param("userId") String userId,
+                   @Param("date") LocalDate date,
+                   @Param("income") long income,
+                   @Param("expense") long expense,
+                   @Param("transactionCount") long transactionCount);
+
+    @Select("""
+            select ledger_id, income, expense, income - expense, transaction_count
+            from ledger_balances
+            where ledger_id = #{ledgerId}
+            """)
+    BizLedgerBalance selectBalance(@Param("ledgerId") String ledgerId);
+
+    @Select("""
+            select summary_date, sum(income)::bigint, sum(expense)::bigint, sum(transaction_count)::bigint
+            from ledger_daily_summaries
+            where ledger_id = #{ledgerId}
+              and summary_date between #{dateStart} and #{dateEnd}
+            group by summary_date
+            order by summary_date
+            """)
+    List<BizSummary> selectDailySummaries(@Param("ledgerId") String ledgerId,
+                                          @Param("dateStart") LocalDate dateStart,
+                                          @Param("dateEnd") LocalDate dateEnd);
+
+    @Select("""
+            select summary_month, sum(income)::bigint, sum(expense)::bigint, sum(transaction_count)::bigint
+            from ledger_monthly_summaries
+            where ledger_id = #{ledgerId}
+              and summary_month between #{monthStart} and #{monthEnd}
+            group by summary_month
+            order by summary_month
+            """)
+    List<BizSummary> selectMonthlySummaries(@Param("ledgerId") String ledgerId,
+                                            @Param("monthStart") LocalDate monthStart,
+                                            @Param("monthEnd") LocalDate monthEnd);
+
+    /**
+     * Get the monthly buckets of each member within the given months.
+     *
+     * @param ledgerId   ledger id
+     * @param monthStart the first day of the first month, inclusive
+     * @param monthEnd   the first day of the month after the last month, exclusive
+     * @return buckets of each member and month
+     */
+    @Select("""
+            select summary_month, user_id, income, expense, transaction_count
+            from ledger_monthly_summaries
+            where ledger_id = #{ledgerId}
+              and summary_month >= #{monthStart}
+              and summary_month < #{monthEnd}
+            """)
+    List<SummaryBucket> selectMonthlyBuckets(@Param("ledgerId") String ledgerId,
+                                             @Param("monthStart") LocalDate monthStart,
+                                             @Param("monthEnd") LocalDate monthEnd);
+
+    /**
+     * Get the daily buckets of each member within the given days.
+     *
+     * @param ledgerId  ledger id
+     * @param dateStart the first day, inclusive
+     * @param dateEnd   the day after the last day, exclusive
+     * @return buckets of each member and day
+     */
+    @Select("""
+            select summary_date, user_id, income, expense, transaction_count
+            from ledger_daily_summaries
+            where ledger_id = #{ledgerId}
+              and summary_date >= #{dateStart}
+              and summary_date < #{dateEnd}
+            """)
+    List<SummaryBucket> selectDailyBuckets(@Param("ledgerId") String ledgerId,
+                                           @Param("dateStart") LocalDate dateStart,
+                                           @Param("dateEnd") LocalDate dateEnd);
+
+    /**
+     * Aggregate raw transactions into daily buckets of each member, used for parts of a day that
+     * the rollups cannot answer.
+     *
+     * @param ledgerId ledger id
+     * @param start    start of the range, inclusive
+     * @param end      end of the range, exclusive
+     * @return buckets of each member and day
+     */
+    @Select("""
+            select transaction_date::date,
+                   user_id,
+                   coalesce(sum(amount) filter (where amount > 0), 0),
+                   coalesce(-sum(amount) filter (where amount < 0), 0),
+                   count(*)
+            from transactions
+            where ledger_id = #{ledgerId}
+              and transaction_date >= #{start}
+              and transaction_date < #{end}
+            group by transaction_date::date, user_id
+            """)
+    List<SummaryBucket> selectRawBuckets(@Param("ledgerId") String ledgerId,
+                                         @Param("start") LocalDateTime start,
+                                         @Param("end") LocalDateTime end);
+
+    /**
+     * Lock the balance row of a ledger, creating it if absent. Writers of the ledger update this
+     * row in their transactions, so holding the lock keeps them out until a rebuild commits. A row
+     * created by this statement is not returned, but is locked by the inserting transaction all the
+     * same.
+     *
+     * @param ledgerId ledger id
+     */
+    @Select("""
+            with created as (
+                insert into ledger_balances (ledger_id)
+                values (#{ledgerId})
+                on conflict (ledger_id) do nothing
+            )
+            select ledger_id
+            from ledger_balances
+            where ledger_id = #{ledgerId}
+            for update
+            """)
+    String lockBalance(@Param("ledgerId") String ledgerId);
+
+    @Delete("delete from ledger_daily_summaries where ledger_id = #{ledgerId}")
+    int deleteDailySummaries(@Param("ledgerId") String ledgerId);
+
+    @Delete("delete from ledger_monthly_summaries where ledger_id = #{ledgerId}")
+    int deleteMonthlySummaries(@Param("ledgerId") String ledgerId);
+
+    @Delete("delete from ledger_balances where ledger_id = #{ledgerId}")
+    int deleteBalance(@Param("ledgerId") String ledgerId);
+
+    @Insert("""
+            with daily as (
+                insert into ledger_daily_summaries (ledger_id, user_id, summary_date, income, expense, transaction_count)
+                select ledger_id,
+                       user_id,
+                       transaction_date::date,
+                       coalesce(sum(amount) filter (where amount > 0), 0),
+                       coalesce(-sum(amount) filter (where amount < 0), 0),
+                       count(*)
+                from transactions
+                where ledger_id = #{ledgerId}
+                group by ledger_id, user_id, transaction_date::date
+                returning user_id, summary_date, income, expense, transaction_count
+            ), monthly as (
+                insert into ledger_monthly_summaries (ledger_id, user_id, summary_month, income, expense, transaction_count)
+                select #{ledgerId}, user_id, date_trunc('month', summary_date)::date, sum(income), sum(expense), sum(transaction_count)
+                from daily
+                group by user_id, date_trunc('month', summary_date)::date
+                returning ledger_id
+            )
+            update ledger_balances
+            set income            = coalesce((select sum(income) from daily), 0),
+                expense           = coalesce((select sum(expense) from daily), 0),
+                transaction_count = coalesce((select sum(transaction_count) from daily), 0),
+                updated_at        = current_timestamp
+            where ledger_id = #{ledgerId}
+            """)
+    int rebuild(@Param("ledgerId") String ledgerId);
+
+}
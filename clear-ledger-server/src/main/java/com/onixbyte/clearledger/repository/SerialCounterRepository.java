@@ -0,0 +1,76 @@
+package com.onixbyte.clearledger.repository;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * Repository of the serial counters {@code serial_counter}, used instead of the cache server by
+ * single-node deployments.
+ *
+ * @author zihluwang
+ */
+@Mapper
+public interface SerialCounterRepository {
+
+    /**
+     * Increment a counter unless it would reach the ceiling, creating it or restarting it from
+     * zero if it has expired. A refused increment changes nothing.
+     *
+     * @param key       the key of the counter
+     * @param delta     amount to add
+     * @param ceiling   the value the counter must stay below
+     * @param ttlMillis time to live of a new or restarted counter, in milliseconds
+     * @return the value of the counter after the increment, or {@code null} if refused
+     */
+    @Select("""
+            insert into serial_counter (key, value, expires_at)
+            select #{key}, #{delta}, current_timestamp + #{ttlMillis} * interval '1 millisecond'
+            where #{delta} < #{ceiling}
+            on conflict (key) do update
+                set value      = case
+                                     when serial_counter.expires_at > current_timestamp
+                                         then serial_counter.value + excluded.value
+                                     else excluded.value end,
+                    expires_at = case
+                                     when serial_counter.expires_at > current_timestamp
+                                         then serial_counter.expires_at
+                                     else excluded.expires_at end
+                where case
+                          when serial_counter.expires_at > current_timestamp
+                              then serial_counter.value + excluded.value
+                          else excluded.value end < #{ceiling}
+            returning value
+            """)
+    Long increment(@Param("key") String key,
+                   @Param("delta") long delta,
+                   @Param("ceiling") long ceiling,
+                   @Param("ttlMillis") long ttlMillis);
+
+    /**
+     * Get the value of a counter that has not expired.
+     *
+     * @param key the key of the counter
+     * @return the value of the counter, or {@code null} if it does not exist or has expired
+     */
+    @Select("""
+            select value
+            from serial_counter
+            where key = #{key}
+              and expires_at > current_timestamp
+            """)
+    Long selectValue(@Param("key") String key);
+
+    /**
+     * Delete expired counters.
+     *
+     * @return count of deleted counters
+     */
+    @Delete("""
+            delete from serial_counter
+            where expires_at <= current_timestamp
+            """)
+    int deleteExpired();
+
+}
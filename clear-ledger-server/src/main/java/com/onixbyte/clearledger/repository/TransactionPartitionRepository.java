@@ -0,0 +1,214 @@
+package com.onixbyte.clearledger.repository;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository maintaining the monthly partitions of {@code transactions}. Partition names and
+ * bounds cannot be bound as parameters in DDL, they are substituted into the statements and must
+ * only ever be created by {@code TransactionPartitionService}.
+ *
+ * @author zihluwang
+ */
+@Mapper
+public interface TransactionPartitionRepository {
+
+    /**
+     * Try to take the transaction-level advisory lock guarding partition maintenance, so only one
+     * node changes partitions at a time.
+     *
+     * @return {@code true} if the lock was taken
+     */
+    @Select("select pg_try_advisory_xact_lock(hashtext('transactions_partition'))")
+    boolean tryLock();
+
+    /**
+     * Get the names of all partitions attached to {@code transactions}, except the default one.
+     *
+     * @return names of the monthly partitions
+     */
+    @Select("""
+            select c.relname
+            from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = 'transactions'::regclass
+              and c.relname <> 'transactions_default'
+            order by c.relname
+            """)
+    List<String> selectPartitionNames();
+
+    /**
+     * Get the first day of the earliest month which still has rows in the default partition, from
+     * the given day on. A single probe of the index on {@code transaction_date}, so the months are
+     * found without reading the rows of the default partition.
+     *
+     * @param from the first day to look at, or {@code null} to look at all rows
+     * @return the first day of the month, or {@code null} if no rows are left from the given day
+     */
+    @Select("""
+            <script>
+            select date_trunc('month', min(transaction_date))::date
+            from transactions_default
+            <if test="from != null">
+              where transaction_date &gt;= #{from}
+            </if>
+            </script>
+            """)
+    LocalDate selectNextDefaultMonth(@Param("from") LocalDate from);
+
+    /**
+     * Limit how long statements of the current database transaction wait for locks, so
+     * maintenance gives up instead of queueing readers and writers behind it.
+     *
+     * @param lockTimeout the lock timeout, such as {@code 5000ms}
+     * @return the lock timeout set
+     */
+    @Select("select set_config('lock_timeout', #{lockTimeout}, true)")
+    String setLocalLockTimeout(@Param("lockTimeout") String lockTimeout);
+
+    /**
+     * Create a standalone table shaped like {@code transactions}, indexes included, to be filled
+     * and then attached as the partition of a month. Its check constraint lets the attach skip
+     * scanning it.
+     *
+     * @param name name of the table
+     * @param from the first day of the month, inclusive
+     * @param to   the first day of the next month, exclusive
+     */
+    @Update("""
+            create table if not exists ${name}
+            (
+                like transactions including all,
+                constraint ${name}_bounds check (transaction_date >= '${from}' and transaction_date < '${to}')
+            )
+            """)
+    void createStandaloneTable(@Param("name") String name, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Copy a batch of the rows of a month from the default partition into a standalone table, in
+     * the order of their ids. The rows stay in the default partition, rows copied before are
+     * skipped.
+     *
+     * @param name      name of the standalone table
+     * @param from      the first day of the month, inclusive
+     * @param to        the first day of the next month, exclusive
+     * @param afterId   the last id of the previous batch, or an empty string for the first batch
+     * @param batchSize maximum count of rows copied
+     * @return the last id of this batch, or {@code null} if no rows are left
+     */
+    @Select("""
+            with batch as (
+                select id, ledger_id, user_id, amount, description, transaction_date, created_at
+                from transactions_default
+                where id > #{afterId}
+                  and transaction_date >= #{from}
+                  and transaction_date < #{to}
+                order by id
+                limit #{batchSize}
+            ), copied as (
+                insert into ${name} (id, ledger_id, user_id, amount, description, transaction_date, created_at)
+                select id, ledger_id, user_id, amount, description, transaction_date, created_at
+                from batch
+                on conflict do nothing
+            )
+            select max(id)
+            from batch
+            """)
+    String copyDefaultRows(@Param("name") String name,
+                           @Param("from") LocalDate from,
+                           @Param("to") LocalDate to,
+                           @Param("afterId") String afterId,
+                           @Param("batchSize") int batchSize);
+
+    /**
+     * Lock the default partition against writers until the database transaction ends. Readers
+     * are not blocked.
+     */
+    @Update("lock table transactions_default in share row exclusive mode")
+    void lockDefaultAgainstWriters();
+
+    /**
+     * Delete the copies of rows changed or deleted in the default partition since they were
+     * copied into a standalone table.
+     *
+     * @param name name of the standalone table
+     * @return count of deleted copies
+     */
+    @Delete("""
+            delete from ${name} n
+            where not exists (
+                select 1
+                from transactions_default d
+                where d.id = n.id
+                  and d.transaction_date = n.transaction_date
+                  and (d.ledger_id, d.user_id, d.amount, d.description, d.created_at)
+                      is not distinct from (n.ledger_id, n.user_id, n.amount, n.description, n.created_at)
+            )
+            """)
+    int deleteStaleCopies(@Param("name") String name);
+
+    /**
+     * Copy the rows of a month not copied yet from the default partition into a standalone table.
+     *
+     * @param name name of the standalone table
+     * @param from the first day of the month, inclusive
+     * @param to   the first day of the next month, exclusive
+     * @return count of copied rows
+     */
+    @Insert("""
+            insert into ${name} (id, ledger_id, user_id, amount, description, transaction_date, created_at)
+            select id, ledger_id, user_id, amount, description, transaction_date, created_at
+            from transactions_default
+            where transaction_date >= #{from}
+              and transaction_date < #{to}
+            on conflict do nothing
+            """)
+    int copyMissingRows(@Param("name") String name, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Delete the rows of a month from the default partition.
+     *
+     * @param from the first day of the month, inclusive
+     * @param to   the first day of the next month, exclusive
+     * @return count of deleted rows
+     */
+    @Delete("""
+            delete from transactions_default
+            where transaction_date >= #{from}
+              and transaction_date < #{to}
+            """)
+    int deleteDefaultRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Attach a standalone table as the partition of a month. The default partition is scanned for
+     * rows of the month while it is locked exclusively.
+     *
+     * @param name name of the standalone table
+     * @param from the first day of the month, inclusive
+     * @param to   the first day of the next month, exclusive
+     */
+    @Update("""
+            alter table transactions attach partition ${name}
+            for values from ('${from}') to ('${to}')
+            """)
+    void attachPartition(@Param("name") String name, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Drop the check constraint of an attached partition, which its partition bounds replace.
+     *
+     * @param name name of the partition
+     */
+    @Update("alter table ${name} drop constraint ${name}_bounds")
+    void dropBoundsConstraint(@Param("name") String name);
+
+    @Update("alter table transactions detach partition ${name}")
+    void detachPartition(@Param("name") String name);
+
+}
@@ -1,18 +1,36 @@
 package com.onixbyte.clearledger.repository;
 
 import com.mybatisflex.core.BaseMapper;
-import com.mybatisflex.core.paginate.Page;
+import com.onixbyte.clearledger.data.dto.RankedTransaction;
 import com.onixbyte.clearledger.data.entity.Transaction;
 import com.onixbyte.clearledger.data.entity.ViewTransaction;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
 public interface TransactionRepository extends BaseMapper<Transaction> {
 
+    /**
+     * Get a transaction and lock its row until the current database transaction ends.
+     *
+     * @param id transaction id
+     * @return the transaction, or {@code null} if absent
+     */
+    @Select("""
+            select id, ledger_id, user_id, amount, description, transaction_date, created_at
+            from transactions
+            where id = #{id}
+            for update
+            """)
+    Transaction selectForUpdate(@Param("id") String id);
+
     @Select("""
             select t.id, t.ledger_id, t.user_id, u.username, t.amount, t.description, t.transaction_date, t.created_at
             from transactions t
@@ -25,4 +43,91 @@ public interface TransactionRepository extends BaseMapper<Transaction> {
                                                          @Param("offset") Long offset,
                                                          @Param("pageSize") Long pageSize);
 
+    @Select("""
+            <script>
+            select t.id, t.ledger_id, t.user_id, u.username, t.amount, t.description, t.transaction_date, t.created_at
+            from transactions t
+            left join users u on t.user_id = u.id
+            where t.ledger_id = #{ledgerId}
+            <if test="dateStart != null and dateEnd != null">
+              and t.transaction_date between #{dateStart} and #{dateEnd}
+            </if>
+            <if test="pattern != null">
+              and t.description ilike #{pattern} escape '\\'
+            </if>
+            <if test="cursorDate != null and cursorId != null">
+              and (t.transaction_date, t.id) &lt; (#{cursorDate}, #{cursorId})
+            </if>
+            order by t.transaction_date desc, t.id desc
+            limit #{limit}
+            </script>
+            """)
+    List<ViewTransaction> selectViewTransactionsAfter(@Param("ledgerId") String ledgerId,
+                                                      @Param("dateStart") LocalDateTime dateStart,
+                                                      @Param("dateEnd") LocalDateTime dateEnd,
+                                                      @Param("pattern") String pattern,
+                                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                                      @Param("cursorId") String cursorId,
+                                                      @Param("limit") Long limit);
+
+    /**
+     * Search transactions of a ledger by description, ordered by rank, transaction date and id, all
+     * descending. A description matches if it contains all words of the keyword, served by the
+     * full-text index, or contains the keyword itself, served by the trigram index. The rank is
+     * the better of the full-text rank and the trigram similarity.
+     *
+     * @param ledgerId   ledger id
+     * @param keyword    search keyword
+     * @param pattern    the keyword escaped and wrapped for {@code ilike}
+     * @param cursorRank rank of the last transaction on the previous page
+     * @param cursorDate transaction date of the last transaction on the previous page
+     * @param cursorId   id of the last transaction on the previous page
+     * @param limit      maximum count of transactions
+     * @return matching transactions with their ranks
+     */
+    @Select("""
+            <script>
+            select r.id, r.ledger_id, r.user_id, u.username, r.amount, r.description, r.transaction_date, r.created_at, r.rank
+            from (
+                select t.id, t.ledger_id, t.user_id, t.amount, t.description, t.transaction_date, t.created_at,
+                       greatest(ts_rank(t.description_tsv, plainto_tsquery('simple', #{keyword})),
+                                similarity(t.description, #{keyword}))::float8 as rank
+                from transactions t
+                where t.ledger_id = #{ledgerId}
+                  and (t.description_tsv @@ plainto_tsquery('simple', #{keyword})
+                       or t.description ilike #{pattern} escape '\\')
+            ) r
+            left join users u on r.user_id = u.id
+            <if test="cursorRank != null and cursorDate != null and cursorId != null">
+              where (r.rank, r.transaction_date, r.id) &lt; (#{cursorRank}, #{cursorDate}, #{cursorId})
+            </if>
+            order by r.rank desc, r.transaction_date desc, r.id desc
+            limit #{limit}
+            </script>
+            """)
+    List<RankedTransaction> searchViewTransactions(@Param("ledgerId") String ledgerId,
+                                                   @Param("keyword") String keyword,
+                                                   @Param("pattern") String pattern,
+                                                   @Param("cursorRank") Double cursorRank,
+                                                   @Param("cursorDate") LocalDateTime cursorDate,
+                                                   @Param("cursorId") String cursorId,
+                                                   @Param("limit") Long limit);
+
+    /**
+     * Open a cursor over all transactions of a ledger. Rows are fetched from the server in batches,
+     * which only works inside a transaction.
+     *
+     * @param ledgerId ledger id
+     * @return a cursor over the transactions ordered by transaction date and id
+     */
+    @Select("""
+            select t.id, t.ledger_id, t.user_id, u.username, t.amount, t.description, t.transaction_date, t.created_at
+            from transactions t
+            left join users u on t.user_id = u.id
+            where t.ledger_id = #{ledgerId}
+            order by t.transaction_date, t.id
+            """)
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1_000)
+    Cursor<ViewTransaction> selectViewTransactionCursor(@Param("ledgerId") String ledgerId);
+
 }
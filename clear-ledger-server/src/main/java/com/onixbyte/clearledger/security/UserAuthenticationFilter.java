@@ -1,13 +1,11 @@
 package com.onixbyte.clearledger.security;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.onixbyte.clearledger.data.response.BizExceptionResponse;
 import com.onixbyte.clearledger.exception.BizException;
 import com.onixbyte.clearledger.security.token.UsernamePasswordToken;
 import com.onixbyte.clearledger.service.UserService;
-import com.onixbyte.simplejwt.TokenResolver;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,21 +17,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 @Component
 public class UserAuthenticationFilter extends OncePerRequestFilter {
 
-    private final TokenResolver<DecodedJWT> tokenResolver;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final ObjectMapper objectMapper;
     private final UserService userService;
 
-    public UserAuthenticationFilter(TokenResolver<DecodedJWT> tokenResolver,
+    public UserAuthenticationFilter(VerifiedTokenCache verifiedTokenCache,
                                     ObjectMapper objectMapper,
                                     UserService userService) {
-        this.tokenResolver = tokenResolver;
+        this.verifiedTokenCache = verifiedTokenCache;
         this.objectMapper = objectMapper;
         this.userService = userService;
     }
@@ -51,11 +48,7 @@ public class UserAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            var resolvedToken = tokenResolver.resolve(jwt);
-            var username = Optional.ofNullable(resolvedToken.getAudience())
-                    .filter((audience) -> !audience.isEmpty())
-                    .map(List::getFirst)
-                    .orElse(null);
+            var username = verifiedTokenCache.resolve(jwt).username();
 
             if (Objects.isNull(username)) {
                 writeResponse(response, HttpStatus.UNAUTHORIZED, BizExceptionResponse.builder()
@@ -85,6 +78,7 @@ public class UserAuthenticationFilter extends OncePerRequestFilter {
     private <T> void writeResponse(HttpServletResponse response, ResponseEntity<T> responseEntity)
             throws IOException {
         response.setStatus(responseEntity.getStatusCode().value());
+        responseEntity.getHeaders().forEach((name, values) -> values.forEach((value) -> response.addHeader(name, value)));
         response.setContentType("application/json; charset=UTF-8");
         response.setCharacterEncoding("UTF-8");
         response.getWriter().write(objectMapper.writeValueAsString(responseEntity.getBody()));
@@ -2,9 +2,19 @@ package com.onixbyte.clearledger.security;
 
 import com.onixbyte.clearledger.data.dto.BizUser;
 
+/**
+ * Holder of the user of the current request.
+ * <p>
+ * The user is bound to the thread serving the request and is not inherited by threads it starts,
+ * so pooled threads never carry the user of the request which happened to create them, and
+ * virtual threads do not copy it. Work handed to another thread is given what it needs of the
+ * user explicitly.
+ *
+ * @author zihluwang
+ */
 public class UserHolder {
 
-    private static final ThreadLocal<BizUser> userHolder = new InheritableThreadLocal<>();
+    private static final ThreadLocal<BizUser> userHolder = new ThreadLocal<>();
 
     public static BizUser getCurrentUser() {
         return userHolder.get();
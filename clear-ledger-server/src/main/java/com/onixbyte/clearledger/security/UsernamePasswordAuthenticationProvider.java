@@ -2,6 +2,7 @@ package com.onixbyte.clearledger.security;
 
 import com.onixbyte.clearledger.exception.UnauthenticatedException;
 import com.onixbyte.clearledger.security.token.UsernamePasswordToken;
+import com.onixbyte.clearledger.service.PasswordHashService;
 import com.onixbyte.clearledger.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,10 +10,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 
 @Component
 public class UsernamePasswordAuthenticationProvider implements AuthenticationProvider {
@@ -20,13 +22,16 @@ public class UsernamePasswordAuthenticationProvider implements AuthenticationPro
     private final static Logger log = LoggerFactory.getLogger(UsernamePasswordAuthenticationProvider.class);
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashService passwordHashService;
+    private final ExecutorService ioThreadPool;
 
     @Autowired
     public UsernamePasswordAuthenticationProvider(UserService userService,
-                                                  PasswordEncoder passwordEncoder) {
+                                                  PasswordHashService passwordHashService,
+                                                  ExecutorService ioThreadPool) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashService = passwordHashService;
+        this.ioThreadPool = ioThreadPool;
     }
 
     @Override
@@ -40,7 +45,11 @@ public class UsernamePasswordAuthenticationProvider implements AuthenticationPro
             log.info("Authenticating, principle = {}, credentials = {}", usernamePasswordToken.getPrincipal(), usernamePasswordToken.getCredentials());
 
             var userDetails = userService.loadUserByUsername(usernamePasswordToken.getPrincipal());
-            if (passwordEncoder.matches(usernamePasswordToken.getCredentials(), userDetails.getPassword())) {
+            var rawPassword = usernamePasswordToken.getCredentials();
+            if (passwordHashService.matches(rawPassword, userDetails.getPassword())) {
+                if (passwordHashService.upgradeEncoding(userDetails.getPassword())) {
+                    rehash(userDetails.getId(), rawPassword);
+                }
                 var bizUser = userDetails.toBiz();
                 usernamePasswordToken.eraseCredentials();
                 usernamePasswordToken.setAuthenticated(true);
@@ -54,4 +63,24 @@ public class UsernamePasswordAuthenticationProvider implements AuthenticationPro
         throw new UnauthenticatedException("服务器错误，无法完成身份验证");
     }
 
+    /**
+     * Rehash a password weaker than the configured cost in the background. If the hashing pool is
+     * busy, the password is left alone until the next login.
+     *
+     * @param userId      id of the user
+     * @param rawPassword the password just verified
+     */
+    private void rehash(String userId, String rawPassword) {
+        var encoding = passwordHashService.encodeInBackground(rawPassword);
+        if (Objects.isNull(encoding)) {
+            return;
+        }
+        // the hashing pool is left to hashing, the new hash is saved on an IO thread
+        encoding.thenAcceptAsync((encodedPassword) -> userService.updatePasswordHash(userId, encodedPassword), ioThreadPool)
+                .exceptionally((throwable) -> {
+                    log.warn("Failed to rehash password of user {}.", userId, throwable);
+                    return null;
+                });
+    }
+
 }
@@ -0,0 +1,177 @@
+package com.onixbyte.clearledger.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.onixbyte.clearledger.cache.NearCache;
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
+import com.onixbyte.clearledger.exception.UnauthenticatedException;
+import com.onixbyte.clearledger.store.ExpiringStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import com.onixbyte.simplejwt.TokenResolver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cache of verified JSON Web Tokens, so a token reused by many requests has its signature
+ * verified once per node instead of on every request.
+ * <p>
+ * Tokens are cached under their SHA-256 digest together with the username and expiry read from
+ * them, and each entry expires with its token. A token is checked against the revocation list on
+ * the cache server when it is verified. Revoking a token adds its digest to that list until the
+ * token expires and publishes the digest, so every node drops its cached entry and verifies the
+ * token again on its next use.
+ * <p>
+ * The revocation list cannot be answered from anywhere else, so while the cache server is
+ * unavailable tokens not cached yet are refused with 503 instead of being taken as not revoked,
+ * and revoking fails with 503 instead of reporting a revocation that was not recorded. Revoking
+ * again after such a failure records and publishes the revocation anew.
+ *
+ * @author zihluwang
+ */
+@Component
+public class VerifiedTokenCache implements MessageListener, MeterBinder {
+
+    private static final int MAXIMUM_SIZE = 50_000;
+
+    /**
+     * Time to live of tokens carrying no expiry.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private final TokenResolver<DecodedJWT> tokenResolver;
+    private final ExpiringStore<String> revokedTokenCache;
+    private final CacheKeyComposer cacheKeyComposer;
+
+    private final NearCache<String, VerifiedToken> tokens = new NearCache<>(MAXIMUM_SIZE, DEFAULT_TTL);
+
+    public VerifiedTokenCache(TokenResolver<DecodedJWT> tokenResolver,
+                              ExpiringStore<String> revokedTokenCache,
+                              CacheKeyComposer cacheKeyComposer) {
+        this.tokenResolver = tokenResolver;
+        this.revokedTokenCache = revokedTokenCache;
+        this.cacheKeyComposer = cacheKeyComposer;
+    }
+
+    /**
+     * Resolve the given token, verifying it only if it is not cached.
+     *
+     * @param jwt the token
+     * @return the verified token
+     * @throws JWTVerificationException if the token cannot be verified
+     * @throws UnauthenticatedException if the token has been revoked
+     */
+    public VerifiedToken resolve(String jwt) {
+        var digest = digest(jwt);
+        var cached = tokens.get(digest);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+
+        var verifiedToken = verify(jwt);
+        if (revokedTokenCache.hasKey(cacheKeyComposer.getRevokedTokenKey(digest))) {
+            throw new UnauthenticatedException("登录状态已失效，请重新登录");
+        }
+
+        tokens.put(digest, verifiedToken, Optional.ofNullable(verifiedToken.expiresAt())
+                .map((expiresAt) -> Duration.between(Instant.now(), expiresAt))
+                .orElse(DEFAULT_TTL));
+        return verifiedToken;
+    }
+
+    /**
+     * Revoke the given token on all nodes until it expires.
+     *
+     * @param jwt the token
+     * @throws JWTVerificationException    if the token cannot be verified
+     * @throws ServiceUnavailableException if the revocation cannot be recorded or published
+     */
+    public void revoke(String jwt) {
+        var digest = digest(jwt);
+        // the revocation list is not checked, so a failed attempt can be repeated
+        var verifiedToken = Optional.ofNullable(tokens.get(digest)).orElseGet(() -> verify(jwt));
+        var ttl = Optional.ofNullable(verifiedToken.expiresAt())
+                .map((expiresAt) -> Duration.between(Instant.now(), expiresAt))
+                .orElse(DEFAULT_TTL);
+        if (ttl.isPositive()) {
+            revokedTokenCache.set(cacheKeyComposer.getRevokedTokenKey(digest), "1", ttl);
+        }
+        revokedTokenCache.publish(cacheKeyComposer.getTokenRevocationChannel(), digest);
+        // dropped last, so a client told to retry still gets past the revocation check here
+        tokens.invalidate(digest);
+    }
+
+    /**
+     * Drop the cached token named by a revocation message.
+     *
+     * @param message the revocation message carrying the token digest
+     * @param pattern the pattern matching the channel
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        tokens.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("token.cache.hits", tokens, NearCache::getHitCount)
+                .description("Tokens resolved without verifying their signatures")
+                .register(registry);
+        FunctionCounter.builder("token.cache.misses", tokens, NearCache::getMissCount)
+                .description("Tokens whose signatures were verified")
+                .register(registry);
+        Gauge.builder("token.cache.hit.ratio", tokens, NearCache::getHitRatio)
+                .description("Ratio of tokens resolved without verifying their signatures")
+                .register(registry);
+    }
+
+    /**
+     * Verify the signature of the given token, without checking the revocation list.
+     *
+     * @param jwt the token
+     * @return the verified token
+     * @throws JWTVerificationException if the token cannot be verified
+     */
+    private VerifiedToken verify(String jwt) {
+        var decodedJwt = tokenResolver.resolve(jwt);
+        return new VerifiedToken(Optional.ofNullable(decodedJwt.getAudience())
+                .filter((audience) -> !audience.isEmpty())
+                .map(List::getFirst)
+                .orElse(null),
+                decodedJwt.getExpiresAtAsInstant());
+    }
+
+    private static String digest(String jwt) {
+        try {
+            var messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(jwt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A verified token.
+     *
+     * @param username  the username carried as audience, or {@code null} if absent
+     * @param expiresAt when the token expires, or {@code null} if it carries no expiry
+     */
+    public record VerifiedToken(String username, Instant expiresAt) {
+    }
+
+}
@@ -3,21 +3,20 @@ package com.onixbyte.clearledger.service;
 import com.onixbyte.clearledger.data.dto.BizUser;
 import com.onixbyte.clearledger.data.entity.User;
 import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
 import com.onixbyte.clearledger.exception.UnauthenticatedException;
+import com.onixbyte.clearledger.security.VerifiedTokenCache;
 import com.onixbyte.clearledger.security.token.UsernamePasswordToken;
-import com.onixbyte.clearledger.util.CacheKeyComposer;
-import jakarta.mail.MessagingException;
+import com.onixbyte.clearledger.store.VerificationCodeStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.UnsupportedEncodingException;
 import java.time.Duration;
 
 @Service
@@ -25,25 +24,35 @@ public class AuthService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
+    /**
+     * How long an audience has to wait before another code is sent.
+     */
+    private static final Duration VERIFICATION_LOCK_TTL = Duration.ofMinutes(1);
+
+    /**
+     * How long a verification code stays valid.
+     */
+    private static final Duration VERIFICATION_CODE_TTL = Duration.ofMinutes(5);
+
     private final UserService userService;
-    private final RedisTemplate<String, BizUser> userCache;
+    private final UserCacheService userCacheService;
     private final AuthenticationManager authenticationManager;
     private final VerificationCodeService verificationCodeService;
-    private final RedisTemplate<String, String> verificationCodeCache;
-    private final CacheKeyComposer cacheKeyComposer;
+    private final VerificationCodeStore verificationCodeStore;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     public AuthService(UserService userService,
-                       RedisTemplate<String, BizUser> userCache,
+                       UserCacheService userCacheService,
                        AuthenticationManager authenticationManager,
                        VerificationCodeService verificationCodeService,
-                       RedisTemplate<String, String> verificationCodeCache,
-                       CacheKeyComposer cacheKeyComposer) {
+                       VerificationCodeStore verificationCodeStore,
+                       VerifiedTokenCache verifiedTokenCache) {
         this.userService = userService;
-        this.userCache = userCache;
+        this.userCacheService = userCacheService;
         this.authenticationManager = authenticationManager;
         this.verificationCodeService = verificationCodeService;
-        this.verificationCodeCache = verificationCodeCache;
-        this.cacheKeyComposer = cacheKeyComposer;
+        this.verificationCodeStore = verificationCodeStore;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     public BizUser login(String username, String password) {
@@ -53,9 +62,8 @@ public class AuthService {
                     username, password));
             if (_auth instanceof UsernamePasswordToken authentication) {
                 var bizUser = authentication.getDetails();
-                // save data to cache server for 1 day
-                userCache.opsForValue().set(cacheKeyComposer.getUserKey(bizUser.username()),
-                        bizUser, Duration.ofDays(1));
+                // save data to the user cache
+                userCacheService.put(bizUser);
                 // compose response entity
                 return bizUser;
             }
@@ -71,33 +79,47 @@ public class AuthService {
         // ensure user can be created
         userService.saveUser(user);
         var bizUser = user.toBiz();
-        // save data to cache server for 1 day
-        userCache.opsForValue().set(cacheKeyComposer.getUserKey(user.getUsername()),
-                bizUser, Duration.ofDays(1));
+        // save data to the user cache
+        userCacheService.put(bizUser);
         return bizUser;
     }
 
+    /**
+     * Log out by revoking the given token until it expires.
+     *
+     * @param jwt the token to revoke
+     */
+    public void logout(String jwt) {
+        verifiedTokenCache.revoke(jwt);
+    }
+
+    /**
+     * Issue a verification code to the audience.
+     * <p>
+     * The lock of the audience is taken and the code stored atomically, so concurrent requests of
+     * an audience never issue two codes. The mail is added to the outbox and sent in
+     * background; if it cannot be added, the lock and code are released so the audience can ask
+     * again at once.
+     *
+     * @param audience email address of the audience
+     */
     public void sendVerificationCode(String audience) {
-        var lockKey = cacheKeyComposer.getVerificationLockKey(audience);
-        var codeKey = cacheKeyComposer.getVerificationCodeKey(audience);
+        var code = verificationCodeService.generateRandomVerificationCode();
+        if (!verificationCodeStore.issue(audience, code, VERIFICATION_LOCK_TTL, VERIFICATION_CODE_TTL)) {
+            throw new BizException(HttpStatus.TOO_MANY_REQUESTS, "您的请求频率过高，请稍后再试");
+        }
+
         try {
-            if (!verificationCodeCache.hasKey(lockKey)) {
-                // send audience, and get the verification code
-                var code = verificationCodeService.sendVerificationMail(audience);
-
-                verificationCodeCache.opsForValue().set(lockKey, "1", Duration.ofMinutes(1));
-                verificationCodeCache.opsForValue().set(codeKey, code, Duration.ofMinutes(5));
-            } else {
-                throw new BizException(HttpStatus.TOO_MANY_REQUESTS, "您的请求频率过高，请稍后再试");
-            }
-        } catch (MessagingException | UnsupportedEncodingException e) {
-            throw new BizException(HttpStatus.INTERNAL_SERVER_ERROR, "服务器异常，请稍后再试");
+            verificationCodeService.sendVerificationMail(audience, code);
+        } catch (RuntimeException e) {
+            log.error("Failed to add verification code mail to {} to outbox.", audience, e);
+            verificationCodeStore.release(audience, code);
+            throw new ServiceUnavailableException("服务器繁忙，请稍后再试", Duration.ofSeconds(5));
         }
     }
 
     public String getVerificationCode(String audience) {
-        return verificationCodeCache.opsForValue()
-                .get(cacheKeyComposer.getVerificationCodeKey(audience));
+        return verificationCodeStore.get(audience);
     }
 
 }
@@ -0,0 +1,232 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.property.EmailOutboxProperty;
+import com.onixbyte.clearledger.configuration.property.EmailProperty;
+import com.onixbyte.clearledger.data.dto.OutboxEmail;
+import com.onixbyte.clearledger.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background dispatcher draining the email outbox.
+ * <p>
+ * Emails are claimed from {@code email_outbox} in batches, and every batch is sent over a single
+ * SMTP connection. Claims skip rows claimed by other nodes, so several nodes can drain the outbox
+ * together. A failed email is attempted again after a delay doubling with every attempt, and is
+ * given up after the configured count of attempts.
+ * <p>
+ * The outbox is drained on a fixed delay and right after an email is added. The count of unsent
+ * emails and the counts of sent, retried and given up emails are published as metrics.
+ *
+ * @author zihluwang
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final EmailProperty emailProperty;
+    private final EmailOutboxProperty emailOutboxProperty;
+    private final ExecutorService ioThreadPool;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong unsentCount = new AtomicLong();
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter givenUpCounter;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 EmailProperty emailProperty,
+                                 EmailOutboxProperty emailOutboxProperty,
+                                 ExecutorService ioThreadPool,
+                                 MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.emailProperty = emailProperty;
+        this.emailOutboxProperty = emailOutboxProperty;
+        this.ioThreadPool = ioThreadPool;
+
+        Gauge.builder("email.outbox.unsent", unsentCount, AtomicLong::get)
+                .description("Emails in the outbox not sent yet")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("email.outbox.sent")
+                .description("Emails sent from the outbox")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("email.outbox.retried")
+                .description("Failed attempts to send an email that will be attempted again")
+                .register(meterRegistry);
+        this.givenUpCounter = Counter.builder("email.outbox.given.up")
+                .description("Emails given up after their last attempt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain the outbox in background as soon as possible, unless it is being drained already.
+     */
+    public void wakeUp() {
+        try {
+            ioThreadPool.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // the scheduled drain will pick the email up
+            log.debug("Cannot drain email outbox now, leaving it to the next scheduled drain.");
+        }
+    }
+
+    /**
+     * Send all emails due, batch by batch. Only one drain runs at a time on each node.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:PT5S}")
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            var batchSize = emailOutboxProperty.getBatchSize();
+            var leaseSeconds = emailOutboxProperty.getLease().toSeconds();
+            while (true) {
+                var batch = emailOutboxRepository.claim(batchSize, leaseSeconds);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                sendBatch(batch);
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            unsentCount.set(emailOutboxRepository.countUnsent());
+        } catch (RuntimeException e) {
+            log.error("Failed to drain email outbox.", e);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Delete sent emails older than the retention.
+     */
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 30 4 * * *}")
+    public void purge() {
+        var deleted = emailOutboxRepository.deleteSentBefore(LocalDateTime.now().minus(emailOutboxProperty.getRetention()));
+        log.info("Purged {} sent emails from outbox.", deleted);
+    }
+
+    /**
+     * Send a batch of claimed emails over one connection and record the outcome of each.
+     *
+     * @param batch the claimed emails
+     */
+    void sendBatch(List<OutboxEmail> batch) {
+        Map<MimeMessage, OutboxEmail> messages = new IdentityHashMap<>();
+        for (var email : batch) {
+            try {
+                messages.put(createMessage(email), email);
+            } catch (MessagingException | UnsupportedEncodingException e) {
+                recordFailure(email, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures;
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages, e);
+            }
+        } catch (MailException e) {
+            failures = allFailed(messages, e);
+        }
+
+        var sentIds = new ArrayList<Long>();
+        for (var entry : messages.entrySet()) {
+            var failure = failures.get(entry.getKey());
+            if (Objects.isNull(failure)) {
+                sentIds.add(entry.getValue().id());
+            } else {
+                recordFailure(entry.getValue(), failure);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            emailOutboxRepository.markSent(sentIds);
+            sentCounter.increment(sentIds.size());
+        }
+    }
+
+    private MimeMessage createMessage(OutboxEmail email) throws MessagingException, UnsupportedEncodingException {
+        var message = mailSender.createMimeMessage();
+        var helper = new MimeMessageHelper(message, email.richText(), "UTF-8");
+        helper.setFrom(emailProperty.getFrom(), emailProperty.getSender());
+        helper.setTo(email.audience());
+        helper.setSubject(email.subject());
+        helper.setText(email.content(), email.richText());
+        return message;
+    }
+
+    private void recordFailure(OutboxEmail email, Exception failure) {
+        var giveUp = email.attempts() >= emailOutboxProperty.getMaxAttempts();
+        if (giveUp) {
+            log.error("Giving up email {} to {} after {} attempts.", email.id(), email.audience(), email.attempts(), failure);
+            givenUpCounter.increment();
+        } else {
+            log.warn("Failed to send email {} to {}, attempt {}.", email.id(), email.audience(), email.attempts(), failure);
+            retriedCounter.increment();
+        }
+        emailOutboxRepository.markFailed(email.id(), String.valueOf(failure.getMessage()),
+                LocalDateTime.now().plus(backoff(email.attempts())), giveUp);
+    }
+
+    /**
+     * Get the delay after the given count of failed attempts.
+     *
+     * @param attempts count of failed attempts
+     * @return delay before the next attempt
+     */
+    Duration backoff(int attempts) {
+        var maxBackoff = emailOutboxProperty.getMaxBackoff();
+        var backoff = emailOutboxProperty.getInitialBackoff();
+        for (var i = 1; i < attempts && backoff.compareTo(maxBackoff) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, OutboxEmail> messages, Exception failure) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.keySet().forEach((message) -> failures.put(message, failure));
+        return failures;
+    }
+
+}
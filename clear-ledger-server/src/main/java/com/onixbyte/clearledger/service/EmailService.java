@@ -1,61 +1,75 @@
 package com.onixbyte.clearledger.service;
 
-import com.onixbyte.clearledger.configuration.property.EmailProperty;
-import jakarta.mail.MessagingException;
+import com.onixbyte.clearledger.repository.EmailOutboxRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.UnsupportedEncodingException;
 import java.util.Map;
 
+/**
+ * Service sending emails through the outbox.
+ * <p>
+ * Emails are written to {@code email_outbox} and sent by {@link EmailOutboxDispatcher}, so an
+ * email is never lost once this service returns, and is retried until it is delivered. Emails
+ * written in a transaction are only sent once it commits.
+ *
+ * @author zihluwang
+ */
 @Service
 public class EmailService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
-    private final EmailProperty emailProperty;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
     private final TemplateService templateService;
 
-    public EmailService(EmailProperty emailProperty,
-                        JavaMailSender mailSender,
+    public EmailService(EmailOutboxRepository emailOutboxRepository,
+                        EmailOutboxDispatcher emailOutboxDispatcher,
                         TemplateService templateService) {
-        this.emailProperty = emailProperty;
-        this.mailSender = mailSender;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailOutboxDispatcher = emailOutboxDispatcher;
         this.templateService = templateService;
     }
 
-    @Async
-    public void sendPlainTextMessage(String audience, String subject, String content) throws MessagingException, UnsupportedEncodingException {
-        sendMessage(audience, subject, content, false);
+    public void sendPlainTextMessage(String audience, String subject, String content) {
+        enqueue(audience, subject, content, false);
     }
 
-    @Async
-    public void sendRichTextMessage(String audience, String subject, String content) throws MessagingException, UnsupportedEncodingException {
-        sendMessage(audience, subject, content, true);
+    public void sendRichTextMessage(String audience, String subject, String content) {
+        enqueue(audience, subject, content, true);
     }
 
-    @Async
-    public void sendTemplatedRichTextMessage(String audience, String subject, String templateName, Map<String, Object> params) throws MessagingException, UnsupportedEncodingException {
+    /**
+     * Render a template and send it as rich text message.
+     *
+     * @param audience     email address of the recipient
+     * @param subject      subject of the message
+     * @param templateName name of the template
+     * @param params       parameters of the template
+     */
+    public void sendTemplatedRichTextMessage(String audience, String subject, String templateName, Map<String, Object> params) {
         var htmlContent = templateService.process(templateName, params);
-        sendMessage(audience, subject, htmlContent, true);
+        enqueue(audience, subject, htmlContent, true);
     }
 
-    private void sendMessage(String audience, String subject, String content, boolean isRichText) throws MessagingException, UnsupportedEncodingException {
-        var message = mailSender.createMimeMessage();
-        var helper = new MimeMessageHelper(message, isRichText, "UTF-8");
-        helper.setFrom(emailProperty.getFrom(), emailProperty.getSender());
-        helper.setTo(audience);
-        helper.setSubject(subject);
-        helper.setText(content, isRichText);
+    private void enqueue(String audience, String subject, String content, boolean isRichText) {
+        emailOutboxRepository.insert(audience, subject, content, isRichText);
+        log.info("Email to {} has been added to outbox.", audience);
 
-        mailSender.send(message);
-
-        log.info("Email has been post to {}", audience);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailOutboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            emailOutboxDispatcher.wakeUp();
+        }
     }
 
 }
@@ -0,0 +1,107 @@
+package com.onixbyte.clearledger.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.onixbyte.clearledger.constant.ExportFormat;
+import com.onixbyte.clearledger.data.entity.ViewTransaction;
+import com.onixbyte.clearledger.data.response.TransactionResponse;
+import com.onixbyte.clearledger.repository.TransactionRepository;
+import com.onixbyte.clearledger.util.CsvUtil;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Service for exporting ledgers.
+ * <p>
+ * Transactions are read through a database cursor and written to the output stream one by one,
+ * so the memory used by an export does not grow with the size of the ledger.
+ *
+ * @author zihluwang
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final String CSV_HEADER =
+            "id,ledger_id,user_id,username,amount,description,transaction_date,created_at";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(TransactionRepository transactionRepository,
+                         ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write all transactions of the given ledger to the output stream. The database connection is
+     * held only while this method runs.
+     *
+     * @param ledgerId     ledger id
+     * @param format       export format
+     * @param outputStream the stream to write to, which is not closed by this method
+     * @throws IOException if writing to the output stream fails
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactions(String ledgerId, ExportFormat format, OutputStream outputStream) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (var cursor = transactionRepository.selectViewTransactionCursor(ledgerId)) {
+            switch (format) {
+                case CSV -> writeCsv(cursor, writer);
+                case NDJSON -> writeNdjson(cursor, writer);
+            }
+            writer.flush();
+            log.info("Exported {} transactions of ledger {} as {}.", cursor.getCurrentIndex() + 1, ledgerId, format);
+        }
+    }
+
+    private void writeCsv(Cursor<ViewTransaction> cursor, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        for (var transaction : cursor) {
+            writer.write(CsvUtil.escape(transaction.getId()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getLedgerId()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getUserId()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getUsername()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getAmount()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getDescription()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getTransactionDate()));
+            writer.write(',');
+            writer.write(CsvUtil.escape(transaction.getCreatedAt()));
+            writer.write("\r\n");
+        }
+    }
+
+    private void writeNdjson(Cursor<ViewTransaction> cursor, Writer writer) throws IOException {
+        // one generator for the whole stream, flushing is left to the buffered writer
+        var sequenceWriter = objectMapper.writerFor(TransactionResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValues(writer);
+        for (var transaction : cursor) {
+            sequenceWriter.write(transaction.toResponse());
+            writer.write('\n');
+        }
+        sequenceWriter.flush();
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.cache.NearCache;
+import com.onixbyte.clearledger.datasource.ReplicaRoutingDataSource;
+import com.onixbyte.clearledger.repository.LedgerRepository;
+import com.onixbyte.clearledger.repository.UserLedgerRepository;
+import com.onixbyte.clearledger.store.ExpiringStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service answering whether a ledger exists and which role a user has in it, the questions asked
+ * before every write to a ledger.
+ * <p>
+ * Answers are cached in a near cache of each node and on the cache server behind it, negative
+ * answers included, so a warm write needs no permission query at all. Entries are evicted when
+ * memberships change and again once the change commits, so a concurrent reader cannot put the old
+ * answer back. Every eviction is published on a channel of the cache server and other nodes drop
+ * their near entries too; a lost message is bounded by the short time to live of near caches.
+ * <p>
+ * Answers shared through the caches are loaded from the primary database, also when asked within
+ * a read-only transaction that has not taken its connection yet, so replication lag cannot deny or
+ * grant access to every node. The query runs on the connection of the surrounding transaction and
+ * does not make the user read from the primary afterwards.
+ *
+ * @author zihluwang
+ */
+@Service
+public class LedgerMembershipService implements MessageListener {
+
+    /**
+     * Cached in place of a role for users who are not members of a ledger.
+     */
+    private static final String NO_ROLE = "-";
+
+    private static final String LEDGER_PRESENT = "1";
+
+    private static final String LEDGER_ABSENT = "0";
+
+    private static final int NEAR_CACHE_SIZE = 10_000;
+
+    private static final Duration NEAR_CACHE_TTL = Duration.ofSeconds(30);
+
+    private static final Duration REMOTE_CACHE_TTL = Duration.ofMinutes(10);
+
+    /**
+     * Time to live of negative answers on the cache server, shorter so a ledger or membership
+     * created elsewhere is seen soon.
+     */
+    private static final Duration NEGATIVE_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Separates the publishing node from the evicted near key in invalidation messages.
+     */
+    private static final char MESSAGE_SEPARATOR = '\n';
+
+    /**
+     * Prefix of the near keys of ledgers in invalidation messages, dropping the ledger and all
+     * roles in it.
+     */
+    private static final String LEDGER_MESSAGE_PREFIX = "ledger:";
+
+    /**
+     * Prefix of the near keys of roles in invalidation messages.
+     */
+    private static final String ROLE_MESSAGE_PREFIX = "role:";
+
+    private final LedgerRepository ledgerRepository;
+    private final UserLedgerRepository userLedgerRepository;
+    private final ExpiringStore<String> permissionCache;
+    private final CacheKeyComposer cacheKeyComposer;
+
+    /**
+     * Identifies this node in invalidation messages, so it can skip its own.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final NearCache<String, String> roles = new NearCache<>(NEAR_CACHE_SIZE, NEAR_CACHE_TTL);
+    private final NearCache<String, Boolean> ledgers = new NearCache<>(NEAR_CACHE_SIZE, NEAR_CACHE_TTL);
+
+    public LedgerMembershipService(LedgerRepository ledgerRepository,
+                                   UserLedgerRepository userLedgerRepository,
+                                   ExpiringStore<String> permissionCache,
+                                   CacheKeyComposer cacheKeyComposer) {
+        this.ledgerRepository = ledgerRepository;
+        this.userLedgerRepository = userLedgerRepository;
+        this.permissionCache = permissionCache;
+        this.cacheKeyComposer = cacheKeyComposer;
+    }
+
+    /**
+     * Check whether the given ledger exists.
+     *
+     * @param ledgerId ledger id
+     * @return {@code true} if the ledger exists
+     */
+    public boolean hasLedger(String ledgerId) {
+        var cached = ledgers.get(ledgerId);
+        if (Objects.nonNull(cached)) {
+            return cached;
+        }
+
+        var key = cacheKeyComposer.getLedgerExistsKey(ledgerId);
+        var remote = permissionCache.get(key);
+        boolean present;
+        if (Objects.nonNull(remote)) {
+            present = LEDGER_PRESENT.equals(remote);
+        } else {
+            present = Boolean.TRUE.equals(ReplicaRoutingDataSource.readFromPrimary(() -> ledgerRepository.hasLedger(ledgerId)));
+            permissionCache.set(key, present ? LEDGER_PRESENT : LEDGER_ABSENT, present ? REMOTE_CACHE_TTL : NEGATIVE_TTL);
+        }
+
+        ledgers.put(ledgerId, present);
+        return present;
+    }
+
+    /**
+     * Get the role of a user in a ledger.
+     *
+     * @param userId   user id
+     * @param ledgerId ledger id
+     * @return the role, or empty if the user is not a member of the ledger
+     */
+    public Optional<String> getRole(String userId, String ledgerId) {
+        var nearKey = getNearRoleKey(ledgerId, userId);
+        var cached = roles.get(nearKey);
+        if (Objects.isNull(cached)) {
+            var key = cacheKeyComposer.getLedgerRoleKey(ledgerId, userId);
+            cached = permissionCache.get(key);
+            if (Objects.isNull(cached)) {
+                cached = Optional.ofNullable(ReplicaRoutingDataSource.readFromPrimary(() -> userLedgerRepository.selectRole(userId, ledgerId))).orElse(NO_ROLE);
+                permissionCache.set(key, cached, NO_ROLE.equals(cached) ? NEGATIVE_TTL : REMOTE_CACHE_TTL);
+            }
+            roles.put(nearKey, cached);
+        }
+
+        return NO_ROLE.equals(cached) ? Optional.empty() : Optional.of(cached);
+    }
+
+    /**
+     * Check whether a user is a member of a ledger, whatever the role.
+     *
+     * @param userId   user id
+     * @param ledgerId ledger id
+     * @return {@code true} if the user is a member
+     */
+    public boolean isMember(String userId, String ledgerId) {
+        return getRole(userId, ledgerId).isPresent();
+    }
+
+    /**
+     * Evict the cached role of a user whose membership of a ledger changed.
+     *
+     * @param userId   user id
+     * @param ledgerId ledger id
+     */
+    public void evictRole(String userId, String ledgerId) {
+        var nearKey = getNearRoleKey(ledgerId, userId);
+        evictNowAndAfterCommit(() -> {
+            roles.invalidate(nearKey);
+            permissionCache.delete(cacheKeyComposer.getLedgerRoleKey(ledgerId, userId));
+            publishInvalidation(ROLE_MESSAGE_PREFIX + nearKey);
+        });
+    }
+
+    /**
+     * Evict everything cached about a ledger that was created or deleted.
+     *
+     * @param ledgerId  ledger id
+     * @param memberIds ids of the members of the ledger
+     */
+    public void evictLedger(String ledgerId, Collection<String> memberIds) {
+        evictNowAndAfterCommit(() -> {
+            invalidateNearLedger(ledgerId);
+            permissionCache.delete(cacheKeyComposer.getLedgerExistsKey(ledgerId));
+            if (!memberIds.isEmpty()) {
+                permissionCache.delete(memberIds.stream()
+                        .map((userId) -> cacheKeyComposer.getLedgerRoleKey(ledgerId, userId))
+                        .toList());
+            }
+            publishInvalidation(LEDGER_MESSAGE_PREFIX + ledgerId);
+        });
+    }
+
+    /**
+     * Drop the near entries named by an invalidation message of another node.
+     *
+     * @param message the invalidation message
+     * @param pattern the pattern matching the channel
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var body = new String(message.getBody(), StandardCharsets.UTF_8);
+        var separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+
+        var key = body.substring(separator + 1);
+        if (key.startsWith(LEDGER_MESSAGE_PREFIX)) {
+            invalidateNearLedger(key.substring(LEDGER_MESSAGE_PREFIX.length()));
+        } else if (key.startsWith(ROLE_MESSAGE_PREFIX)) {
+            roles.invalidate(key.substring(ROLE_MESSAGE_PREFIX.length()));
+        }
+    }
+
+    private void invalidateNearLedger(String ledgerId) {
+        var nearPrefix = getNearRoleKey(ledgerId, "");
+        ledgers.invalidate(ledgerId);
+        roles.invalidateIf((key) -> key.startsWith(nearPrefix));
+    }
+
+    private void publishInvalidation(String key) {
+        permissionCache.publish(cacheKeyComposer.getLedgerInvalidationChannel(), nodeId + MESSAGE_SEPARATOR + key);
+    }
+
+    private static String getNearRoleKey(String ledgerId, String userId) {
+        return ledgerId + ":" + userId;
+    }
+
+    private static void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.onixbyte.clearledger.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.onixbyte.clearledger.constant.ReportGranularity;
+import com.onixbyte.clearledger.data.dto.BizLedgerReport;
+import com.onixbyte.clearledger.data.dto.BizMemberReport;
+import com.onixbyte.clearledger.data.dto.BizSummary;
+import com.onixbyte.clearledger.data.dto.SummaryBucket;
+import com.onixbyte.clearledger.data.entity.User;
+import com.onixbyte.clearledger.data.entity.table.UserTableDef;
+import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.repository.LedgerSummaryRepository;
+import com.onixbyte.clearledger.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service reporting the transactions of a ledger over arbitrary ranges of time.
+ * <p>
+ * A range is answered from the rollups wherever they cover it: whole months from the monthly
+ * summaries, the remaining whole days from the daily summaries, and only the partial days at
+ * either edge from {@code transactions}. A report over years of history therefore reads a few
+ * rows per month and member instead of every transaction.
+ *
+ * @author zihluwang
+ */
+@Service
+public class LedgerReportService {
+
+    /**
+     * Maximum count of days in a report split into days.
+     */
+    private static final long MAX_DAILY_REPORT_DAYS = 366;
+
+    private final LedgerSummaryRepository ledgerSummaryRepository;
+    private final UserRepository userRepository;
+
+    public LedgerReportService(LedgerSummaryRepository ledgerSummaryRepository,
+                               UserRepository userRepository) {
+        this.ledgerSummaryRepository = ledgerSummaryRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Get the totals of a ledger within a range of time.
+     *
+     * @param ledgerId ledger id
+     * @param start    start of the range, inclusive
+     * @param end      end of the range, exclusive
+     * @return totals of the range
+     */
+    @Transactional(readOnly = true)
+    public BizLedgerReport getReport(String ledgerId, LocalDateTime start, LocalDateTime end) {
+        var total = new Totals();
+        collectBuckets(ledgerId, start, end, true).forEach(total::add);
+        return new BizLedgerReport(ledgerId, start, end,
+                total.income, total.expense, total.income - total.expense, total.transactionCount);
+    }
+
+    /**
+     * Get the totals of each period with transactions within a range of time. Periods cut by the
+     * range only count the transactions inside the range.
+     *
+     * @param ledgerId    ledger id
+     * @param start       start of the range, inclusive
+     * @param end         end of the range, exclusive
+     * @param granularity length of the periods
+     * @return totals of each period, ordered by period
+     */
+    @Transactional(readOnly = true)
+    public List<BizSummary> getPeriodReports(String ledgerId,
+                                             LocalDateTime start,
+                                             LocalDateTime end,
+                                             ReportGranularity granularity) {
+        var isMonthly = granularity == ReportGranularity.MONTH;
+        if (!isMonthly && ChronoUnit.DAYS.between(start, end) >= MAX_DAILY_REPORT_DAYS) {
+            throw BizException.badRequest("按日统计最多查询 %d 天".formatted(MAX_DAILY_REPORT_DAYS));
+        }
+
+        var periods = new TreeMap<LocalDate, Totals>();
+        for (var bucket : collectBuckets(ledgerId, start, end, isMonthly)) {
+            periods.computeIfAbsent(granularity.truncate(bucket.period()), (period) -> new Totals())
+                    .add(bucket);
+        }
+
+        var reports = new ArrayList<BizSummary>(periods.size());
+        periods.forEach((period, total) ->
+                reports.add(new BizSummary(period, total.income, total.expense, total.transactionCount)));
+        return reports;
+    }
+
+    /**
+     * Get the totals of each member with transactions within a range of time.
+     *
+     * @param ledgerId ledger id
+     * @param start    start of the range, inclusive
+     * @param end      end of the range, exclusive
+     * @return totals of each member, members with more transactions first
+     */
+    @Transactional(readOnly = true)
+    public List<BizMemberReport> getMemberReports(String ledgerId, LocalDateTime start, LocalDateTime end) {
+        var members = new HashMap<String, Totals>();
+        for (var bucket : collectBuckets(ledgerId, start, end, true)) {
+            members.computeIfAbsent(bucket.userId(), (userId) -> new Totals())
+                    .add(bucket);
+        }
+        if (members.isEmpty()) {
+            return List.of();
+        }
+
+        var usernames = getUsernames(members.keySet());
+        return members.entrySet()
+                .stream()
+                .map((entry) -> {
+                    var total = entry.getValue();
+                    return new BizMemberReport(entry.getKey(),
+                            usernames.get(entry.getKey()),
+                            total.income,
+                            total.expense,
+                            total.income - total.expense,
+                            total.transactionCount);
+                })
+                .sorted(Comparator.comparing(BizMemberReport::transactionCount).reversed()
+                        .thenComparing(BizMemberReport::userId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Collect the buckets covering a range of time with as few rows as possible.
+     *
+     * @param ledgerId    ledger id
+     * @param start       start of the range, inclusive
+     * @param end         end of the range, exclusive
+     * @param allowMonths whether whole months may be answered by monthly buckets
+     * @return buckets whose sums equal the sums of the transactions in the range
+     */
+    private List<SummaryBucket> collectBuckets(String ledgerId,
+                                               LocalDateTime start,
+                                               LocalDateTime end,
+                                               boolean allowMonths) {
+        if (!start.isBefore(end)) {
+            throw BizException.badRequest("开始时间必须早于结束时间");
+        }
+
+        // whole days are [firstDay, endDay), the partial days around them are read from transactions
+        var firstDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate()
+                : start.toLocalDate().plusDays(1);
+        var endDay = end.toLocalDate();
+        if (!firstDay.isBefore(endDay)) {
+            return ledgerSummaryRepository.selectRawBuckets(ledgerId, start, end);
+        }
+
+        var buckets = new ArrayList<SummaryBucket>();
+        if (start.isBefore(firstDay.atStartOfDay())) {
+            buckets.addAll(ledgerSummaryRepository.selectRawBuckets(ledgerId, start, firstDay.atStartOfDay()));
+        }
+        if (end.isAfter(endDay.atStartOfDay())) {
+            buckets.addAll(ledgerSummaryRepository.selectRawBuckets(ledgerId, endDay.atStartOfDay(), end));
+        }
+
+        // whole months are [firstMonth, endMonth), the whole days around them are read from daily buckets
+        var firstMonth = firstDay.getDayOfMonth() == 1
+                ? YearMonth.from(firstDay)
+                : YearMonth.from(firstDay).plusMonths(1);
+        var endMonth = YearMonth.from(endDay);
+        if (!allowMonths || !firstMonth.isBefore(endMonth)) {
+            buckets.addAll(ledgerSummaryRepository.selectDailyBuckets(ledgerId, firstDay, endDay));
+            return buckets;
+        }
+
+        if (firstDay.isBefore(firstMonth.atDay(1))) {
+            buckets.addAll(ledgerSummaryRepository.selectDailyBuckets(ledgerId, firstDay, firstMonth.atDay(1)));
+        }
+        buckets.addAll(ledgerSummaryRepository.selectMonthlyBuckets(ledgerId, firstMonth.atDay(1), endMonth.atDay(1)));
+        if (endMonth.atDay(1).isBefore(endDay)) {
+            buckets.addAll(ledgerSummaryRepository.selectDailyBuckets(ledgerId, endMonth.atDay(1), endDay));
+        }
+        return buckets;
+    }
+
+    private Map<String, String> getUsernames(Collection<String> userIds) {
+        var table = UserTableDef.USER;
+        return userRepository.selectListByQuery(QueryWrapper.create()
+                        .select(table.ID, table.USERNAME)
+                        .where(table.ID.in(userIds)))
+                .stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+    }
+
+    /**
+     * Running totals of buckets.
+     */
+    private static final class Totals {
+
+        private long income;
+        private long expense;
+        private long transactionCount;
+
+        private void add(SummaryBucket bucket) {
+            income += bucket.income();
+            expense += bucket.expense();
+            transactionCount += bucket.transactionCount();
+        }
+
+    }
+
+}
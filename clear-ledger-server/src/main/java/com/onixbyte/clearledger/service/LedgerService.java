@@ -15,7 +15,6 @@ import com.onixbyte.clearledger.repository.UserLedgerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,20 +31,22 @@ public class LedgerService {
 
     private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
 
-    private final String cacheTag = "ledger";
-
     private final LedgerRepository ledgerRepository;
     private final UserLedgerRepository userLedgerRepository;
     private final TransactionRepository transactionRepository;
-    private final SerialService serialService;
+    private final LedgerSummaryService ledgerSummaryService;
+    private final LedgerMembershipService ledgerMembershipService;
 
     public LedgerService(LedgerRepository ledgerRepository,
                          UserLedgerRepository userLedgerRepository,
-                         TransactionRepository transactionRepository, SerialService serialService) {
+                         TransactionRepository transactionRepository,
+                         LedgerSummaryService ledgerSummaryService,
+                         LedgerMembershipService ledgerMembershipService) {
         this.ledgerRepository = ledgerRepository;
         this.userLedgerRepository = userLedgerRepository;
         this.transactionRepository = transactionRepository;
-        this.serialService = serialService;
+        this.ledgerSummaryService = ledgerSummaryService;
+        this.ledgerMembershipService = ledgerMembershipService;
     }
 
     /**
@@ -74,6 +75,7 @@ public class LedgerService {
 
         ledgerRepository.insert(ledger);
         userLedgerRepository.insert(userLedger);
+        ledgerMembershipService.evictLedger(ledger.getId(), List.of(currentUser.id()));
 
         return ledger.toBiz(userLedger.getRole(), userLedger.getJoinedAt());
     }
@@ -111,6 +113,7 @@ public class LedgerService {
                 .joinedAt(joinedAt)
                 .build();
         userLedgerRepository.insert(userLedger);
+        ledgerMembershipService.evictRole(currentUser.id(), ledgerId);
 
         var ledger = ledgerRepository.selectOneByCondition(LedgerTableDef.LEDGER.ID.eq(ledgerId));
         return BizLedger.builder()
@@ -160,8 +163,7 @@ public class LedgerService {
     public boolean isLedgerJoined(String ledgerId) {
         var currentUser = UserHolder.getCurrentUser();
 
-        return userLedgerRepository.selectCountByCondition(UserLedgerTableDef.USER_LEDGER.USER_ID.eq(currentUser.id())
-                .and(UserLedgerTableDef.USER_LEDGER.LEDGER_ID.eq(ledgerId))) == 1;
+        return ledgerMembershipService.isMember(currentUser.id(), ledgerId);
     }
 
     /**
@@ -171,7 +173,23 @@ public class LedgerService {
      * @return {@code true} if ledger exists, otherwise {@code false}
      */
     public boolean hasLedger(String ledgerId) {
-        return ledgerRepository.selectCountByCondition(LedgerTableDef.LEDGER.ID.eq(ledgerId)) == 1;
+        return ledgerMembershipService.hasLedger(ledgerId);
+    }
+
+    /**
+     * Check that the given ledger exists and current user has joined it.
+     *
+     * @param ledgerId ledger id
+     * @throws BizException if the ledger does not exist or current user has not joined it
+     */
+    public void checkLedgerJoined(String ledgerId) {
+        if (!hasLedger(ledgerId)) {
+            throw new BizException(HttpStatus.NOT_FOUND, "无法根据指定的 ID 找到账本");
+        }
+
+        if (!isLedgerJoined(ledgerId)) {
+            throw new BizException(HttpStatus.FORBIDDEN, "您没有对该账本的操作权限");
+        }
     }
 
     /**
@@ -192,9 +210,15 @@ public class LedgerService {
         }
 
         // perform deleting
+        var memberIds = userLedgerRepository.selectListByCondition(UserLedgerTableDef.USER_LEDGER.LEDGER_ID.eq(ledgerId))
+                .stream()
+                .map(UserLedger::getUserId)
+                .toList();
+        ledgerSummaryService.deleteSummaries(ledgerId);
         transactionRepository.deleteByCondition(TransactionTableDef.TRANSACTION.LEDGER_ID.eq(ledgerId));
         userLedgerRepository.deleteByCondition(UserLedgerTableDef.USER_LEDGER.LEDGER_ID.eq(ledgerId));
         ledgerRepository.deleteByCondition(LedgerTableDef.LEDGER.ID.eq(ledgerId));
+        ledgerMembershipService.evictLedger(ledgerId, memberIds);
     }
 
     /**
@@ -205,7 +229,9 @@ public class LedgerService {
      */
     public boolean canEdit(String ledgerId) {
         var currentUser = UserHolder.getCurrentUser();
-        return "owner".equals(userLedgerRepository.selectRole(currentUser.id(), ledgerId));
+        return ledgerMembershipService.getRole(currentUser.id(), ledgerId)
+                .filter("owner"::equals)
+                .isPresent();
     }
 
     /**
@@ -232,6 +258,7 @@ public class LedgerService {
      *
      * @return ledgers you joined
      */
+    @Transactional(readOnly = true)
     public List<BizLedger> getJoinedLedgers() {
         // get user information
         var user = UserHolder.getCurrentUser();
@@ -249,7 +276,8 @@ public class LedgerService {
         throw new ServiceUnavailableException("该服务暂未实现，请耐心等候！");
     }
 
-    public void exitLedger(Long ledgerId) {
+    @Transactional
+    public void exitLedger(String ledgerId) {
         // get user information
         var user = UserHolder.getCurrentUser();
         var table = UserLedgerTableDef.USER_LEDGER;
@@ -257,12 +285,6 @@ public class LedgerService {
         if (affectedRows == 0) {
             throw new BizException(HttpStatus.CONFLICT, "您不能退出自己创建的账本，如不需要该账本，请删除该账本");
         }
-    }
-
-    @Scheduled(cron = "0 0 0 * * *")
-    public void resetSerial() {
-        log.info("Resetting ledger serial.");
-        serialService.resetSerial(cacheTag);
-        log.info("Ledger serial has been reset to 0.");
+        ledgerMembershipService.evictRole(user.id(), ledgerId);
     }
 }
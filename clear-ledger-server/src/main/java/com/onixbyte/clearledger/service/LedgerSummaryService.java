@@ -0,0 +1,270 @@
+package com.onixbyte.clearledger.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.onixbyte.clearledger.configuration.property.ConcurrentProperty;
+import com.onixbyte.clearledger.data.dto.BizLedgerBalance;
+import com.onixbyte.clearledger.data.dto.BizSummary;
+import com.onixbyte.clearledger.data.entity.Ledger;
+import com.onixbyte.clearledger.data.entity.Transaction;
+import com.onixbyte.clearledger.data.entity.table.LedgerTableDef;
+import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.repository.LedgerRepository;
+import com.onixbyte.clearledger.repository.LedgerSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service maintaining the balance of every ledger and the daily and monthly summaries of its
+ * members.
+ * <p>
+ * The rollups are updated with deltas by the writers of {@code transactions}, within their
+ * database transactions, so summaries are read without scanning transactions. The rebuild job
+ * recomputes them from {@code transactions} in case they ever drift.
+ *
+ * @author zihluwang
+ */
+@Service
+public class LedgerSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerSummaryService.class);
+
+    /**
+     * Maximum count of days in a single query of daily summaries.
+     */
+    private static final long MAX_SUMMARY_DAYS = 366;
+
+    /**
+     * Maximum count of months in a single query of monthly summaries.
+     */
+    private static final long MAX_SUMMARY_MONTHS = 120;
+
+    private final LedgerSummaryRepository ledgerSummaryRepository;
+    private final LedgerRepository ledgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService taskThreadPool;
+    private final ConcurrentProperty concurrentProperty;
+
+    public LedgerSummaryService(LedgerSummaryRepository ledgerSummaryRepository,
+                                LedgerRepository ledgerRepository,
+                                TransactionTemplate transactionTemplate,
+                                ExecutorService taskThreadPool,
+                                ConcurrentProperty concurrentProperty) {
+        this.ledgerSummaryRepository = ledgerSummaryRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskThreadPool = taskThreadPool;
+        this.concurrentProperty = concurrentProperty;
+    }
+
+    /**
+     * Add a created transaction to the rollups. Must be called in the database transaction that
+     * inserted it.
+     *
+     * @param transaction the created transaction
+     */
+    public void addTransaction(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    /**
+     * Add created transactions to the rollups with one statement per member and day. Must be
+     * called in the database transaction that inserted them.
+     *
+     * @param transactions the created transactions
+     */
+    public void addTransactions(List<Transaction> transactions) {
+        var deltas = new HashMap<DeltaKey, long[]>();
+        for (var transaction : transactions) {
+            var key = new DeltaKey(transaction.getLedgerId(),
+                    transaction.getUserId(),
+                    transaction.getTransactionDate().toLocalDate());
+            var delta = deltas.computeIfAbsent(key, (_key) -> new long[3]);
+            accumulate(delta, transaction.getAmount(), 1);
+        }
+        deltas.forEach((key, delta) ->
+                ledgerSummaryRepository.applyDelta(key.ledgerId(), key.userId(), key.date(), delta[0], delta[1], delta[2]));
+    }
+
+    /**
+     * Replace a transaction in the rollups after it was updated. Must be called in the database
+     * transaction that updated it, and {@code previous} must have been read with a row lock.
+     *
+     * @param previous the transaction before the update
+     * @param current  the transaction after the update
+     */
+    public void replaceTransaction(Transaction previous, Transaction current) {
+        if (Objects.equals(previous.getLedgerId(), current.getLedgerId())
+                && Objects.equals(previous.getUserId(), current.getUserId())
+                && Objects.equals(previous.getAmount(), current.getAmount())
+                && previous.getTransactionDate().toLocalDate().equals(current.getTransactionDate().toLocalDate())) {
+            return;
+        }
+
+        apply(previous, -1);
+        apply(current, 1);
+    }
+
+    /**
+     * Delete all rollups of a ledger.
+     *
+     * @param ledgerId ledger id
+     */
+    public void deleteSummaries(String ledgerId) {
+        ledgerSummaryRepository.deleteDailySummaries(ledgerId);
+        ledgerSummaryRepository.deleteMonthlySummaries(ledgerId);
+        ledgerSummaryRepository.deleteBalance(ledgerId);
+    }
+
+    /**
+     * Get the totals of all transactions in a ledger.
+     *
+     * @param ledgerId ledger id
+     * @return the balance of the ledger
+     */
+    @Transactional(readOnly = true)
+    public BizLedgerBalance getBalance(String ledgerId) {
+        return Optional.ofNullable(ledgerSummaryRepository.selectBalance(ledgerId))
+                .orElseGet(() -> BizLedgerBalance.empty(ledgerId));
+    }
+
+    /**
+     * Get the totals of each day with transactions in the given range.
+     *
+     * @param ledgerId  ledger id
+     * @param dateStart the first day, inclusive
+     * @param dateEnd   the last day, inclusive
+     * @return summaries ordered by day
+     */
+    @Transactional(readOnly = true)
+    public List<BizSummary> getDailySummaries(String ledgerId, LocalDate dateStart, LocalDate dateEnd) {
+        if (dateStart.isAfter(dateEnd)) {
+            throw BizException.badRequest("开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(dateStart, dateEnd) >= MAX_SUMMARY_DAYS) {
+            throw BizException.badRequest("单次最多查询 %d 天".formatted(MAX_SUMMARY_DAYS));
+        }
+
+        return ledgerSummaryRepository.selectDailySummaries(ledgerId, dateStart, dateEnd);
+    }
+
+    /**
+     * Get the totals of each month with transactions in the given range.
+     *
+     * @param ledgerId   ledger id
+     * @param monthStart the first month, inclusive
+     * @param monthEnd   the last month, inclusive
+     * @return summaries ordered by month
+     */
+    @Transactional(readOnly = true)
+    public List<BizSummary> getMonthlySummaries(String ledgerId, YearMonth monthStart, YearMonth monthEnd) {
+        if (monthStart.isAfter(monthEnd)) {
+            throw BizException.badRequest("开始月份不能晚于结束月份");
+        }
+        if (ChronoUnit.MONTHS.between(monthStart, monthEnd) >= MAX_SUMMARY_MONTHS) {
+            throw BizException.badRequest("单次最多查询 %d 个月".formatted(MAX_SUMMARY_MONTHS));
+        }
+
+        return ledgerSummaryRepository.selectMonthlySummaries(ledgerId, monthStart.atDay(1), monthEnd.atDay(1));
+    }
+
+    /**
+     * Recompute the rollups of a ledger from its transactions in a database transaction of its
+     * own. Writers of the ledger wait for the rebuild to commit, and their deltas are applied on
+     * top of the recomputed rollups.
+     *
+     * @param ledgerId ledger id
+     */
+    public void rebuild(String ledgerId) {
+        transactionTemplate.executeWithoutResult((status) -> {
+            ledgerSummaryRepository.lockBalance(ledgerId);
+            ledgerSummaryRepository.deleteDailySummaries(ledgerId);
+            ledgerSummaryRepository.deleteMonthlySummaries(ledgerId);
+            ledgerSummaryRepository.rebuild(ledgerId);
+        });
+    }
+
+    /**
+     * Recompute the rollups of all ledgers. Ledgers are split into one chunk per task thread, and
+     * each ledger is rebuilt in its own database transaction so no lock is held for long.
+     * Scheduled by {@code app.summary.rebuild-cron}, disabled by default.
+     */
+    @Scheduled(cron = "${app.summary.rebuild-cron:-}")
+    public void rebuildAll() {
+        var ledgerIds = ledgerRepository.selectListByQuery(QueryWrapper.create()
+                        .select(LedgerTableDef.LEDGER.ID))
+                .stream()
+                .map(Ledger::getId)
+                .toList();
+        if (ledgerIds.isEmpty()) {
+            return;
+        }
+
+        var parallelism = Math.min(ledgerIds.size(), Math.max(1, concurrentProperty.getTask().getMaxSize()));
+        var chunkSize = (ledgerIds.size() + parallelism - 1) / parallelism;
+        var failures = new AtomicInteger();
+        var startedAt = System.currentTimeMillis();
+
+        var tasks = new ArrayList<CompletableFuture<Void>>(parallelism);
+        for (var from = 0; from < ledgerIds.size(); from += chunkSize) {
+            var chunk = ledgerIds.subList(from, Math.min(from + chunkSize, ledgerIds.size()));
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (var ledgerId : chunk) {
+                    try {
+                        rebuild(ledgerId);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        log.error("Failed to rebuild summaries of ledger {}.", ledgerId, e);
+                    }
+                }
+            }, taskThreadPool));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+        log.info("Rebuilt summaries of {} ledgers in {} ms, {} failed.",
+                ledgerIds.size() - failures.get(), System.currentTimeMillis() - startedAt, failures.get());
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        var delta = new long[3];
+        accumulate(delta, transaction.getAmount(), sign);
+        ledgerSummaryRepository.applyDelta(transaction.getLedgerId(),
+                transaction.getUserId(),
+                transaction.getTransactionDate().toLocalDate(),
+                delta[0], delta[1], delta[2]);
+    }
+
+    /**
+     * Accumulate an amount into a delta of income, expense and transaction count.
+     */
+    private static void accumulate(long[] delta, int amount, int sign) {
+        if (amount > 0) {
+            delta[0] += (long) sign * amount;
+        } else {
+            delta[1] -= (long) sign * amount;
+        }
+        delta[2] += sign;
+    }
+
+    /**
+     * The rollup rows a transaction is counted in.
+     */
+    private record DeltaKey(String ledgerId, String userId, LocalDate date) {
+    }
+
+}
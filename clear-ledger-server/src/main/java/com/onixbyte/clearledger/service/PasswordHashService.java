@@ -0,0 +1,133 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.property.PasswordHashProperty;
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Service hashing and checking passwords on a dedicated thread pool.
+ * <p>
+ * BCrypt is deliberately slow, so it runs on a small pool of its own instead of request threads,
+ * and a burst of logins or registrations only queues up behind that pool. Once the queue is full,
+ * further requests are rejected at once with {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header rather than waiting for a thread.
+ * <p>
+ * The time spent hashing and the count of rejected requests are published as metrics, the depth
+ * of the queue as {@code executor.queued} of the {@code password-hash} executor.
+ *
+ * @author zihluwang
+ */
+@Service
+public class PasswordHashService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService passwordHashThreadPool;
+    private final PasswordHashProperty passwordHashProperty;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashService(PasswordEncoder passwordEncoder,
+                               ExecutorService passwordHashThreadPool,
+                               PasswordHashProperty passwordHashProperty,
+                               MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashThreadPool = passwordHashThreadPool;
+        this.passwordHashProperty = passwordHashProperty;
+
+        this.encodeTimer = Timer.builder("password.hash")
+                .description("Time spent hashing passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("password.hash")
+                .description("Time spent hashing passwords")
+                .tag("operation", "match")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hash the given password.
+     *
+     * @param rawPassword the password to hash
+     * @return the hash
+     * @throws ServiceUnavailableException if too many passwords are being hashed
+     */
+    public String encode(String rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    /**
+     * Check the given password against a hash.
+     *
+     * @param rawPassword     the password to check
+     * @param encodedPassword the hash
+     * @return {@code true} if the password matches
+     * @throws ServiceUnavailableException if too many passwords are being hashed
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> matchTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    /**
+     * Check whether the given hash is weaker than the configured cost and should be rehashed.
+     *
+     * @param encodedPassword the hash
+     * @return {@code true} if the hash should be rehashed
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hash the given password in the background, as long as the pool has room for it.
+     *
+     * @param rawPassword the password to hash
+     * @return the hash to come, or {@code null} if the pool is too busy to take the task
+     */
+    public CompletableFuture<String> encodeInBackground(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)),
+                    passwordHashThreadPool);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, passwordHashThreadPool);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("服务器繁忙，请稍后再试", passwordHashProperty.getRetryAfter());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("服务器繁忙，请稍后再试");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
@@ -1,41 +1,292 @@
 package com.onixbyte.clearledger.service;
 
+import com.onixbyte.clearledger.configuration.property.SerialProperty;
 import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.store.SerialCounter;
 import com.onixbyte.clearledger.util.CacheKeyComposer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Service issuing daily serials for generated ids.
+ * <p>
+ * Serials are counted under one key per tag and day by a {@link SerialCounter}. A counter is
+ * given its expiry when it is created, so there is no need to reset the counters at midnight and
+ * a counter never restarts while ids of its day can still be created.
+ * <p>
+ * By default every serial costs one increment of the counter. When
+ * {@code app.serial.leased} is enabled, each node reserves a block of serials per tag and day with
+ * a single increment and hands them out from a local counter, leasing the next block in the
+ * background before the current one runs out. Every day has leases of its own, so callers still
+ * creating ids of yesterday around midnight do not discard the blocks of today, and leases of
+ * older days are dropped once a new day is leased.
+ * <p>
+ * Counters refuse increments that would reach {@value #SERIAL_CEILING} without counting them, so
+ * a batch too large for the rest of the day fails alone and leaves the serials to later callers.
+ *
+ * @author zihluwang
+ */
 @Service
 public class SerialService {
 
     private static final Logger log = LoggerFactory.getLogger(SerialService.class);
 
-    private final RedisTemplate<String, Long> serialCache;
+    /**
+     * Serials must stay below this value to fit into the four-digit suffix of generated ids.
+     */
+    private static final long SERIAL_CEILING = 10_000L;
+
+    private final SerialCounter serialCounter;
     private final CacheKeyComposer cacheKeyComposer;
+    private final SerialProperty serialProperty;
+    private final ExecutorService ioThreadPool;
+
+    private final Map<LeaseKey, SerialLease> leases = new ConcurrentHashMap<>();
 
-    public SerialService(RedisTemplate<String, Long> serialCache, CacheKeyComposer cacheKeyComposer) {
-        this.serialCache = serialCache;
+    public SerialService(SerialCounter serialCounter,
+                         CacheKeyComposer cacheKeyComposer,
+                         SerialProperty serialProperty,
+                         ExecutorService ioThreadPool) {
+        this.serialCounter = serialCounter;
         this.cacheKeyComposer = cacheKeyComposer;
+        this.serialProperty = serialProperty;
+        this.ioThreadPool = ioThreadPool;
+    }
+
+    /**
+     * Get the next serial of the given tag on the given day.
+     *
+     * @param tag  serial tag
+     * @param date the day the serial is issued for, which must be the date part of the id
+     * @return the next serial
+     */
+    public Long nextSerial(String tag, LocalDate date) {
+        return serialProperty.getLeased()
+                ? getLease(tag, date).next()
+                : increment(tag, date, 1);
+    }
+
+    /**
+     * Reserve the given count of consecutive serials of the given tag on the given day with a
+     * single increment of the counter. Leased blocks are bypassed, so the serials are consecutive
+     * even in leased mode. If fewer serials are left, none is reserved.
+     *
+     * @param tag   serial tag
+     * @param date  the day the serials are issued for, which must be the date part of the ids
+     * @param count count of serials to reserve
+     * @return the first reserved serial
+     */
+    public Long nextSerials(String tag, LocalDate date, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count of serials must be positive.");
+        }
+
+        return increment(tag, date, count) - count + 1;
+    }
+
+    /**
+     * Get the count of serials of the given tag still available on the given day. Serials leased
+     * by any node count as taken.
+     *
+     * @param tag  serial tag
+     * @param date the day of the serials
+     * @return count of serials still available
+     */
+    public long remainingSerials(String tag, LocalDate date) {
+        return serialCounter.remaining(cacheKeyComposer.getSerialKey(tag, date), SERIAL_CEILING);
+    }
+
+    /**
+     * Increment the counter of the given tag and day, failing if it would reach the ceiling.
+     *
+     * @param tag   serial tag
+     * @param date  the day of the counter
+     * @param delta count of serials to reserve
+     * @return the last reserved serial
+     * @throws BizException if fewer serials than requested are left, nothing is reserved then
+     */
+    private long increment(String tag, LocalDate date, long delta) {
+        var last = tryIncrement(tag, date, delta);
+        if (last == SerialCounter.REFUSED) {
+            throw exhausted();
+        }
+        return last;
+    }
+
+    /**
+     * Increment the counter of the given tag and day, unless it would reach the ceiling.
+     *
+     * @param tag   serial tag
+     * @param date  the day of the counter
+     * @param delta count of serials to reserve
+     * @return the last reserved serial, or {@link SerialCounter#REFUSED} if fewer are left
+     */
+    private long tryIncrement(String tag, LocalDate date, long delta) {
+        return serialCounter.increment(cacheKeyComposer.getSerialKey(tag, date), delta, SERIAL_CEILING, serialProperty.getKeyTtl());
+    }
+
+    private static BizException exhausted() {
+        return new BizException(HttpStatus.SERVICE_UNAVAILABLE, "当前序号已超过当日最大上限，请明天再试");
+    }
+
+    /**
+     * Get the lease of the given tag and day, dropping the leases of days before yesterday when a
+     * new day is leased.
+     *
+     * @param tag  serial tag
+     * @param date the day of the lease
+     * @return the lease
+     */
+    private SerialLease getLease(String tag, LocalDate date) {
+        var key = new LeaseKey(tag, date);
+        var lease = leases.get(key);
+        if (Objects.nonNull(lease)) {
+            return lease;
+        }
+
+        leases.keySet().removeIf((leaseKey) -> leaseKey.date().isBefore(date.minusDays(1)));
+        return leases.computeIfAbsent(key, (leaseKey) -> new SerialLease(leaseKey.tag(), leaseKey.date()));
+    }
+
+    /**
+     * Get the block size configured for the given tag.
+     *
+     * @param tag serial tag
+     * @return count of serials reserved per lease
+     */
+    private int getBlockSize(String tag) {
+        return Math.max(1, serialProperty.getBlockSizes()
+                .getOrDefault(tag, serialProperty.getDefaultBlockSize()));
+    }
+
+    /**
+     * Reserve a block of serials for the given tag from the counter.
+     *
+     * @param tag serial tag
+     * @param day the day the block is leased for
+     * @return the reserved block
+     */
+    private Block lease(String tag, LocalDate day) {
+        var blockSize = getBlockSize(tag);
+        var last = tryIncrement(tag, day, blockSize);
+        if (last == SerialCounter.REFUSED && blockSize > 1) {
+            // fewer serials than a block are left, hand them out one at a time
+            blockSize = 1;
+            last = tryIncrement(tag, day, blockSize);
+        }
+        if (last == SerialCounter.REFUSED) {
+            throw exhausted();
+        }
+        log.debug("Leased serials [{}, {}] for tag {}.", last - blockSize + 1, last, tag);
+        return new Block(last - blockSize + 1, last);
     }
 
-    public Long nextSerial(String tag) {
-        var serial = Optional.ofNullable(serialCache.opsForValue().increment(cacheKeyComposer.getSerialKey(tag)))
-                .orElse(1L);
-        if (serial < 10_000L) {
-            return serial;
-        } else {
-            throw new BizException(HttpStatus.SERVICE_UNAVAILABLE, "当前序号已超过当日最大上限，请明天再试");
+    /**
+     * Key of the serials of one tag and day leased by this node.
+     *
+     * @param tag  serial tag
+     * @param date the day of the serials
+     */
+    private record LeaseKey(String tag, LocalDate date) {
+    }
+
+    /**
+     * A range of serials reserved by this node.
+     *
+     * @param first  the first serial of this block
+     * @param last   the last serial of this block
+     * @param cursor the next serial to hand out
+     */
+    private record Block(long first, long last, AtomicLong cursor) {
+
+        private static final Block EMPTY = new Block(0L, -1L);
+
+        Block(long first, long last) {
+            this(first, last, new AtomicLong(first));
         }
+
     }
 
-    public void resetSerial(String tag) {
-        serialCache.opsForValue().set(cacheKeyComposer.getSerialKey(tag), 0L);
+    /**
+     * Serials of one tag and day leased by this node.
+     */
+    private final class SerialLease {
+
+        private final String tag;
+        private final LocalDate day;
+
+        private volatile Block current = Block.EMPTY;
+
+        /**
+         * The next block being leased in the background, guarded by {@code this}.
+         */
+        private CompletableFuture<Block> upcoming;
+
+        private SerialLease(String tag, LocalDate day) {
+            this.tag = tag;
+            this.day = day;
+        }
+
+        long next() {
+            while (true) {
+                var block = current;
+                var serial = block.cursor().getAndIncrement();
+                if (serial <= block.last()) {
+                    // exactly one caller observes this serial, so at most one refill starts
+                    if (block.last() - serial == refillThreshold(block)) {
+                        prefetch();
+                    }
+                    return serial;
+                }
+                refill(block);
+            }
+        }
+
+        private long refillThreshold(Block block) {
+            var size = block.last() - block.first() + 1;
+            var threshold = (long) Math.ceil(size * serialProperty.getRefillRatio());
+            return Math.min(size - 1, Math.max(1L, threshold));
+        }
+
+        private synchronized void prefetch() {
+            if (Objects.isNull(upcoming)) {
+                upcoming = CompletableFuture.supplyAsync(() -> lease(tag, day), ioThreadPool);
+            }
+        }
+
+        private synchronized void refill(Block exhausted) {
+            if (current != exhausted) {
+                // another caller has already replaced the exhausted block
+                return;
+            }
+
+            Block block = null;
+            if (Objects.nonNull(upcoming)) {
+                try {
+                    block = upcoming.join();
+                } catch (CompletionException e) {
+                    log.warn("Failed to lease serials for tag {} in background.", tag, e.getCause());
+                }
+                upcoming = null;
+            }
+
+            if (Objects.isNull(block)) {
+                block = lease(tag, day);
+            }
+            current = block;
+        }
+
     }
 
 }
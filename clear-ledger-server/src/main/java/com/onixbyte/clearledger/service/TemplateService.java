@@ -1,49 +1,233 @@
 package com.onixbyte.clearledger.service;
 
+import com.onixbyte.clearledger.configuration.property.TemplateProperty;
 import freemarker.template.Configuration;
+import freemarker.template.Template;
 import freemarker.template.TemplateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Service rendering FreeMarker templates.
+ * <p>
+ * All templates under {@code classpath:/templates} are parsed once at startup, before the server
+ * takes requests, and kept in a cache of this service. With {@code app.template.reload-on-change}
+ * they are looked up from FreeMarker on every use instead, so edits show up during development.
+ * <p>
+ * Templates render into buffers taken from a small pool and presized to the largest output seen
+ * for the template, so rendering neither allocates a new buffer nor grows it in steps.
+ *
+ * @author zihluwang
+ */
 @Service
-public class TemplateService {
+public class TemplateService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateService.class);
 
     private static final String SUFFIX = ".ftlh";
 
+    private static final String TEMPLATE_LOCATION = "classpath*:/templates/";
+
+    /**
+     * Count of idle buffers kept for reuse.
+     */
+    private static final int BUFFER_POOL_SIZE = 16;
+
+    /**
+     * Buffers grown beyond this capacity are dropped instead of being pooled.
+     */
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private static final int DEFAULT_SIZE_HINT = 1024;
+
     private final Configuration freemarkerConfig;
+    private final TemplateProperty templateProperty;
+
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+    private final BlockingQueue<StringBuilder> buffers = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
 
-    public TemplateService(Configuration freemarkerConfig) {
+    public TemplateService(Configuration freemarkerConfig,
+                           TemplateProperty templateProperty) {
         this.freemarkerConfig = freemarkerConfig;
+        this.templateProperty = templateProperty;
+    }
+
+    /**
+     * Parse all templates into the cache once the application context is ready, before the
+     * server is started.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (templateProperty.getReloadOnChange()) {
+            freemarkerConfig.setTemplateUpdateDelayMilliseconds(0L);
+            return;
+        }
+
+        try {
+            var resources = new PathMatchingResourcePatternResolver().getResources(TEMPLATE_LOCATION + "**/*" + SUFFIX);
+            for (var resource : resources) {
+                var path = resource.getURL().toString();
+                var templateName = path.substring(path.lastIndexOf("/templates/") + "/templates/".length());
+                getTemplate(templateName);
+            }
+            log.info("Preloaded {} templates.", templates.size());
+        } catch (IOException e) {
+            log.warn("Failed to preload templates, they will be loaded on first use.", e);
+        }
     }
 
     public String process(String templateName, Map<String, Object> params) {
         // validate inputs
-        if (templateName == null || templateName.trim().isEmpty()) {
-            throw new IllegalArgumentException("Template name cannot be null or empty");
-        }
         if (params == null) {
             throw new IllegalArgumentException("Parameters map cannot be null");
         }
 
-        if (!templateName.endsWith(SUFFIX)) {
-            templateName += SUFFIX;
+        var template = getTemplate(templateName);
+        var buffer = acquireBuffer(template.sizeHint().get());
+        try {
+            return render(template, params, buffer);
+        } finally {
+            releaseBuffer(buffer);
         }
+    }
 
+    /**
+     * Render a template once for each of the given parameter maps, such as the entries of a
+     * digest, looking the template up and taking a buffer only once.
+     *
+     * @param templateName name of the template
+     * @param paramsList   parameter maps to render the template with
+     * @return the rendered texts, in the order of the parameter maps
+     */
+    public List<String> processAll(String templateName, List<Map<String, Object>> paramsList) {
+        if (paramsList == null || paramsList.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Parameters maps cannot be null");
+        }
+
+        var template = getTemplate(templateName);
+        var buffer = acquireBuffer(template.sizeHint().get());
         try {
-            // load the template
-            var template = freemarkerConfig.getTemplate(templateName);
+            var outputs = new ArrayList<String>(paramsList.size());
+            for (var params : paramsList) {
+                outputs.add(render(template, params, buffer));
+            }
+            return outputs;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
 
-            // process the template with parameters
-            var output = new StringWriter();
-            template.process(params, output);
+    private CachedTemplate getTemplate(String templateName) {
+        // validate inputs
+        if (templateName == null || templateName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Template name cannot be null or empty");
+        }
+
+        var fullName = templateName.endsWith(SUFFIX) ? templateName : templateName + SUFFIX;
+        try {
+            if (templateProperty.getReloadOnChange()) {
+                // FreeMarker checks the template for changes, the size hint is kept across reloads
+                var template = freemarkerConfig.getTemplate(fullName);
+                return templates.compute(fullName, (name, cached) -> new CachedTemplate(template,
+                        Objects.isNull(cached) ? new AtomicInteger(DEFAULT_SIZE_HINT) : cached.sizeHint()));
+            }
+            return templates.computeIfAbsent(fullName, (name) -> {
+                try {
+                    return new CachedTemplate(freemarkerConfig.getTemplate(name), new AtomicInteger(DEFAULT_SIZE_HINT));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Failed to load template: " + fullName, e);
+        }
+    }
 
-            return output.toString();
+    private static String render(CachedTemplate template, Map<String, Object> params, StringBuilder buffer) {
+        buffer.setLength(0);
+        try {
+            template.template().process(params, new StringBuilderWriter(buffer));
         } catch (IOException | TemplateException e) {
-            throw new IllegalArgumentException("Failed to load template: " + templateName, e);
+            throw new IllegalArgumentException("Failed to render template: " + template.template().getName(), e);
+        }
+        template.sizeHint().accumulateAndGet(buffer.length(), Math::max);
+        return buffer.toString();
+    }
+
+    private StringBuilder acquireBuffer(int sizeHint) {
+        var buffer = buffers.poll();
+        if (Objects.isNull(buffer)) {
+            return new StringBuilder(sizeHint);
+        }
+        buffer.ensureCapacity(sizeHint);
+        return buffer;
+    }
+
+    private void releaseBuffer(StringBuilder buffer) {
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            buffer.setLength(0);
+            buffers.offer(buffer);
         }
     }
 
+    /**
+     * A parsed template with the largest length of its output so far.
+     *
+     * @param template the parsed template
+     * @param sizeHint largest length of the output so far
+     */
+    private record CachedTemplate(Template template, AtomicInteger sizeHint) {
+    }
+
+    /**
+     * An unsynchronised writer appending to a string builder.
+     */
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        private StringBuilderWriter(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            builder.append(buffer, offset, length);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            builder.append(text, offset, offset + length);
+        }
+
+        @Override
+        public void write(int character) {
+            builder.append((char) character);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
 }
@@ -0,0 +1,215 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.property.PartitionProperty;
+import com.onixbyte.clearledger.repository.TransactionPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Service maintaining the monthly partitions of {@code transactions}.
+ * <p>
+ * Rows without a monthly partition are kept by the default partition. The partition of a month is
+ * built as a standalone table: rows of the month are copied into it from the default partition in
+ * small batches, each in its own database transaction, while they stay in the default partition
+ * and readers and writers carry on. A last database transaction then blocks writers of the
+ * default partition, catches up with rows changed meanwhile, deletes the rows of the month from
+ * the default partition and attaches the table. Readers only wait for the attach, which locks the
+ * default partition exclusively while checking it holds no rows of the month; that check is quick
+ * once the default partition only keeps the few rows without a partition.
+ * <p>
+ * This is how rows of a table partitioned by migration are spread over monthly partitions, and how
+ * the partitions of upcoming months are created ahead of time. The work runs on a schedule, never
+ * at startup, and a month interrupted halfway is picked up again by the next run.
+ * <p>
+ * The primary key of a partitioned table has to contain the partition key, so the database keeps
+ * {@code (id, transaction_date)} unique but not {@code id} alone. Ids stay unique because the id
+ * creators never hand out an id twice, not because of any constraint.
+ *
+ * @author zihluwang
+ */
+@Service
+public class TransactionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+    private static final String PARTITION_PREFIX = "transactions_p";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final TransactionPartitionRepository transactionPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionProperty partitionProperty;
+
+    public TransactionPartitionService(TransactionPartitionRepository transactionPartitionRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       PartitionProperty partitionProperty) {
+        this.transactionPartitionRepository = transactionPartitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionProperty = partitionProperty;
+    }
+
+    /**
+     * Move rows out of the default partition, create the partitions of the current and upcoming
+     * months, and detach partitions older than the retention. A month that fails is left to the
+     * next run.
+     */
+    @Scheduled(cron = "${app.partition.maintain-cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        var defaultMonth = transactionPartitionRepository.selectNextDefaultMonth(null);
+        while (Objects.nonNull(defaultMonth)) {
+            var month = YearMonth.from(defaultMonth);
+            tryCreatePartition(month);
+            defaultMonth = transactionPartitionRepository.selectNextDefaultMonth(month.plusMonths(1).atDay(1));
+        }
+
+        var currentMonth = YearMonth.now();
+        for (var i = 0; i <= partitionProperty.getMonthsAhead(); i++) {
+            tryCreatePartition(currentMonth.plusMonths(i));
+        }
+
+        if (partitionProperty.getRetentionMonths() > 0) {
+            var oldestKept = currentMonth.minusMonths(partitionProperty.getRetentionMonths() - 1);
+            for (var name : transactionPartitionRepository.selectPartitionNames()) {
+                var month = parsePartitionMonth(name);
+                if (Objects.nonNull(month) && month.isBefore(oldestKept)) {
+                    archivePartition(month);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the partition of a month, moving its rows out of the default partition. Rows are
+     * copied in batches first and moved with the attach of the partition, see the description of
+     * this class.
+     *
+     * @param month the month
+     * @return {@code true} if the partition was created, {@code false} if it already exists or
+     * another node is maintaining partitions
+     */
+    public boolean createPartition(YearMonth month) {
+        var name = getPartitionName(month);
+        if (transactionPartitionRepository.selectPartitionNames().contains(name)) {
+            return false;
+        }
+
+        var from = month.atDay(1);
+        var to = month.plusMonths(1).atDay(1);
+        var created = executeLocked(() -> {
+            transactionPartitionRepository.createStandaloneTable(name, from, to);
+            return true;
+        });
+        if (Objects.isNull(created)) {
+            return false;
+        }
+
+        var afterId = "";
+        while (true) {
+            var lastId = afterId;
+            var batch = executeLocked(() -> Optional.ofNullable(transactionPartitionRepository.copyDefaultRows(name,
+                    from,
+                    to,
+                    lastId,
+                    partitionProperty.getBatchSize())));
+            if (Objects.isNull(batch)) {
+                return false;
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get();
+        }
+
+        var moved = executeLocked(() -> {
+            if (transactionPartitionRepository.selectPartitionNames().contains(name)) {
+                return null;
+            }
+
+            transactionPartitionRepository.setLocalLockTimeout(partitionProperty.getLockTimeout().toMillis() + "ms");
+            transactionPartitionRepository.lockDefaultAgainstWriters();
+            var stale = transactionPartitionRepository.deleteStaleCopies(name);
+            var missing = transactionPartitionRepository.copyMissingRows(name, from, to);
+            log.debug("Caught up partition {} with {} changed and {} new rows.", name, stale, missing);
+            var deleted = transactionPartitionRepository.deleteDefaultRows(from, to);
+            transactionPartitionRepository.attachPartition(name, from, to);
+            transactionPartitionRepository.dropBoundsConstraint(name);
+            return deleted;
+        });
+        if (Objects.isNull(moved)) {
+            return false;
+        }
+
+        log.info("Created partition {}, {} rows moved from the default partition.", name, moved);
+        return true;
+    }
+
+    /**
+     * Detach the partition of a month. This only changes metadata, the detached table keeps its
+     * rows and can be dumped and dropped afterwards. Rollups are left untouched, but rebuilding
+     * them afterwards leaves out the transactions of detached months.
+     *
+     * @param month the month
+     * @return {@code true} if the partition was detached
+     */
+    public boolean archivePartition(YearMonth month) {
+        var name = getPartitionName(month);
+        return Boolean.TRUE.equals(transactionTemplate.execute((status) -> {
+            if (!transactionPartitionRepository.tryLock()
+                    || !transactionPartitionRepository.selectPartitionNames().contains(name)) {
+                return false;
+            }
+
+            transactionPartitionRepository.setLocalLockTimeout(partitionProperty.getLockTimeout().toMillis() + "ms");
+            transactionPartitionRepository.detachPartition(name);
+            log.info("Detached partition {} for archiving.", name);
+            return true;
+        }));
+    }
+
+    private void tryCreatePartition(YearMonth month) {
+        try {
+            createPartition(month);
+        } catch (DataAccessException e) {
+            log.warn("Failed to create the partition of {}, retrying on the next run.", month, e);
+        }
+    }
+
+    /**
+     * Run work in a database transaction holding the lock of partition maintenance.
+     *
+     * @param work the work
+     * @param <T>  type of the result
+     * @return result of the work, or {@code null} if another node holds the lock
+     */
+    private <T> T executeLocked(Supplier<T> work) {
+        return transactionTemplate.execute((status) -> transactionPartitionRepository.tryLock() ? work.get() : null);
+    }
+
+    private static String getPartitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX_FORMATTER);
+    }
+
+    private static YearMonth parsePartitionMonth(String name) {
+        if (!name.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+
+        try {
+            return YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+}
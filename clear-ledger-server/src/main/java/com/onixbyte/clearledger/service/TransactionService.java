@@ -2,65 +2,95 @@ package com.onixbyte.clearledger.service;
 
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
+import com.onixbyte.clearledger.data.dto.SearchCursor;
+import com.onixbyte.clearledger.data.dto.TransactionCursor;
 import com.onixbyte.clearledger.data.entity.Transaction;
 import com.onixbyte.clearledger.data.entity.ViewTransaction;
 import com.onixbyte.clearledger.data.entity.table.ViewTransactionTableDef;
+import com.onixbyte.clearledger.common.Formatters;
 import com.onixbyte.clearledger.data.request.CreateTransactionRequest;
+import com.onixbyte.clearledger.data.request.ImportTransactionRequest;
 import com.onixbyte.clearledger.data.request.QueryTransactionRequest;
 import com.onixbyte.clearledger.data.request.UpdateTransactionRequest;
+import com.onixbyte.clearledger.data.response.CursorPage;
+import com.onixbyte.clearledger.data.response.ImportTransactionResponse;
 import com.onixbyte.clearledger.exception.BizException;
 import com.onixbyte.clearledger.repository.ViewTransactionRepository;
 import com.onixbyte.clearledger.security.UserHolder;
-import com.onixbyte.clearledger.repository.LedgerRepository;
 import com.onixbyte.clearledger.repository.TransactionRepository;
-import com.onixbyte.clearledger.repository.UserLedgerRepository;
-import com.onixbyte.guid.GuidCreator;
+import com.onixbyte.clearledger.generator.BatchGuidCreator;
+import com.onixbyte.clearledger.util.CsvUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 @Service
 public class TransactionService {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
 
-    private final String cacheTag = "tx";
+    /**
+     * Maximum count of transactions in a single import.
+     */
+    private static final int MAX_IMPORT_ROWS = 5_000;
+
+    /**
+     * Largest share of the ids left today a single import may take, so an import cannot use up
+     * the ids of the transactions created after it.
+     */
+    private static final double MAX_IMPORT_ID_SHARE = 0.5;
+
+    /**
+     * Count of transactions written by each insert statement of an import.
+     */
+    private static final int IMPORT_BATCH_SIZE = 1_000;
 
     private final TransactionRepository transactionRepository;
-    private final GuidCreator<String> transactionIdCreator;
-    private final LedgerRepository ledgerRepository;
-    private final UserLedgerRepository userLedgerRepository;
-    private final SerialService serialService;
+    private final BatchGuidCreator<String> transactionIdCreator;
+    private final LedgerMembershipService ledgerMembershipService;
     private final ViewTransactionRepository viewTransactionRepository;
+    private final LedgerSummaryService ledgerSummaryService;
 
     public TransactionService(TransactionRepository transactionRepository,
-                              GuidCreator<String> transactionIdCreator,
-                              LedgerRepository ledgerRepository,
-                              UserLedgerRepository userLedgerRepository,
-                              SerialService serialService, ViewTransactionRepository viewTransactionRepository) {
+                              BatchGuidCreator<String> transactionIdCreator,
+                              LedgerMembershipService ledgerMembershipService,
+                              ViewTransactionRepository viewTransactionRepository,
+                              LedgerSummaryService ledgerSummaryService) {
         this.transactionRepository = transactionRepository;
         this.transactionIdCreator = transactionIdCreator;
-        this.ledgerRepository = ledgerRepository;
-        this.userLedgerRepository = userLedgerRepository;
-        this.serialService = serialService;
+        this.ledgerMembershipService = ledgerMembershipService;
         this.viewTransactionRepository = viewTransactionRepository;
+        this.ledgerSummaryService = ledgerSummaryService;
     }
 
     private void preValidate(String userId, String ledgerId) {
-        if (!ledgerRepository.hasLedger(ledgerId)) {
+        if (!ledgerMembershipService.hasLedger(ledgerId)) {
             throw new BizException(HttpStatus.NOT_FOUND, "账本不存在");
         }
 
-        if (!userLedgerRepository.canWriteTransaction(userId, ledgerId)) {
+        if (!ledgerMembershipService.isMember(userId, ledgerId)) {
             throw new BizException(HttpStatus.FORBIDDEN, "您没有对该账本的操作权限");
         }
     }
 
+    @Transactional(readOnly = true)
     public Page<ViewTransaction> getTransactionPage(String ledgerId,
                                                     Long pageNum,
                                                     Long pageSize,
@@ -73,10 +103,107 @@ public class TransactionService {
             if (Objects.nonNull(request.transactionDateStart()) && Objects.nonNull(request.transactionDateEnd())) {
                 queryWrapper.and(table.TRANSACTION_DATE.between(request.transactionDateStart().atTime(0, 0, 0), request.transactionDateEnd().atTime(23, 59, 59)));
             }
+            var pattern = toContainsPattern(request.keyword());
+            if (Objects.nonNull(pattern)) {
+                queryWrapper.and("description ilike ? escape '\\'", pattern);
+            }
         }
         return viewTransactionRepository.paginate(new Page<>(pageNum, pageSize), queryWrapper);
     }
 
+    /**
+     * Get a page of transactions ordered by transaction date and id, both descending, starting
+     * after the given cursor. Unlike {@link #getTransactionPage} this seeks directly to the cursor
+     * instead of skipping rows, and does not count the total. Only members of the ledger may page
+     * through it.
+     *
+     * @param ledgerId ledger id
+     * @param cursor   cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize count of transactions on each page
+     * @param request  query conditions
+     * @return transactions on this page and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ViewTransaction> getTransactionsAfter(String ledgerId,
+                                                            String cursor,
+                                                            Long pageSize,
+                                                            QueryTransactionRequest request) {
+        var currentUser = UserHolder.getCurrentUser();
+        preValidate(currentUser.id(), ledgerId);
+
+        var decodedCursor = Optional.ofNullable(cursor)
+                .filter((value) -> !value.isBlank())
+                .map(TransactionCursor::decode);
+
+        LocalDateTime dateStart = null;
+        LocalDateTime dateEnd = null;
+        String pattern = null;
+        if (Objects.nonNull(request)) {
+            if (Objects.nonNull(request.transactionDateStart()) && Objects.nonNull(request.transactionDateEnd())) {
+                dateStart = request.transactionDateStart().atTime(0, 0, 0);
+                dateEnd = request.transactionDateEnd().atTime(23, 59, 59);
+            }
+            pattern = toContainsPattern(request.keyword());
+        }
+
+        // query one more row to find out whether there is a next page
+        var transactions = transactionRepository.selectViewTransactionsAfter(ledgerId,
+                dateStart,
+                dateEnd,
+                pattern,
+                decodedCursor.map(TransactionCursor::transactionDate).orElse(null),
+                decodedCursor.map(TransactionCursor::id).orElse(null),
+                pageSize + 1);
+        if (transactions.size() <= pageSize) {
+            return new CursorPage<>(transactions, null);
+        }
+
+        var records = transactions.subList(0, pageSize.intValue());
+        return new CursorPage<>(records, TransactionCursor.of(records.getLast()).encode());
+    }
+
+    /**
+     * Search transactions of a ledger by description, most relevant first. Results are paged with
+     * a cursor like {@link #getTransactionsAfter}, so deep pages cost the same as the first.
+     *
+     * @param ledgerId ledger id
+     * @param keyword  search keyword
+     * @param cursor   cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize count of transactions on each page
+     * @return matching transactions on this page and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ViewTransaction> searchTransactions(String ledgerId,
+                                                          String keyword,
+                                                          String cursor,
+                                                          Long pageSize) {
+        var currentUser = UserHolder.getCurrentUser();
+        preValidate(currentUser.id(), ledgerId);
+
+        var pattern = toContainsPattern(keyword);
+        if (Objects.isNull(pattern)) {
+            throw BizException.badRequest("搜索关键字不能为空");
+        }
+        var decodedCursor = Optional.ofNullable(cursor)
+                .filter((value) -> !value.isBlank())
+                .map(SearchCursor::decode);
+
+        var transactions = transactionRepository.searchViewTransactions(ledgerId,
+                keyword.trim(),
+                pattern,
+                decodedCursor.map(SearchCursor::rank).orElse(null),
+                decodedCursor.map(SearchCursor::transactionDate).orElse(null),
+                decodedCursor.map(SearchCursor::id).orElse(null),
+                pageSize + 1);
+        if (transactions.size() <= pageSize) {
+            return new CursorPage<>(Collections.unmodifiableList(transactions), null);
+        }
+
+        var records = transactions.subList(0, pageSize.intValue());
+        return new CursorPage<>(Collections.unmodifiableList(records), SearchCursor.of(records.getLast()).encode());
+    }
+
+    @Transactional
     public ViewTransaction createTransaction(CreateTransactionRequest request) {
         var currentUser = UserHolder.getCurrentUser();
         preValidate(currentUser.id(), request.ledgerId());
@@ -91,13 +218,21 @@ public class TransactionService {
                 .createdAt(LocalDateTime.now())
                 .build();
         transactionRepository.insert(transaction);
+        ledgerSummaryService.addTransaction(transaction);
         return transaction.toView(currentUser.username());
     }
 
+    @Transactional
     public ViewTransaction updateTransaction(UpdateTransactionRequest request) {
         var currentUser = UserHolder.getCurrentUser();
         preValidate(currentUser.id(), request.ledgerId());
 
+        // lock the transaction so concurrent updates apply their deltas to the summaries in turn
+        var previous = transactionRepository.selectForUpdate(request.id());
+        if (Objects.isNull(previous) || !previous.getLedgerId().equals(request.ledgerId())) {
+            throw BizException.notFound("交易记录不存在");
+        }
+
         var transaction = Transaction.builder()
                 .id(request.id())
                 .ledgerId(request.ledgerId())
@@ -108,13 +243,193 @@ public class TransactionService {
                 .build();
         // the default behaviour of `update(T)` method from `BaseMapper` will ignore null values
         transactionRepository.update(transaction);
-        return transaction.toView(currentUser.username());
+
+        var updated = Transaction.builder()
+                .id(previous.getId())
+                .ledgerId(previous.getLedgerId())
+                .userId(currentUser.id())
+                .amount(Optional.ofNullable(request.amount()).orElse(previous.getAmount()))
+                .transactionDate(Optional.ofNullable(request.transactionDate()).orElse(previous.getTransactionDate()))
+                .description(Optional.ofNullable(request.description()).orElse(previous.getDescription()))
+                .createdAt(previous.getCreatedAt())
+                .build();
+        ledgerSummaryService.replaceTransaction(previous, updated);
+        return updated.toView(currentUser.username());
+    }
+
+    /**
+     * Import transactions into a ledger. Permissions are checked once, ids are reserved in one
+     * call and the transactions are written with multi-row inserts. Invalid rows are reported and
+     * skipped, all valid rows are imported.
+     *
+     * @param ledgerId ledger id
+     * @param requests transactions to import
+     * @return count of imported transactions and errors of the skipped rows
+     */
+    @Transactional
+    public ImportTransactionResponse importTransactions(String ledgerId, List<ImportTransactionRequest> requests) {
+        var rows = new ArrayList<ImportRow>(requests.size());
+        for (var i = 0; i < requests.size(); i++) {
+            rows.add(new ImportRow(i + 1, requests.get(i)));
+        }
+        return importRows(ledgerId, rows, new ArrayList<>());
+    }
+
+    /**
+     * Import transactions into a ledger from a CSV file. The first row is a header naming the
+     * columns {@code amount}, {@code description} and {@code transaction_date}, other columns
+     * are ignored, so files exported from a ledger can be imported directly.
+     *
+     * @param ledgerId    ledger id
+     * @param inputStream the CSV file encoded in UTF-8
+     * @return count of imported transactions and errors of the skipped rows
+     * @throws IOException if reading the file fails
+     */
+    @Transactional
+    public ImportTransactionResponse importTransactionsFromCsv(String ledgerId, InputStream inputStream) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        var header = CsvUtil.readRecord(reader);
+        if (Objects.isNull(header)) {
+            throw BizException.badRequest("导入文件为空");
+        }
+
+        var columns = new HashMap<String, Integer>();
+        for (var i = 0; i < header.size(); i++) {
+            // drop the byte order mark some spreadsheet programmes write
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+        }
+        var amountColumn = columns.get("amount");
+        var descriptionColumn = columns.get("description");
+        var transactionDateColumn = columns.get("transaction_date");
+        if (Objects.isNull(amountColumn) || Objects.isNull(transactionDateColumn)) {
+            throw BizException.badRequest("导入文件必须包含 amount 与 transaction_date 列");
+        }
+
+        var rows = new ArrayList<ImportRow>();
+        var errors = new ArrayList<ImportTransactionResponse.RowError>();
+        List<String> record;
+        var rowNumber = 0;
+        while (Objects.nonNull(record = CsvUtil.readRecord(reader))) {
+            rowNumber++;
+            if (record.size() == 1 && record.getFirst().isBlank()) {
+                continue;
+            }
+            if (rows.size() + errors.size() >= MAX_IMPORT_ROWS) {
+                throw BizException.badRequest("单次最多导入 %d 条记录".formatted(MAX_IMPORT_ROWS));
+            }
+
+            try {
+                var amount = getField(record, amountColumn);
+                var description = getField(record, descriptionColumn);
+                var transactionDate = getField(record, transactionDateColumn);
+                rows.add(new ImportRow(rowNumber, new ImportTransactionRequest(
+                        Objects.isNull(amount) ? null : Integer.valueOf(amount),
+                        description,
+                        Objects.isNull(transactionDate) ? null : parseTransactionDate(transactionDate))));
+            } catch (NumberFormatException e) {
+                errors.add(new ImportTransactionResponse.RowError(rowNumber, "金额格式错误"));
+            } catch (DateTimeParseException e) {
+                errors.add(new ImportTransactionResponse.RowError(rowNumber, "交易日期格式错误"));
+            }
+        }
+        return importRows(ledgerId, rows, errors);
+    }
+
+    private ImportTransactionResponse importRows(String ledgerId,
+                                                 List<ImportRow> rows,
+                                                 List<ImportTransactionResponse.RowError> errors) {
+        var currentUser = UserHolder.getCurrentUser();
+        preValidate(currentUser.id(), ledgerId);
+
+        if (rows.size() > MAX_IMPORT_ROWS) {
+            throw BizException.badRequest("单次最多导入 %d 条记录".formatted(MAX_IMPORT_ROWS));
+        }
+
+        var validRequests = new ArrayList<ImportTransactionRequest>(rows.size());
+        for (var row : rows) {
+            var request = row.request();
+            if (Objects.isNull(request)) {
+                errors.add(new ImportTransactionResponse.RowError(row.row(), "记录不能为空"));
+            } else if (Objects.isNull(request.amount())) {
+                errors.add(new ImportTransactionResponse.RowError(row.row(), "金额不能为空"));
+            } else if (Objects.isNull(request.transactionDate())) {
+                errors.add(new ImportTransactionResponse.RowError(row.row(), "交易日期不能为空"));
+            } else {
+                validRequests.add(request);
+            }
+        }
+
+        if (!validRequests.isEmpty()) {
+            var maxImportIds = (long) (transactionIdCreator.remainingIds() * MAX_IMPORT_ID_SHARE);
+            if (validRequests.size() > maxImportIds) {
+                throw new BizException(HttpStatus.SERVICE_UNAVAILABLE, "今日剩余编号不足，本次最多导入 %d 条记录".formatted(maxImportIds));
+            }
+            var ids = transactionIdCreator.nextIds(validRequests.size());
+            var createdAt = LocalDateTime.now();
+            var transactions = new ArrayList<Transaction>(validRequests.size());
+            for (var i = 0; i < validRequests.size(); i++) {
+                var request = validRequests.get(i);
+                transactions.add(Transaction.builder()
+                        .id(ids.get(i))
+                        .ledgerId(ledgerId)
+                        .userId(currentUser.id())
+                        .amount(request.amount())
+                        .transactionDate(request.transactionDate())
+                        .description(request.description())
+                        .createdAt(createdAt)
+                        .build());
+            }
+            transactionRepository.insertBatch(transactions, IMPORT_BATCH_SIZE);
+            ledgerSummaryService.addTransactions(transactions);
+        }
+
+        log.info("Imported {} transactions into ledger {}, {} rows skipped.", validRequests.size(), ledgerId, errors.size());
+        return new ImportTransactionResponse(validRequests.size(), errors);
+    }
+
+    /**
+     * Escape the wildcards in a keyword and wrap it for an {@code ilike} matching descriptions
+     * containing it.
+     *
+     * @param keyword search keyword
+     * @return the pattern, or {@code null} if the keyword is blank
+     */
+    private static String toContainsPattern(String keyword) {
+        if (Objects.isNull(keyword) || keyword.isBlank()) {
+            return null;
+        }
+
+        var escaped = keyword.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String getField(List<String> record, Integer column) {
+        if (Objects.isNull(column) || column >= record.size() || record.get(column).isBlank()) {
+            return null;
+        }
+        return record.get(column).trim();
+    }
+
+    /**
+     * Parse a transaction date written as {@code 2025-03-26T14:30:45},
+     * {@code 2025-03-26 14:30:45} or {@code 2025-03-26}.
+     */
+    private static LocalDateTime parseTransactionDate(String value) {
+        if (value.length() == 10) {
+            return LocalDate.parse(value, Formatters.DATE_FORMATTER).atStartOfDay();
+        }
+        if (value.indexOf('T') > 0) {
+            return LocalDateTime.parse(value);
+        }
+        return LocalDateTime.parse(value, Formatters.DATE_TIME_FORMATTER);
     }
 
-    @Scheduled(cron = "0 0 0 * * *")
-    public void resetSerial() {
-        log.info("Resetting transaction serial.");
-        serialService.resetSerial(cacheTag);
-        log.info("Transaction serial has been reset to 0.");
+    /**
+     * A transaction to import and its row number.
+     */
+    private record ImportRow(int row, ImportTransactionRequest request) {
     }
 }
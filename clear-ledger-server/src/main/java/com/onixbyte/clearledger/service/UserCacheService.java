@@ -0,0 +1,246 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.cache.NearCache;
+import com.onixbyte.clearledger.configuration.property.UserCacheProperty;
+import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.store.ExpiringStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Service caching authenticated users, looked up on every request by
+ * {@link com.onixbyte.clearledger.security.UserAuthenticationFilter}.
+ * <p>
+ * Users are cached in a near cache of each node in front of the cache server, so a warm lookup is
+ * a map lookup without a round trip or deserialisation. Whenever a user is cached or evicted, the
+ * username is published on a channel of the cache server and every other node drops its near
+ * entry. A lost message is bounded by the time to live of the near cache.
+ * <p>
+ * Misses are loaded once per username and node however many requests miss at the same time, the
+ * others wait for the load in flight. Entries on the cache server expire after a jittered time to
+ * live, so users cached together do not expire together, and unknown usernames are cached as
+ * absent for a short while.
+ * <p>
+ * Hits, misses, the hit ratio and the size of the near cache are published as metrics.
+ *
+ * @author zihluwang
+ */
+@Service
+public class UserCacheService implements MessageListener, MeterBinder {
+
+    /**
+     * Separates the publishing node from the username in invalidation messages.
+     */
+    private static final char MESSAGE_SEPARATOR = '\n';
+
+    private final ExpiringStore<BizUser> userCache;
+    private final CacheKeyComposer cacheKeyComposer;
+    private final UserCacheProperty userCacheProperty;
+
+    private final NearCache<String, BizUser> users;
+
+    /**
+     * Loads in flight by username.
+     */
+    private final Map<String, CompletableFuture<BizUser>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies this node in invalidation messages, so it can skip its own.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public UserCacheService(ExpiringStore<BizUser> userCache,
+                            CacheKeyComposer cacheKeyComposer,
+                            UserCacheProperty userCacheProperty) {
+        this.userCache = userCache;
+        this.cacheKeyComposer = cacheKeyComposer;
+        this.userCacheProperty = userCacheProperty;
+        this.users = new NearCache<>(userCacheProperty.getNearCacheSize(), userCacheProperty.getNearCacheTtl());
+    }
+
+    /**
+     * Get the user of the given username, loading it on a miss. Concurrent misses of a username
+     * share a single load.
+     *
+     * @param username username
+     * @param loader   loads the user of a username, returning {@code null} if there is none
+     * @return the user, or {@code null} if there is no user of the given username
+     */
+    public BizUser get(String username, Function<String, BizUser> loader) {
+        var cached = getCached(username);
+        if (Objects.nonNull(cached)) {
+            return isAbsent(cached) ? null : cached;
+        }
+
+        var load = new CompletableFuture<BizUser>();
+        var inFlight = loads.putIfAbsent(username, load);
+        if (Objects.nonNull(inFlight)) {
+            return await(inFlight);
+        }
+
+        try {
+            // a load may have completed between the miss and taking over the flight
+            var user = users.get(username);
+            if (Objects.isNull(user)) {
+                user = loader.apply(username);
+                if (Objects.isNull(user)) {
+                    putAbsent(username);
+                } else {
+                    put(user);
+                }
+            } else if (isAbsent(user)) {
+                user = null;
+            }
+            load.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(username, load);
+        }
+    }
+
+    /**
+     * Cache the given user on this node and on the cache server, and tell other nodes to drop
+     * their copies.
+     *
+     * @param user the user to cache
+     */
+    public void put(BizUser user) {
+        userCache.set(cacheKeyComposer.getUserKey(user.username()), user, jitter(userCacheProperty.getRemoteTtl()));
+        users.put(user.username(), user);
+        publishInvalidation(user.username());
+    }
+
+    /**
+     * Evict the user of the given username from all nodes and the cache server.
+     *
+     * @param username username
+     */
+    public void evict(String username) {
+        userCache.delete(cacheKeyComposer.getUserKey(username));
+        users.invalidate(username);
+        publishInvalidation(username);
+    }
+
+    /**
+     * Drop the near entry named by an invalidation message of another node.
+     *
+     * @param message the invalidation message
+     * @param pattern the pattern matching the channel
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var body = new String(message.getBody(), StandardCharsets.UTF_8);
+        var separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0) {
+            users.invalidate(body);
+        } else if (!nodeId.equals(body.substring(0, separator))) {
+            users.invalidate(body.substring(separator + 1));
+        }
+    }
+
+    /**
+     * Get the user of the given username from this node or the cache server.
+     *
+     * @param username username
+     * @return the cached user or absent marker, or {@code null} if not cached
+     */
+    private BizUser getCached(String username) {
+        var user = users.get(username);
+        if (Objects.nonNull(user)) {
+            return user;
+        }
+
+        user = userCache.get(cacheKeyComposer.getUserKey(username));
+        if (Objects.nonNull(user)) {
+            users.put(username, user, isAbsent(user) ? shorter(userCacheProperty.getNegativeTtl()) : userCacheProperty.getNearCacheTtl());
+        }
+        return user;
+    }
+
+    /**
+     * Cache that no user of the given username exists.
+     *
+     * @param username username
+     */
+    private void putAbsent(String username) {
+        var absent = BizUser.builder()
+                .username(username)
+                .build();
+        userCache.set(cacheKeyComposer.getUserKey(username), absent, userCacheProperty.getNegativeTtl());
+        users.put(username, absent, shorter(userCacheProperty.getNegativeTtl()));
+    }
+
+    /**
+     * Check whether the given cached user marks an absent user, which is cached without an id.
+     *
+     * @param user the cached user
+     * @return {@code true} if no user of this username exists
+     */
+    private static boolean isAbsent(BizUser user) {
+        return Objects.isNull(user.id());
+    }
+
+    private Duration shorter(Duration ttl) {
+        var nearCacheTtl = userCacheProperty.getNearCacheTtl();
+        return ttl.compareTo(nearCacheTtl) < 0 ? ttl : nearCacheTtl;
+    }
+
+    private Duration jitter(Duration ttl) {
+        var jitterMillis = userCacheProperty.getRemoteTtlJitter().toMillis();
+        return jitterMillis > 0
+                ? ttl.plusMillis(ThreadLocalRandom.current().nextLong(jitterMillis + 1))
+                : ttl;
+    }
+
+    private static BizUser await(CompletableFuture<BizUser> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.cache.near.hits", users, NearCache::getHitCount)
+                .description("Lookups answered by the near user cache")
+                .register(registry);
+        FunctionCounter.builder("user.cache.near.misses", users, NearCache::getMissCount)
+                .description("Lookups passed on to the cache server")
+                .register(registry);
+        Gauge.builder("user.cache.near.hit.ratio", users, NearCache::getHitRatio)
+                .description("Ratio of lookups answered by the near user cache")
+                .register(registry);
+        Gauge.builder("user.cache.near.size", users, NearCache::size)
+                .description("Count of users in the near user cache")
+                .register(registry);
+    }
+
+    private void publishInvalidation(String username) {
+        userCache.publish(cacheKeyComposer.getUserInvalidationChannel(), nodeId + MESSAGE_SEPARATOR + username);
+    }
+
+}
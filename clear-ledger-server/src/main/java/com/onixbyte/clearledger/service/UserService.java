@@ -5,15 +5,11 @@ import com.onixbyte.clearledger.data.entity.User;
 import com.onixbyte.clearledger.data.entity.table.UserTableDef;
 import com.onixbyte.clearledger.exception.BizException;
 import com.onixbyte.clearledger.repository.UserRepository;
-import com.onixbyte.clearledger.util.CacheKeyComposer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,22 +21,16 @@ public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final RedisTemplate<String, BizUser> userCache;
-    private final SerialService serialService;
-    private final CacheKeyComposer cacheKeyComposer;
+    private final PasswordHashService passwordHashService;
+    private final UserCacheService userCacheService;
 
     @Autowired
     public UserService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder,
-                       RedisTemplate<String, BizUser> userCache,
-                       SerialService serialService,
-                       CacheKeyComposer cacheKeyComposer) {
+                       PasswordHashService passwordHashService,
+                       UserCacheService userCacheService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
-        this.userCache = userCache;
-        this.serialService = serialService;
-        this.cacheKeyComposer = cacheKeyComposer;
+        this.passwordHashService = passwordHashService;
+        this.userCacheService = userCacheService;
     }
 
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -68,31 +58,32 @@ public class UserService {
         }
 
         // encrypt user password
-        var password = passwordEncoder.encode(user.getPassword());
+        var password = passwordHashService.encode(user.getPassword());
         user.setPassword(password);
 
         // perform register
         return userRepository.insert(user);
     }
 
-    public BizUser getUserByUsername(String username) {
-        var userKey = cacheKeyComposer.getUserKey(username);
-        return Optional.ofNullable(userCache.opsForValue().get(userKey))
-                .or(() -> Optional.ofNullable(userRepository.selectOneByCondition(UserTableDef.USER.USERNAME.eq(username)))
-                        .map((_user) -> {
-                            var bizUser = _user.toBiz();
-                            userCache.opsForValue().set(userKey, bizUser);
-                            return bizUser;
-                        })
-                )
-                .orElseThrow(() -> new BizException(HttpStatus.UNAUTHORIZED, "用户不存在，请注册后再试。"));
+    /**
+     * Replace the password hash of a user, keeping the password itself.
+     *
+     * @param userId          user id
+     * @param encodedPassword the new hash of the same password
+     */
+    public void updatePasswordHash(String userId, String encodedPassword) {
+        var user = new User();
+        user.setId(userId);
+        user.setPassword(encodedPassword);
+        userRepository.update(user);
     }
 
-    @Scheduled(cron = "0 0 0 * * *")
-    public void resetUserSerial() {
-        log.info("Resetting user serial.");
-        serialService.resetSerial("user");
-        log.info("User serial has been reset to 0.");
+    public BizUser getUserByUsername(String username) {
+        return Optional.ofNullable(userCacheService.get(username, (_username) ->
+                        Optional.ofNullable(userRepository.selectOneByCondition(UserTableDef.USER.USERNAME.eq(_username)))
+                                .map(User::toBiz)
+                                .orElse(null)))
+                .orElseThrow(() -> new BizException(HttpStatus.UNAUTHORIZED, "用户不存在，请注册后再试。"));
     }
 
 }
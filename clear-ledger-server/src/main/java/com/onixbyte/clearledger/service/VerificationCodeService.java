@@ -1,11 +1,9 @@
 package com.onixbyte.clearledger.service;
 
-import jakarta.mail.MessagingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 import java.util.Random;
 
@@ -25,12 +23,16 @@ public class VerificationCodeService {
         return String.valueOf(verificationCode);
     }
 
-    public String sendVerificationMail(String audience) throws MessagingException, UnsupportedEncodingException {
-        var code = generateRandomVerificationCode();
+    /**
+     * Send the given verification code to the audience through the outbox.
+     *
+     * @param audience email address of the audience
+     * @param code     the verification code
+     */
+    public void sendVerificationMail(String audience, String code) {
         var params = new HashMap<String, Object>();
         params.put("verificationCode", code);
         emailService.sendTemplatedRichTextMessage(audience, "[Clear Ledger] 验证码", "verification-code", params);
-        return code;
     }
 
 }
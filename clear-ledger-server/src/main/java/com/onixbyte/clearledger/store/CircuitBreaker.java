@@ -0,0 +1,209 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.configuration.property.ResilienceProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * A circuit breaker guarding calls to the cache server, so a stalled server costs each request a
+ * fallback instead of a timeout.
+ * <p>
+ * The outcomes of the most recent calls are kept in a window. Once enough calls have been made
+ * and the ratio of failed ones reaches the threshold, the circuit opens and every call falls back
+ * at once. Calls slower than the slow call threshold count as failed, so a server answering just
+ * within the timeout opens the circuit as well. After the open duration a few trial calls are let
+ * through, closing the circuit if all of them succeed and opening it again otherwise.
+ *
+ * @author zihluwang
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * State of a circuit.
+     */
+    public enum State {
+
+        /**
+         * Calls go through.
+         */
+        CLOSED,
+
+        /**
+         * Calls fall back without being made.
+         */
+        OPEN,
+
+        /**
+         * A limited count of trial calls go through, the others fall back.
+         */
+        HALF_OPEN
+
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdNanos;
+    private final long openDurationNanos;
+    private final int trialCalls;
+
+    /**
+     * Outcomes of the most recent calls, {@code true} for failures, guarded by {@code this}.
+     */
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    /**
+     * Create a circuit breaker.
+     *
+     * @param name               name of the guarded store, used in logs and health details
+     * @param resilienceProperty thresholds of the circuit
+     */
+    public CircuitBreaker(String name, ResilienceProperty resilienceProperty) {
+        this.name = name;
+        this.window = new boolean[Math.max(1, resilienceProperty.getWindowSize())];
+        this.minimumCalls = Math.min(window.length, Math.max(1, resilienceProperty.getMinimumCalls()));
+        this.failureRateThreshold = resilienceProperty.getFailureRateThreshold();
+        this.slowCallThresholdNanos = resilienceProperty.getSlowCallThreshold().toNanos();
+        this.openDurationNanos = resilienceProperty.getOpenDuration().toNanos();
+        this.trialCalls = Math.max(1, resilienceProperty.getTrialCalls());
+    }
+
+    /**
+     * Make a call unless the circuit is open, falling back if the call is not made or fails.
+     *
+     * @param call     the call
+     * @param fallback supplies the result if the call is not made or fails
+     * @param <T>      type of the result
+     * @return the result of the call or the fallback
+     */
+    public <T> T execute(Supplier<T> call, Supplier<T> fallback) {
+        if (!tryAcquire()) {
+            return fallback.get();
+        }
+
+        var startedAt = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            log.debug("Call guarded by circuit {} failed.", name, e);
+            record(true);
+            return fallback.get();
+        }
+        record(System.nanoTime() - startedAt > slowCallThresholdNanos);
+        return result;
+    }
+
+    /**
+     * Make a call without a result unless the circuit is open, falling back if the call is not
+     * made or fails.
+     *
+     * @param call     the call
+     * @param fallback runs if the call is not made or fails
+     */
+    public void run(Runnable call, Runnable fallback) {
+        execute(() -> {
+            call.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the current state of the circuit.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            log.info("Circuit {} is half open, letting {} trial calls through.", name, trialCalls);
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (trialsStarted < trialCalls) {
+            trialsStarted++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void record(boolean failed) {
+        switch (state) {
+            case CLOSED -> {
+                if (window[windowIndex] && windowCalls == window.length) {
+                    windowFailures--;
+                }
+                window[windowIndex] = failed;
+                windowIndex = (windowIndex + 1) % window.length;
+                windowCalls = Math.min(window.length, windowCalls + 1);
+                if (failed) {
+                    windowFailures++;
+                }
+                if (windowCalls >= minimumCalls && (double) windowFailures / windowCalls >= failureRateThreshold) {
+                    log.warn("Circuit {} is open, {} of the last {} calls failed.", name, windowFailures, windowCalls);
+                    open();
+                }
+            }
+            case HALF_OPEN -> {
+                if (failed) {
+                    log.warn("Circuit {} is open again, a trial call failed.", name);
+                    open();
+                } else if (++trialsSucceeded >= trialCalls) {
+                    log.info("Circuit {} is closed.", name);
+                    state = State.CLOSED;
+                    resetWindow();
+                }
+            }
+            case OPEN -> {
+                // a call made before the circuit opened, its outcome no longer matters
+            }
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, false);
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+
+}
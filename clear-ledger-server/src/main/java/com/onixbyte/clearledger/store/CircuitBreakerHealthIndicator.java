@@ -0,0 +1,37 @@
+package com.onixbyte.clearledger.store;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reports the state of each circuit breaker guarding the cache server.
+ * <p>
+ * The application keeps serving from its fallbacks while a circuit is open, so open circuits are
+ * reported in the details and the status stays up. The availability of the cache server itself is
+ * reported by the Redis health indicator.
+ *
+ * @author zihluwang
+ */
+public class CircuitBreakerHealthIndicator implements HealthIndicator {
+
+    private final List<CircuitBreaker> circuitBreakers;
+
+    public CircuitBreakerHealthIndicator(List<CircuitBreaker> circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @Override
+    public Health health() {
+        var states = new LinkedHashMap<String, Object>();
+        for (var circuitBreaker : circuitBreakers) {
+            states.put(circuitBreaker.getName(), circuitBreaker.getState());
+        }
+        return Health.up()
+                .withDetails(states)
+                .build();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.onixbyte.clearledger.store;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * A store of values expiring after a time to live, shared by all nodes of a deployment.
+ * <p>
+ * Clustered deployments keep the values on the cache server, single-node deployments running the
+ * {@code embedded} profile keep them in process.
+ *
+ * @param <V> type of values
+ * @author zihluwang
+ */
+public interface ExpiringStore<V> {
+
+    /**
+     * Get the value stored under the given key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if absent or expired
+     */
+    V get(String key);
+
+    /**
+     * Store a value under the given key.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param ttl   time to live of the value
+     */
+    void set(String key, V value, Duration ttl);
+
+    /**
+     * Check whether a value is stored under the given key.
+     *
+     * @param key the key
+     * @return {@code true} if a value is stored and not expired
+     */
+    boolean hasKey(String key);
+
+    /**
+     * Remove the value stored under the given key.
+     *
+     * @param key the key
+     */
+    void delete(String key);
+
+    /**
+     * Remove the values stored under the given keys.
+     *
+     * @param keys the keys
+     */
+    void delete(Collection<String> keys);
+
+    /**
+     * Publish a message on a channel to the other nodes sharing this store. Does nothing if there
+     * are no other nodes.
+     *
+     * @param channel the channel
+     * @param message the message
+     */
+    void publish(String channel, String message);
+
+}
@@ -0,0 +1,64 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * An {@link ExpiringStore} guarded by a {@link CircuitBreaker}, for stores holding what cannot be
+ * loaded anywhere else, such as the revoked tokens.
+ * <p>
+ * While the store is unavailable every call is refused at once with a suggestion to retry, so a
+ * lookup is never taken for a miss and a write is never taken for done.
+ *
+ * @param <V> type of values
+ * @author zihluwang
+ */
+public class GuardedExpiringStore<V> implements ExpiringStore<V> {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final ExpiringStore<V> delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    public GuardedExpiringStore(ExpiringStore<V> delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public V get(String key) {
+        return circuitBreaker.execute(() -> delegate.get(key), GuardedExpiringStore::refuse);
+    }
+
+    @Override
+    public void set(String key, V value, Duration ttl) {
+        circuitBreaker.run(() -> delegate.set(key, value, ttl), GuardedExpiringStore::refuse);
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return circuitBreaker.execute(() -> delegate.hasKey(key), GuardedExpiringStore::refuse);
+    }
+
+    @Override
+    public void delete(String key) {
+        circuitBreaker.run(() -> delegate.delete(key), GuardedExpiringStore::refuse);
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        circuitBreaker.run(() -> delegate.delete(keys), GuardedExpiringStore::refuse);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        circuitBreaker.run(() -> delegate.publish(channel, message), GuardedExpiringStore::refuse);
+    }
+
+    private static <T> T refuse() {
+        throw new ServiceUnavailableException("服务器繁忙，请稍后再试", RETRY_AFTER);
+    }
+
+}
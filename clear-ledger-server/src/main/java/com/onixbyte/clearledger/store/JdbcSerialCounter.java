@@ -0,0 +1,63 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.repository.SerialCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A {@link SerialCounter} persisted in the database, for single-node deployments without a cache
+ * server.
+ * <p>
+ * Every increment is a single upsert, atomic under concurrent callers and surviving restarts.
+ * Expired counters are restarted by the upsert and purged daily.
+ * <p>
+ * Every increment commits in its own transaction on the primary database, so the row lock of the
+ * counter is held only for the upsert instead of until the caller commits, and serials handed out
+ * are never given again when the caller rolls back.
+ *
+ * @author zihluwang
+ */
+public class JdbcSerialCounter implements SerialCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcSerialCounter.class);
+
+    private final SerialCounterRepository serialCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcSerialCounter(SerialCounterRepository serialCounterRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.serialCounterRepository = serialCounterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long increment(String key, long delta, long ceiling, Duration ttl) {
+        return Optional.ofNullable(transactionTemplate.execute((status) ->
+                        serialCounterRepository.increment(key, delta, ceiling, ttl.toMillis())))
+                .orElse(REFUSED);
+    }
+
+    @Override
+    public long remaining(String key, long ceiling) {
+        var value = Optional.ofNullable(serialCounterRepository.selectValue(key)).orElse(0L);
+        return Math.max(0L, ceiling - 1 - value);
+    }
+
+    /**
+     * Delete expired counters.
+     */
+    @Scheduled(cron = "0 15 4 * * *")
+    public void purge() {
+        var deleted = serialCounterRepository.deleteExpired();
+        log.debug("Purged {} expired serial counters.", deleted);
+    }
+
+}
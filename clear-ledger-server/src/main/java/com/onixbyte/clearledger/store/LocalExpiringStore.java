@@ -0,0 +1,81 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.cache.NearCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link ExpiringStore} keeping its values in process, for single-node deployments.
+ * <p>
+ * Values are kept in a {@link NearCache}, so a full store drops expired values first and then
+ * arbitrary ones. Stores whose values must not be dropped early, such as revocations, are created
+ * with an unbounded size instead, and expired values are swept every few thousand writes.
+ *
+ * @param <V> type of values
+ * @author zihluwang
+ */
+public class LocalExpiringStore<V> implements ExpiringStore<V> {
+
+    /**
+     * Count of writes between two sweeps of expired values.
+     */
+    private static final int SWEEP_INTERVAL = 4096;
+
+    private final NearCache<String, V> values;
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    /**
+     * Create a bounded local store.
+     *
+     * @param maximumSize maximum count of values
+     */
+    public LocalExpiringStore(int maximumSize) {
+        // every value is stored with its own time to live
+        this.values = new NearCache<>(maximumSize, Duration.ZERO);
+    }
+
+    /**
+     * Create a local store bounded only by the expiry of its values.
+     */
+    public LocalExpiringStore() {
+        this(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public V get(String key) {
+        return values.get(key);
+    }
+
+    @Override
+    public void set(String key, V value, Duration ttl) {
+        values.put(key, value, ttl);
+        if (writes.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            values.removeExpired();
+        }
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return Objects.nonNull(values.get(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        values.invalidate(key);
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        keys.forEach(values::invalidate);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        // there are no other nodes to tell
+    }
+
+}
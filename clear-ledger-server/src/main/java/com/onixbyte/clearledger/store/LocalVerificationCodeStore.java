@@ -0,0 +1,67 @@
+package com.onixbyte.clearledger.store;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link VerificationCodeStore} keeping codes in process, for single-node deployments.
+ * <p>
+ * The code and lock of an audience share one entry of an expiring map, which is replaced
+ * atomically. Expired entries are swept whenever the map has grown past a threshold.
+ *
+ * @author zihluwang
+ */
+public class LocalVerificationCodeStore implements VerificationCodeStore {
+
+    /**
+     * Count of entries above which expired entries are swept on every issue.
+     */
+    private static final int SWEEP_THRESHOLD = 1_024;
+
+    private final Map<String, IssuedCode> codes = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean issue(String audience, String code, Duration lockTtl, Duration codeTtl) {
+        var now = System.nanoTime();
+        if (codes.size() > SWEEP_THRESHOLD) {
+            codes.values().removeIf((issued) -> issued.isExpired(now));
+        }
+
+        var candidate = new IssuedCode(code, now + lockTtl.toNanos(), now + codeTtl.toNanos());
+        var issued = codes.compute(audience, (key, current) ->
+                Objects.nonNull(current) && current.lockExpiresAt() - now > 0 ? current : candidate);
+        return issued == candidate;
+    }
+
+    @Override
+    public void release(String audience, String code) {
+        codes.computeIfPresent(audience, (key, current) -> current.code().equals(code) ? null : current);
+    }
+
+    @Override
+    public String get(String audience) {
+        var issued = codes.get(audience);
+        if (Objects.isNull(issued) || issued.codeExpiresAt() - System.nanoTime() <= 0) {
+            return null;
+        }
+        return issued.code();
+    }
+
+    /**
+     * A code issued to an audience.
+     *
+     * @param code          the verification code
+     * @param lockExpiresAt when the audience may be issued another code, in {@link System#nanoTime()}
+     * @param codeExpiresAt when the code becomes invalid, in {@link System#nanoTime()}
+     */
+    private record IssuedCode(String code, long lockExpiresAt, long codeExpiresAt) {
+
+        boolean isExpired(long now) {
+            return lockExpiresAt - now <= 0 && codeExpiresAt - now <= 0;
+        }
+
+    }
+
+}
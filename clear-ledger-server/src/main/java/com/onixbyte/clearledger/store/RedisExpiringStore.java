@@ -0,0 +1,55 @@
+package com.onixbyte.clearledger.store;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * An {@link ExpiringStore} keeping its values on the cache server.
+ *
+ * @param <V> type of values
+ * @author zihluwang
+ */
+public class RedisExpiringStore<V> implements ExpiringStore<V> {
+
+    private final RedisTemplate<String, V> redisTemplate;
+
+    public RedisExpiringStore(RedisTemplate<String, V> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public V get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void set(String key, V value, Duration ttl) {
+        redisTemplate.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.delete(key);
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        redisTemplate.execute((connection) -> connection.publish(
+                channel.getBytes(StandardCharsets.UTF_8),
+                message.getBytes(StandardCharsets.UTF_8)), true);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.exception.BizException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link SerialCounter} kept on the cache server.
+ *
+ * @author zihluwang
+ */
+public class RedisSerialCounter implements SerialCounter {
+
+    /**
+     * Increment the counter by {@code ARGV[1]} unless it would reach {@code ARGV[2]}, and let it
+     * expire after {@code ARGV[3]} milliseconds unless it already expires. Returns {@code -1}
+     * without touching the counter if the increment is refused.
+     */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if current + tonumber(ARGV[1]) >= tonumber(ARGV[2]) then
+                return -1
+            end
+            local serial = redis.call('INCRBY', KEYS[1], ARGV[1])
+            if redis.call('PTTL', KEYS[1]) < 0 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            end
+            return serial
+            """, Long.class);
+
+    private final RedisTemplate<String, Long> serialCache;
+
+    public RedisSerialCounter(RedisTemplate<String, Long> serialCache) {
+        this.serialCache = serialCache;
+    }
+
+    @Override
+    public long increment(String key, long delta, long ceiling, Duration ttl) {
+        var serial = serialCache.execute(INCREMENT_SCRIPT, List.of(key), delta, ceiling, ttl.toMillis());
+        if (Objects.isNull(serial)) {
+            throw new BizException(HttpStatus.SERVICE_UNAVAILABLE, "无法获取序号，请稍后再试");
+        }
+        return serial;
+    }
+
+    @Override
+    public long remaining(String key, long ceiling) {
+        var value = Optional.ofNullable(serialCache.opsForValue().get(key)).orElse(0L);
+        return Math.max(0L, ceiling - 1 - value);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A {@link VerificationCodeStore} keeping codes and locks on the cache server, each under its own
+ * key.
+ *
+ * @author zihluwang
+ */
+public class RedisVerificationCodeStore implements VerificationCodeStore {
+
+    /**
+     * Take the lock {@code KEYS[1]} of an audience and store the code {@code ARGV[1]} under
+     * {@code KEYS[2]}, unless the lock is taken. The lock holds the code as well, so it can only be
+     * released together with the code it was taken for. Returns {@code 1} if the lock was taken.
+     */
+    private static final RedisScript<Long> ISSUE_CODE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[3])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * Release the lock {@code KEYS[1]} and the code {@code KEYS[2]} if they still hold the code
+     * {@code ARGV[1]}.
+     */
+    private static final RedisScript<Long> RELEASE_CODE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                redis.call('DEL', KEYS[1])
+            end
+            if redis.call('GET', KEYS[2]) == ARGV[1] then
+                redis.call('DEL', KEYS[2])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> verificationCodeCache;
+    private final CacheKeyComposer cacheKeyComposer;
+
+    public RedisVerificationCodeStore(RedisTemplate<String, String> verificationCodeCache,
+                                      CacheKeyComposer cacheKeyComposer) {
+        this.verificationCodeCache = verificationCodeCache;
+        this.cacheKeyComposer = cacheKeyComposer;
+    }
+
+    @Override
+    public boolean issue(String audience, String code, Duration lockTtl, Duration codeTtl) {
+        var issued = verificationCodeCache.execute(ISSUE_CODE_SCRIPT, getKeys(audience), code,
+                String.valueOf(lockTtl.toMillis()),
+                String.valueOf(codeTtl.toMillis()));
+        return Long.valueOf(1L).equals(issued);
+    }
+
+    @Override
+    public void release(String audience, String code) {
+        verificationCodeCache.execute(RELEASE_CODE_SCRIPT, getKeys(audience), code);
+    }
+
+    @Override
+    public String get(String audience) {
+        return verificationCodeCache.opsForValue()
+                .get(cacheKeyComposer.getVerificationCodeKey(audience));
+    }
+
+    private List<String> getKeys(String audience) {
+        return List.of(cacheKeyComposer.getVerificationLockKey(audience),
+                cacheKeyComposer.getVerificationCodeKey(audience));
+    }
+
+}
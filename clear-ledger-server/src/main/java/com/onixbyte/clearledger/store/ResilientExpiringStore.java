@@ -0,0 +1,151 @@
+package com.onixbyte.clearledger.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link ExpiringStore} guarded by a {@link CircuitBreaker}, for stores caching what can be
+ * loaded again.
+ * <p>
+ * While the store is unavailable every read is a miss, so callers load from the database, and
+ * writes are skipped. Evictions are not: deletions and messages that cannot be made are kept and
+ * replayed once the store recovers, so an entry evicted during an outage is not served again
+ * afterwards. Until they are replayed, every read of this node is a miss.
+ *
+ * @param <V> type of values
+ * @author zihluwang
+ */
+public class ResilientExpiringStore<V> implements ExpiringStore<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientExpiringStore.class);
+
+    private final ExpiringStore<V> delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * Orders the pending evictions, so one made again while it is replayed stays pending.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Keys whose deletion failed, with the sequence of their latest failure.
+     */
+    private final Map<String, Long> pendingDeletions = new ConcurrentHashMap<>();
+
+    /**
+     * Messages whose publication failed, with the sequence of their latest failure.
+     */
+    private final Map<PendingMessage, Long> pendingMessages = new ConcurrentHashMap<>();
+
+    public ResilientExpiringStore(ExpiringStore<V> delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public V get(String key) {
+        if (!replayEvictions()) {
+            return null;
+        }
+        return circuitBreaker.execute(() -> delegate.get(key), () -> null);
+    }
+
+    @Override
+    public void set(String key, V value, Duration ttl) {
+        circuitBreaker.run(() -> delegate.set(key, value, ttl), () -> {
+        });
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        if (!replayEvictions()) {
+            return false;
+        }
+        return circuitBreaker.execute(() -> delegate.hasKey(key), () -> false);
+    }
+
+    @Override
+    public void delete(String key) {
+        circuitBreaker.run(() -> delegate.delete(key), () -> pendingDeletions.put(key, sequence.incrementAndGet()));
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        circuitBreaker.run(() -> delegate.delete(keys), () -> {
+            var failedAt = sequence.incrementAndGet();
+            keys.forEach((key) -> pendingDeletions.put(key, failedAt));
+        });
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        circuitBreaker.run(() -> delegate.publish(channel, message),
+                () -> pendingMessages.put(new PendingMessage(channel, message), sequence.incrementAndGet()));
+    }
+
+    /**
+     * Replay the evictions that failed, without waiting for the next read.
+     */
+    @Scheduled(fixedDelay = 1_000L)
+    public void replayPendingEvictions() {
+        replayEvictions();
+    }
+
+    /**
+     * Replay the evictions that failed, deletions first so other nodes told to drop an entry do
+     * not load it again from this store.
+     *
+     * @return {@code true} if no eviction is pending any more
+     */
+    private boolean replayEvictions() {
+        if (pendingDeletions.isEmpty() && pendingMessages.isEmpty()) {
+            return true;
+        }
+
+        var deletions = Map.copyOf(pendingDeletions);
+        if (!deletions.isEmpty()) {
+            var keys = List.copyOf(deletions.keySet());
+            if (!circuitBreaker.execute(() -> {
+                delegate.delete(keys);
+                return true;
+            }, () -> false)) {
+                return false;
+            }
+            deletions.forEach(pendingDeletions::remove);
+        }
+
+        var messages = Map.copyOf(pendingMessages);
+        for (var entry : messages.entrySet()) {
+            var message = entry.getKey();
+            if (!circuitBreaker.execute(() -> {
+                delegate.publish(message.channel(), message.message());
+                return true;
+            }, () -> false)) {
+                return false;
+            }
+            pendingMessages.remove(message, entry.getValue());
+        }
+
+        log.info("Replayed {} deletions and {} messages that failed while circuit {} was open.",
+                deletions.size(), messages.size(), circuitBreaker.getName());
+        return pendingDeletions.isEmpty() && pendingMessages.isEmpty();
+    }
+
+    /**
+     * A message whose publication failed.
+     *
+     * @param channel the channel
+     * @param message the message
+     */
+    private record PendingMessage(String channel, String message) {
+    }
+
+}
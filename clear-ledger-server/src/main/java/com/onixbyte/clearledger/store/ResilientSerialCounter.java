@@ -0,0 +1,60 @@
+package com.onixbyte.clearledger.store;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A {@link SerialCounter} on the cache server guarded by a {@link CircuitBreaker}, counting in the
+ * database while the cache server is unavailable.
+ * <p>
+ * The two counters never meet: serials counted in the database start from the fallback floor, and
+ * serials counted on the cache server must stay below it. The floor is therefore the daily
+ * capacity of the cache server as well: with a ceiling of 10000 and a floor of 9000, the cache
+ * server refuses increments past 8999 even if the database has never been used that day, and the
+ * database issues serials 9000 to 9999 only.
+ *
+ * @author zihluwang
+ */
+public class ResilientSerialCounter implements SerialCounter {
+
+    private final SerialCounter primary;
+    private final SerialCounter fallback;
+    private final CircuitBreaker circuitBreaker;
+    private final long fallbackFloor;
+
+    /**
+     * Create a resilient serial counter.
+     *
+     * @param primary        the counter on the cache server
+     * @param fallback       the counter in the database
+     * @param circuitBreaker circuit breaker guarding the counter on the cache server
+     * @param fallbackFloor  the first serial counted in the database
+     */
+    public ResilientSerialCounter(SerialCounter primary,
+                                  SerialCounter fallback,
+                                  CircuitBreaker circuitBreaker,
+                                  long fallbackFloor) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackFloor = fallbackFloor;
+    }
+
+    @Override
+    public long increment(String key, long delta, long ceiling, Duration ttl) {
+        var serial = circuitBreaker.execute(() -> primary.increment(key, delta, Math.min(ceiling, fallbackFloor), ttl), () -> null);
+        if (Objects.nonNull(serial)) {
+            return serial;
+        }
+
+        var counted = fallback.increment(key, delta, ceiling - fallbackFloor + 1, ttl);
+        return counted == REFUSED ? REFUSED : fallbackFloor - 1 + counted;
+    }
+
+    @Override
+    public long remaining(String key, long ceiling) {
+        var remaining = circuitBreaker.execute(() -> primary.remaining(key, Math.min(ceiling, fallbackFloor)), () -> null);
+        return Objects.isNull(remaining) ? fallback.remaining(key, ceiling - fallbackFloor + 1) : remaining;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+
+/**
+ * A {@link VerificationCodeStore} guarded by a {@link CircuitBreaker}.
+ * <p>
+ * Codes cannot be kept anywhere else, so while the store is unavailable, requests issuing or
+ * checking codes are refused at once with a suggestion to retry. Releasing a code is skipped; the
+ * code expires on its own.
+ *
+ * @author zihluwang
+ */
+public class ResilientVerificationCodeStore implements VerificationCodeStore {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final VerificationCodeStore delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    public ResilientVerificationCodeStore(VerificationCodeStore delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public boolean issue(String audience, String code, Duration lockTtl, Duration codeTtl) {
+        return circuitBreaker.execute(() -> delegate.issue(audience, code, lockTtl, codeTtl), () -> {
+            throw new ServiceUnavailableException("服务器繁忙，请稍后再试", RETRY_AFTER);
+        });
+    }
+
+    @Override
+    public void release(String audience, String code) {
+        circuitBreaker.run(() -> delegate.release(audience, code), () -> {
+        });
+    }
+
+    @Override
+    public String get(String audience) {
+        return circuitBreaker.execute(() -> delegate.get(audience), () -> {
+            throw new ServiceUnavailableException("服务器繁忙，请稍后再试", RETRY_AFTER);
+        });
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.onixbyte.clearledger.store;
+
+import java.time.Duration;
+
+/**
+ * An atomic counter of serials shared by all nodes of a deployment.
+ *
+ * @author zihluwang
+ */
+public interface SerialCounter {
+
+    /**
+     * Returned by {@link #increment} instead of a value when the increment is refused.
+     */
+    long REFUSED = -1L;
+
+    /**
+     * Increment the counter of the given key, unless the value would reach the given ceiling. A
+     * refused increment leaves the counter unchanged, so later, smaller increments may still
+     * succeed. A counter that does not exist yet, or has expired, starts from zero and expires
+     * after the given time to live; incrementing it does not extend its expiry.
+     *
+     * @param key     the key of the counter
+     * @param delta   amount to add
+     * @param ceiling the value the counter must stay below
+     * @param ttl     time to live of a new counter
+     * @return the value of the counter after the increment, or {@link #REFUSED}
+     */
+    long increment(String key, long delta, long ceiling, Duration ttl);
+
+    /**
+     * Get how much the counter of the given key can still be incremented by before it reaches the
+     * given ceiling. A counter that does not exist yet, or has expired, counts as zero.
+     *
+     * @param key     the key of the counter
+     * @param ceiling the value the counter must stay below
+     * @return the largest delta an increment would be accepted with, zero if none
+     */
+    long remaining(String key, long ceiling);
+
+}
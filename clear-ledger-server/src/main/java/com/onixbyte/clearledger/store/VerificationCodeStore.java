@@ -0,0 +1,41 @@
+package com.onixbyte.clearledger.store;
+
+import java.time.Duration;
+
+/**
+ * A store of verification codes, each guarded by a lock limiting how often an audience is sent a
+ * code.
+ *
+ * @author zihluwang
+ */
+public interface VerificationCodeStore {
+
+    /**
+     * Take the lock of the audience and store the code, unless the lock is taken. Both happen
+     * atomically, so concurrent requests of an audience never issue two codes.
+     *
+     * @param audience email address of the audience
+     * @param code     the verification code
+     * @param lockTtl  how long the audience has to wait before another code is issued
+     * @param codeTtl  how long the code stays valid
+     * @return {@code true} if the code was issued
+     */
+    boolean issue(String audience, String code, Duration lockTtl, Duration codeTtl);
+
+    /**
+     * Release the lock and the code of the audience if they still belong to the given code.
+     *
+     * @param audience email address of the audience
+     * @param code     the verification code
+     */
+    void release(String audience, String code);
+
+    /**
+     * Get the valid code of the audience.
+     *
+     * @param audience email address of the audience
+     * @return the code, or {@code null} if there is none
+     */
+    String get(String audience);
+
+}
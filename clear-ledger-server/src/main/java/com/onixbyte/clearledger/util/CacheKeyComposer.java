@@ -1,8 +1,11 @@
 package com.onixbyte.clearledger.util;
 
+import com.onixbyte.clearledger.common.Formatters;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+
 @Component
 public final class CacheKeyComposer {
 
@@ -24,8 +27,32 @@ public final class CacheKeyComposer {
         return "%s:user:%s".formatted(appName, username);
     }
 
-    public String getSerialKey(String tag) {
-        return "%s:serial:%s".formatted(appName, tag);
+    public String getUserInvalidationChannel() {
+        return "%s:user-invalidation".formatted(appName);
+    }
+
+    public String getRevokedTokenKey(String digest) {
+        return "%s:token:revoked:%s".formatted(appName, digest);
+    }
+
+    public String getTokenRevocationChannel() {
+        return "%s:token-revocation".formatted(appName);
+    }
+
+    public String getLedgerExistsKey(String ledgerId) {
+        return "%s:ledger:%s:exists".formatted(appName, ledgerId);
+    }
+
+    public String getLedgerRoleKey(String ledgerId, String userId) {
+        return "%s:ledger:%s:role:%s".formatted(appName, ledgerId, userId);
+    }
+
+    public String getLedgerInvalidationChannel() {
+        return "%s:ledger-invalidation".formatted(appName);
+    }
+
+    public String getSerialKey(String tag, LocalDate date) {
+        return "%s:serial:%s:%s".formatted(appName, tag, date.format(Formatters.SHORTENED_DATE_FORMATTER));
     }
 
 }
@@ -0,0 +1,93 @@
+package com.onixbyte.clearledger.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utilities to read and write comma-separated values as described in RFC 4180.
+ *
+ * @author zihluwang
+ */
+public final class CsvUtil {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private CsvUtil() {
+    }
+
+    /**
+     * Escape a field. Fields containing commas, quotes or line breaks are quoted, and the quotes
+     * inside are doubled. A {@code null} value becomes an empty field.
+     *
+     * @param value the field value
+     * @return the escaped field
+     */
+    public static String escape(Object value) {
+        if (Objects.isNull(value)) {
+            return "";
+        }
+
+        var text = value.toString();
+        for (var i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Read the next record. Quoted fields may contain commas, doubled quotes and line breaks.
+     *
+     * @param reader the reader to read from
+     * @return fields of the next record, or {@code null} if the end of input has been reached
+     * @throws IOException if reading fails
+     */
+    public static List<String> readRecord(BufferedReader reader) throws IOException {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        var empty = true;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        // an escaped quote
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        if (empty) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+}
@@ -0,0 +1,91 @@
+-- Baseline schema. Databases created by the scripts in clear-ledger-database are baselined at
+-- this version instead of running it.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id         VARCHAR(32) PRIMARY KEY,
+    username   VARCHAR(50) UNIQUE  NOT NULL,
+    password   VARCHAR(255)        NOT NULL,
+    email      VARCHAR(100) UNIQUE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS ledgers
+(
+    id          VARCHAR(32) PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL,
+    description TEXT,
+    created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS user_ledgers
+(
+    user_id   VARCHAR(32) REFERENCES users (id),
+    ledger_id VARCHAR(32) REFERENCES ledgers (id),
+    role      VARCHAR(50) NOT NULL, -- e.g., 'owner', 'member'
+    joined_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, ledger_id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions
+(
+    id               VARCHAR(32) PRIMARY KEY,
+    ledger_id        VARCHAR(32) REFERENCES ledgers (id),
+    user_id          VARCHAR(32) REFERENCES users (id),
+    amount           INTEGER   NOT NULL,
+    description      TEXT,
+    transaction_date TIMESTAMP NOT NULL,
+    created_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    description_tsv  TSVECTOR GENERATED ALWAYS AS (TO_TSVECTOR('simple', COALESCE(description, ''))) STORED
+);
+
+-- Full-text matches of whole words, and substring matches for text without word boundaries.
+CREATE INDEX IF NOT EXISTS idx_transactions_description_tsv ON transactions USING GIN (description_tsv);
+CREATE INDEX IF NOT EXISTS idx_transactions_description_trgm ON transactions USING GIN (description gin_trgm_ops);
+
+CREATE VIEW view_transactions AS
+SELECT t.id,
+       t.ledger_id,
+       t.user_id,
+       u.username,
+       t.amount,
+       t.description,
+       t.transaction_date,
+       t.created_at
+FROM transactions t
+         LEFT JOIN users u on t.user_id = u.id;
+
+-- Rollups of transactions, maintained in the same database transaction as every write to
+-- `transactions`. Expenses are stored as positive sums of the negative amounts.
+CREATE TABLE IF NOT EXISTS ledger_balances
+(
+    ledger_id         VARCHAR(32) PRIMARY KEY REFERENCES ledgers (id),
+    income            BIGINT NOT NULL DEFAULT 0,
+    expense           BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    updated_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS ledger_daily_summaries
+(
+    ledger_id         VARCHAR(32) REFERENCES ledgers (id),
+    user_id           VARCHAR(32) REFERENCES users (id),
+    summary_date      DATE   NOT NULL,
+    income            BIGINT NOT NULL DEFAULT 0,
+    expense           BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (ledger_id, summary_date, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS ledger_monthly_summaries
+(
+    ledger_id         VARCHAR(32) REFERENCES ledgers (id),
+    user_id           VARCHAR(32) REFERENCES users (id),
+    summary_month     DATE   NOT NULL, -- the first day of the month
+    income            BIGINT NOT NULL DEFAULT 0,
+    expense           BIGINT NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (ledger_id, summary_month, user_id)
+);
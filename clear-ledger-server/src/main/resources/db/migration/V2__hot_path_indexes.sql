@@ -0,0 +1,11 @@
+-- Listings, cursors, exports and raw report edges of a ledger filter by ledger and order or range
+-- by transaction date and id. A b-tree is read in both directions, so this index serves the
+-- descending listings as well as the ascending export.
+CREATE INDEX IF NOT EXISTS idx_transactions_ledger_date_id ON transactions (ledger_id, transaction_date, id);
+
+-- Deleting or leaving a ledger filters memberships by ledger only, lookups by user are already
+-- served by the primary key (user_id, ledger_id).
+CREATE INDEX IF NOT EXISTS idx_user_ledgers_ledger_id ON user_ledgers (ledger_id);
+
+-- Ledger names are checked for uniqueness when a ledger is created or renamed.
+CREATE INDEX IF NOT EXISTS idx_ledgers_name ON ledgers (name);
@@ -0,0 +1,50 @@
+-- Partition transactions by month of transaction_date. The existing table becomes the default
+-- partition without copying any rows, TransactionPartitionService then moves its rows into
+-- monthly partitions one month at a time and creates the partitions of upcoming months.
+DROP VIEW IF EXISTS view_transactions;
+
+ALTER TABLE transactions RENAME TO transactions_default;
+ALTER INDEX idx_transactions_ledger_date_id RENAME TO transactions_default_ledger_date_id_idx;
+ALTER INDEX idx_transactions_description_tsv RENAME TO transactions_default_description_tsv_idx;
+ALTER INDEX idx_transactions_description_trgm RENAME TO transactions_default_description_trgm_idx;
+
+-- The primary key of a partitioned table must contain the partition key. The index built by V3
+-- becomes the new primary key without scanning the table, so the exclusive lock of this migration
+-- is held only briefly. From here on nothing in the database keeps id unique on its own across
+-- partitions: that relies on the id creators, which put the day of creation and a daily serial or
+-- the node and time of creation into every id.
+ALTER TABLE transactions_default
+    DROP CONSTRAINT transactions_pkey,
+    ADD CONSTRAINT transactions_default_pkey PRIMARY KEY USING INDEX transactions_id_date_key;
+
+CREATE TABLE transactions
+(
+    id               VARCHAR(32) NOT NULL,
+    ledger_id        VARCHAR(32) REFERENCES ledgers (id),
+    user_id          VARCHAR(32) REFERENCES users (id),
+    amount           INTEGER   NOT NULL,
+    description      TEXT,
+    transaction_date TIMESTAMP NOT NULL,
+    created_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    description_tsv  TSVECTOR GENERATED ALWAYS AS (TO_TSVECTOR('simple', COALESCE(description, ''))) STORED,
+    PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+ALTER TABLE transactions ATTACH PARTITION transactions_default DEFAULT;
+
+-- partitioned indexes adopt the matching indexes of the default partition instead of rebuilding them
+CREATE INDEX idx_transactions_ledger_date_id ON transactions (ledger_id, transaction_date, id);
+CREATE INDEX idx_transactions_description_tsv ON transactions USING GIN (description_tsv);
+CREATE INDEX idx_transactions_description_trgm ON transactions USING GIN (description gin_trgm_ops);
+
+CREATE VIEW view_transactions AS
+SELECT t.id,
+       t.ledger_id,
+       t.user_id,
+       u.username,
+       t.amount,
+       t.description,
+       t.transaction_date,
+       t.created_at
+FROM transactions t
+         LEFT JOIN users u on t.user_id = u.id;
@@ -0,0 +1,6 @@
+-- Build the index of the primary key of the partitioned transactions ahead of partitioning, without
+-- blocking writes. Flyway runs a migration of concurrent index builds outside a transaction; an
+-- interrupted build leaves an invalid index behind, which is dropped when the migration is
+-- repeated.
+DROP INDEX CONCURRENTLY IF EXISTS transactions_id_date_key;
+CREATE UNIQUE INDEX CONCURRENTLY transactions_id_date_key ON transactions (id, transaction_date);
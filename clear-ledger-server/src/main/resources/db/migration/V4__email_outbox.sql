@@ -0,0 +1,27 @@
+-- Emails waiting to be sent, written by EmailService and drained by EmailOutboxDispatcher. A row
+-- is pending until a dispatcher claims it, sending while claimed, then sent or, once out of
+-- attempts, failed. A claim expires at locked_until, so rows of a dispatcher that died are claimed
+-- again.
+CREATE TABLE IF NOT EXISTS email_outbox
+(
+    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    audience        VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    content         TEXT         NOT NULL,
+    rich_text       BOOLEAN      NOT NULL DEFAULT FALSE,
+    status          VARCHAR(16)  NOT NULL DEFAULT 'pending',
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until    TIMESTAMP,
+    last_error      TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at         TIMESTAMP
+);
+
+-- Dispatchers only look for unsent rows, which stay few however many rows have been sent.
+CREATE INDEX IF NOT EXISTS idx_email_outbox_unsent ON email_outbox (next_attempt_at)
+    WHERE status IN ('pending', 'sending');
+
+-- Sent rows are purged by age.
+CREATE INDEX IF NOT EXISTS idx_email_outbox_sent_at ON email_outbox (sent_at)
+    WHERE status = 'sent';
@@ -0,0 +1,9 @@
+-- Daily serial counters of single-node deployments running the embedded profile, which keep them
+-- here instead of on the cache server. An expired counter is restarted by the next increment and
+-- purged daily by JdbcSerialCounter.
+CREATE TABLE IF NOT EXISTS serial_counter
+(
+    key        VARCHAR(255) PRIMARY KEY,
+    value      BIGINT    NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
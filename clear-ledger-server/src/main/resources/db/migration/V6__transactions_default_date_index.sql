@@ -0,0 +1,4 @@
+-- Partition maintenance looks up the months still kept by the default partition one index probe
+-- at a time instead of scanning all of its rows. Built concurrently, so Flyway runs this
+-- migration outside a transaction and writers are not blocked.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS transactions_default_transaction_date_idx ON transactions_default (transaction_date);
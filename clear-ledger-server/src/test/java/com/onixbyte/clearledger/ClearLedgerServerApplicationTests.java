@@ -5,7 +5,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
-@ActiveProfiles({"dev", "db", "jwt"})
+@ActiveProfiles({"dev", "db", "jwt", "embedded"})
 class ClearLedgerServerApplicationTests {
 
     @Test
@@ -0,0 +1,52 @@
+package com.onixbyte.clearledger.cache.codec;
+
+import com.onixbyte.clearledger.data.dto.BizUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryRedisSerializerTests {
+
+    private final BizUser user = BizUser.builder()
+            .id("U250101000001")
+            .username("alice")
+            .email("alice@example.com")
+            .build();
+
+    private final Jackson2JsonRedisSerializer<BizUser> json = new Jackson2JsonRedisSerializer<>(BizUser.class);
+    private final BinaryRedisSerializer<BizUser> binary = new BinaryRedisSerializer<>(new BizUserCodec(), json);
+
+    @Test
+    void roundTripsSmallerThanJson() {
+        var payload = binary.serialize(user);
+
+        assertEquals(user, binary.deserialize(payload));
+        assertTrue(payload.length < json.serialize(user).length);
+    }
+
+    @Test
+    void roundTripsAbsentFields() {
+        var absent = BizUser.builder()
+                .username("nobody")
+                .build();
+
+        assertEquals(absent, binary.deserialize(binary.serialize(absent)));
+    }
+
+    @Test
+    void readsJsonWrittenBefore() {
+        assertEquals(user, binary.deserialize(json.serialize(user)));
+    }
+
+    @Test
+    void readsNewerVersionsAsAbsent() {
+        var payload = binary.serialize(user);
+        payload[1] = 2;
+
+        assertNull(binary.deserialize(payload));
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.onixbyte.clearledger.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTests {
+
+    private DataSource target;
+    private Connection connection;
+    private BulkheadDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new BulkheadDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void callersBeyondTheLimitFailFast() throws SQLException {
+        var first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        dataSource.getConnection();
+        verify(target, times(3)).getConnection();
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    void closingTwiceReturnsOnePermit() throws SQLException {
+        var first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        first.close();
+        first.close();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void failedConnectionsReturnTheirPermits() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("refused"));
+
+        for (var i = 0; i < 3; i++) {
+            assertThrows(SQLException.class, dataSource::getConnection);
+        }
+
+        verify(target, times(3)).getConnection();
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.onixbyte.clearledger.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTests {
+
+    private final AtomicReference<String> currentUser = new AtomicReference<>();
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() throws SQLException {
+        var dataSource = create(Duration.ZERO);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        readOnlyTransaction();
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void failedReplicaFallsBackToPrimaryAndIsSkipped() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("replica is down"));
+        var dataSource = create(Duration.ZERO);
+
+        readOnlyTransaction();
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        // the replica is not asked again within the retry interval
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void readsStickToPrimaryAfterWrite() throws SQLException {
+        var dataSource = create(Duration.ofMinutes(1));
+        currentUser.set("U250101000001");
+
+        writeTransaction();
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        readOnlyTransaction();
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        // other users still read from the replica
+        currentUser.set("U250101000002");
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void primaryReadsDoNotMakeUsersSticky() throws SQLException {
+        var dataSource = create(Duration.ofMinutes(1));
+        currentUser.set("U250101000001");
+
+        readOnlyTransaction();
+        assertSame(primaryConnection, ReplicaRoutingDataSource.readFromPrimary(() -> getConnection(dataSource)));
+
+        // the user still reads from the replica afterwards
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    private ReplicaRoutingDataSource create(Duration stickyWindow) {
+        return new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMinutes(1), stickyWindow, currentUser::get);
+    }
+
+    private static Connection getConnection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private static void writeTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.onixbyte.clearledger.executor;
+
+import com.onixbyte.clearledger.configuration.property.ConcurrentProperty;
+import com.onixbyte.clearledger.constant.QueueType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutorRegistryTests {
+
+    private ConcurrentProperty concurrentProperty;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        concurrentProperty = new ConcurrentProperty();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void rejectedTasksAreCounted() throws Exception {
+        var io = concurrentProperty.getIo();
+        io.setCoreSize(1);
+        io.setMaxSize(1);
+        io.setQueueType(QueueType.SYNCHRONOUS);
+        var executorRegistry = new ExecutorRegistry(concurrentProperty, false, meterRegistry);
+
+        var release = new CountDownLatch(1);
+        var threadName = executorRegistry.get(ExecutorRegistry.IO).submit(() -> {
+            release.await();
+            return Thread.currentThread().getName();
+        });
+        assertThrows(RejectedExecutionException.class, () -> executorRegistry.get(ExecutorRegistry.IO).execute(() -> {
+        }));
+        release.countDown();
+
+        assertEquals("io-1", threadName.get(1, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("executor.rejected").tag("name", "io").counter().count());
+        executorRegistry.destroy();
+    }
+
+    @Test
+    void shutdownWaitsForRunningTasks() {
+        var executorRegistry = new ExecutorRegistry(concurrentProperty, false, meterRegistry);
+
+        var finished = new AtomicBoolean();
+        executorRegistry.get(ExecutorRegistry.TASK).execute(() -> {
+            try {
+                Thread.sleep(200);
+                finished.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executorRegistry.destroy();
+
+        assertTrue(finished.get());
+    }
+
+    @Test
+    void virtualThreadModeKeepsTaskPoolOnPlatformThreads() throws Exception {
+        var executorRegistry = new ExecutorRegistry(concurrentProperty, true, meterRegistry);
+
+        assertTrue(executorRegistry.get(ExecutorRegistry.IO).submit(() -> Thread.currentThread().isVirtual()).get());
+        assertFalse(executorRegistry.get(ExecutorRegistry.TASK).submit(() -> Thread.currentThread().isVirtual()).get());
+        executorRegistry.destroy();
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.onixbyte.clearledger.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.onixbyte.clearledger.data.entity.table.LedgerTableDef;
+import com.onixbyte.clearledger.data.entity.table.UserLedgerTableDef;
+import com.onixbyte.clearledger.data.entity.table.ViewTransactionTableDef;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mybatisflex.core.query.QueryMethods.count;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Asserts that the queries on the hot paths of {@code TransactionService} and
+ * {@code LedgerService} are planned with index scans. Sequential scans are disabled for each
+ * {@code EXPLAIN}, so a query still planned with one has no usable index, whatever the size of
+ * the test tables.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "db", "jwt"})
+class QueryPlanTests {
+
+    private static final String LEDGER_ID = "100000000001";
+    private static final String USER_ID = "200000000001";
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void transactionsAfterCursorUseIndexes() throws Exception {
+        assertStatementUsesIndexes(TransactionRepository.class, "selectViewTransactionsAfter", params(
+                "ledgerId", LEDGER_ID,
+                "dateStart", LocalDateTime.of(2025, 1, 1, 0, 0),
+                "dateEnd", LocalDateTime.of(2025, 12, 31, 23, 59, 59),
+                "pattern", null,
+                "cursorDate", LocalDateTime.of(2025, 6, 1, 12, 0),
+                "cursorId", "T250601000001",
+                "limit", 11L));
+    }
+
+    @Test
+    void transactionSearchUsesIndexes() throws Exception {
+        assertStatementUsesIndexes(TransactionRepository.class, "searchViewTransactions", params(
+                "ledgerId", LEDGER_ID,
+                "keyword", "coffee",
+                "pattern", "%coffee%",
+                "cursorRank", null,
+                "cursorDate", null,
+                "cursorId", null,
+                "limit", 21L));
+        assertStatementUsesIndexes(TransactionRepository.class, "searchViewTransactions", params(
+                "ledgerId", LEDGER_ID,
+                "keyword", "coffee",
+                "pattern", "%coffee%",
+                "cursorRank", 0.5D,
+                "cursorDate", LocalDateTime.of(2025, 6, 1, 12, 0),
+                "cursorId", "T250601000001",
+                "limit", 21L));
+    }
+
+    @Test
+    void defaultPartitionMonthsUseIndexes() throws Exception {
+        assertStatementUsesIndexes(TransactionPartitionRepository.class, "selectNextDefaultMonth", params(
+                "from", LocalDate.of(2025, 3, 1)));
+    }
+
+    @Test
+    void transactionExportCursorUsesIndexes() throws Exception {
+        assertStatementUsesIndexes(TransactionRepository.class, "selectViewTransactionCursor", params(
+                "ledgerId", LEDGER_ID));
+    }
+
+    @Test
+    void transactionPageUsesIndexes() throws Exception {
+        var table = ViewTransactionTableDef.VIEW_TRANSACTION;
+        assertUsesIndexes(QueryWrapper.create()
+                .from(table)
+                .where(table.LEDGER_ID.eq(LEDGER_ID))
+                .orderBy(table.TRANSACTION_DATE, false)
+                .limit(10)
+                .toSQL());
+    }
+
+    @Test
+    void rawReportEdgesUseIndexes() throws Exception {
+        assertStatementUsesIndexes(LedgerSummaryRepository.class, "selectRawBuckets", params(
+                "ledgerId", LEDGER_ID,
+                "start", LocalDateTime.of(2025, 3, 1, 12, 0),
+                "end", LocalDateTime.of(2025, 3, 2, 0, 0)));
+        assertStatementUsesIndexes(LedgerSummaryRepository.class, "selectDailyBuckets", params(
+                "ledgerId", LEDGER_ID,
+                "dateStart", LocalDate.of(2025, 3, 2),
+                "dateEnd", LocalDate.of(2025, 4, 1)));
+    }
+
+    @Test
+    void permissionChecksUseIndexes() throws Exception {
+        assertStatementUsesIndexes(UserLedgerRepository.class, "selectRole", params(
+                "userId", USER_ID,
+                "ledgerId", LEDGER_ID));
+        assertStatementUsesIndexes(LedgerRepository.class, "hasLedger", params(
+                "ledgerId", LEDGER_ID));
+
+        var table = UserLedgerTableDef.USER_LEDGER;
+        assertUsesIndexes(QueryWrapper.create()
+                .select(count())
+                .from(table)
+                .where(table.USER_ID.eq(USER_ID))
+                .and(table.LEDGER_ID.eq(LEDGER_ID))
+                .toSQL());
+    }
+
+    @Test
+    void ledgerListingsUseIndexes() throws Exception {
+        assertStatementUsesIndexes(UserLedgerRepository.class, "selectJoinedLedgers", params(
+                "userId", USER_ID));
+
+        var userLedger = UserLedgerTableDef.USER_LEDGER;
+        assertUsesIndexes(QueryWrapper.create()
+                .select(count())
+                .from(userLedger)
+                .where(userLedger.LEDGER_ID.eq(LEDGER_ID))
+                .toSQL());
+
+        var ledger = LedgerTableDef.LEDGER;
+        assertUsesIndexes(QueryWrapper.create()
+                .select(count())
+                .from(ledger)
+                .where(ledger.NAME.eq("Household"))
+                .toSQL());
+    }
+
+    private void assertStatementUsesIndexes(Class<?> mapper, String method, Map<String, Object> params) throws Exception {
+        var statement = sqlSessionFactory.getConfiguration()
+                .getMappedStatement(mapper.getName() + "." + method);
+        var boundSql = statement.getBoundSql(params);
+        var args = boundSql.getParameterMappings()
+                .stream()
+                .map((mapping) -> boundSql.hasAdditionalParameter(mapping.getProperty())
+                        ? boundSql.getAdditionalParameter(mapping.getProperty())
+                        : params.get(mapping.getProperty()))
+                .toArray();
+        assertUsesIndexes(boundSql.getSql(), args);
+    }
+
+    private void assertUsesIndexes(String sql, Object... args) throws Exception {
+        var plan = transactionTemplate.execute((status) -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            return jdbcTemplate.queryForObject("explain (format json) " + sql, String.class, args);
+        });
+
+        var scans = new ArrayList<JsonNode>();
+        collectScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        assertFalse(scans.isEmpty(), () -> "No table is scanned in plan:\n" + plan);
+        for (var scan : scans) {
+            assertNotEquals("Seq Scan", scan.get("Node Type").asText(),
+                    () -> "Sequential scan on " + scan.get("Relation Name").asText() + " in plan:\n" + plan);
+        }
+    }
+
+    private static void collectScans(JsonNode node, List<JsonNode> scans) {
+        if (node.has("Relation Name")) {
+            scans.add(node);
+        }
+        if (node.has("Plans")) {
+            node.get("Plans").forEach((child) -> collectScans(child, scans));
+        }
+    }
+
+    private static Map<String, Object> params(Object... keyValues) {
+        var params = new HashMap<String, Object>();
+        for (var i = 0; i < keyValues.length; i += 2) {
+            params.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return params;
+    }
+
+}
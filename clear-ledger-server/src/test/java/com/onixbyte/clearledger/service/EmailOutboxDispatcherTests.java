@@ -0,0 +1,107 @@
+package com.onixbyte.clearledger.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.onixbyte.clearledger.configuration.property.EmailOutboxProperty;
+import com.onixbyte.clearledger.configuration.property.EmailProperty;
+import com.onixbyte.clearledger.data.dto.OutboxEmail;
+import com.onixbyte.clearledger.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTests {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxRepository emailOutboxRepository;
+    private EmailOutboxProperty emailOutboxProperty;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository = mock(EmailOutboxRepository.class);
+        emailOutboxProperty = new EmailOutboxProperty();
+        meterRegistry = new SimpleMeterRegistry();
+        emailOutboxDispatcher = createDispatcher(ServerSetupTest.SMTP.getPort());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drainsBatchOverSmtp() {
+        when(emailOutboxRepository.claim(anyInt(), anyLong())).thenReturn(List.of(
+                new OutboxEmail(1L, "alice@example.com", "[Clear Ledger] 验证码", "<p>123456</p>", true, 1),
+                new OutboxEmail(2L, "bob@example.com", "[Clear Ledger] 验证码", "<p>234567</p>", true, 1),
+                new OutboxEmail(3L, "carol@example.com", "Hello", "plain", false, 1)));
+
+        emailOutboxDispatcher.drain();
+
+        assertEquals(3, greenMail.getReceivedMessages().length);
+        ArgumentCaptor<List<Long>> sentIds = ArgumentCaptor.forClass(List.class);
+        verify(emailOutboxRepository).markSent(sentIds.capture());
+        assertEquals(List.of(1L, 2L, 3L), sentIds.getValue().stream().sorted().toList());
+        verify(emailOutboxRepository, never()).markFailed(any(), anyString(), any(), eq(false));
+        assertEquals(3D, meterRegistry.get("email.outbox.sent").counter().count());
+    }
+
+    @Test
+    void backsOffExponentiallyUpToMaximum() {
+        emailOutboxProperty.setInitialBackoff(Duration.ofSeconds(30));
+        emailOutboxProperty.setMaxBackoff(Duration.ofMinutes(5));
+
+        assertEquals(Duration.ofSeconds(30), emailOutboxDispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(60), emailOutboxDispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(240), emailOutboxDispatcher.backoff(4));
+        assertEquals(Duration.ofMinutes(5), emailOutboxDispatcher.backoff(5));
+        assertEquals(Duration.ofMinutes(5), emailOutboxDispatcher.backoff(30));
+    }
+
+    @Test
+    void unreachableServerSchedulesRetry() {
+        // nothing listens on the port right below the test server
+        emailOutboxDispatcher = createDispatcher(ServerSetupTest.SMTP.getPort() - 1);
+        when(emailOutboxRepository.claim(anyInt(), anyLong()))
+                .thenReturn(List.of(new OutboxEmail(1L, "alice@example.com", "Hello", "plain", false, 1)));
+
+        emailOutboxDispatcher.drain();
+
+        verify(emailOutboxRepository, never()).markSent(any());
+        verify(emailOutboxRepository).markFailed(eq(1L), anyString(), any(LocalDateTime.class), eq(false));
+        assertEquals(1D, meterRegistry.get("email.outbox.retried").counter().count());
+    }
+
+    private EmailOutboxDispatcher createDispatcher(int port) {
+        var mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+
+        var emailProperty = new EmailProperty();
+        emailProperty.setFrom("noreply@example.com");
+        emailProperty.setSender("Clear Ledger");
+
+        return new EmailOutboxDispatcher(emailOutboxRepository, mailSender, emailProperty,
+                emailOutboxProperty, mock(ExecutorService.class), meterRegistry);
+    }
+
+}
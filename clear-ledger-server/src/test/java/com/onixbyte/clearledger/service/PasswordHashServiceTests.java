@@ -0,0 +1,86 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.ConcurrentConfig;
+import com.onixbyte.clearledger.configuration.property.ConcurrentProperty;
+import com.onixbyte.clearledger.configuration.property.PasswordHashProperty;
+import com.onixbyte.clearledger.executor.ExecutorRegistry;
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashServiceTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorRegistry executorRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashService passwordHashService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executorRegistry = new ExecutorRegistry(new ConcurrentProperty(), false, meterRegistry);
+
+        var passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenAnswer((invocation) -> {
+            release.await();
+            return "hash";
+        });
+
+        // one thread and one queued task
+        var passwordHashProperty = new PasswordHashProperty();
+        passwordHashProperty.setThreadCount(1);
+        passwordHashProperty.setQueueCapacity(1);
+        passwordHashProperty.setRetryAfter(Duration.ofSeconds(7));
+        var passwordHashThreadPool = new ConcurrentConfig().passwordHashThreadPool(executorRegistry, passwordHashProperty);
+        passwordHashService = new PasswordHashService(passwordEncoder, passwordHashThreadPool, passwordHashProperty, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executorRegistry.destroy();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() throws Exception {
+        var running = CompletableFuture.supplyAsync(() -> passwordHashService.encode("first"));
+        var queued = CompletableFuture.supplyAsync(() -> passwordHashService.encode("second"));
+        while (queuedTasks() == 0) {
+            Thread.onSpinWait();
+        }
+
+        var exception = assertThrows(ServiceUnavailableException.class, () -> passwordHashService.encode("third"));
+        var response = exception.composeResponse();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1D, meterRegistry.get("password.hash.rejected").counter().count());
+        assertEquals(1D, meterRegistry.get("executor.rejected").tag("name", ExecutorRegistry.PASSWORD_HASH).counter().count());
+        assertEquals(1D, queuedTasks());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private double queuedTasks() {
+        return meterRegistry.get("executor.queued").tag("name", ExecutorRegistry.PASSWORD_HASH).gauge().value();
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.configuration.property.SerialProperty;
+import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.store.SerialCounter;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerialServiceTests {
+
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int SERIALS_PER_THREAD = 600;
+
+    private ExecutorService ioThreadPool;
+    private SharedCounter serialCounter;
+
+    @BeforeEach
+    void setUp() {
+        ioThreadPool = Executors.newFixedThreadPool(2);
+        serialCounter = new SharedCounter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ioThreadPool.shutdownNow();
+    }
+
+    @Test
+    void leasedSerialsAreUniqueAcrossNodes() throws Exception {
+        var serialProperty = new SerialProperty();
+        serialProperty.setLeased(true);
+        serialProperty.setDefaultBlockSize(7);
+        serialProperty.setBlockSizes(Map.of("tx", 13));
+
+        var nodes = new ArrayList<SerialService>();
+        for (var i = 0; i < NODES; i++) {
+            nodes.add(new SerialService(serialCounter, new CacheKeyComposer("test"), serialProperty, ioThreadPool));
+        }
+
+        var serials = ConcurrentHashMap.<Long>newKeySet();
+        var duplicates = ConcurrentHashMap.<Long>newKeySet();
+        var today = LocalDate.now();
+        var start = new CountDownLatch(1);
+        var workers = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var node : nodes) {
+                for (var i = 0; i < THREADS_PER_NODE; i++) {
+                    futures.add(workers.submit(() -> {
+                        start.await();
+                        for (var j = 0; j < SERIALS_PER_THREAD; j++) {
+                            var serial = node.nextSerial("tx", today);
+                            if (!serials.add(serial)) {
+                                duplicates.add(serial);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+            }
+
+            start.countDown();
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        assertEquals(Set.of(), duplicates);
+        assertEquals(NODES * THREADS_PER_NODE * SERIALS_PER_THREAD, serials.size());
+        assertTrue(serials.stream().allMatch((serial) -> serial > 0 && serial < 10_000L));
+    }
+
+    @Test
+    void refusedBatchLeavesSerialsToLaterCallers() {
+        var serialService = new SerialService(serialCounter, new CacheKeyComposer("test"), new SerialProperty(), ioThreadPool);
+        var today = LocalDate.now();
+        serialService.nextSerials("tx", today, 9_000);
+
+        var exception = assertThrows(BizException.class, () -> serialService.nextSerials("tx", today, 1_000));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(999L, serialService.remainingSerials("tx", today));
+        assertEquals(9_001L, serialService.nextSerial("tx", today));
+    }
+
+    @Test
+    void leasesOfAlternatingDaysKeepTheirBlocks() {
+        var serialProperty = new SerialProperty();
+        serialProperty.setLeased(true);
+        serialProperty.setDefaultBlockSize(10);
+        var serialService = new SerialService(serialCounter, new CacheKeyComposer("test"), serialProperty, ioThreadPool);
+        var today = LocalDate.now();
+        var yesterday = today.minusDays(1);
+
+        var todaySerials = new ArrayList<Long>();
+        var yesterdaySerials = new ArrayList<Long>();
+        for (var i = 0; i < 5; i++) {
+            yesterdaySerials.add(serialService.nextSerial("tx", yesterday));
+            todaySerials.add(serialService.nextSerial("tx", today));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), yesterdaySerials);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), todaySerials);
+    }
+
+    /**
+     * Stands in for the counters all nodes talk to.
+     */
+    private static final class SharedCounter implements SerialCounter {
+
+        private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+        @Override
+        public long increment(String key, long delta, long ceiling, Duration ttl) {
+            var counter = counters.computeIfAbsent(key, (ignored) -> new AtomicLong());
+            while (true) {
+                var current = counter.get();
+                if (current + delta >= ceiling) {
+                    return REFUSED;
+                }
+                if (counter.compareAndSet(current, current + delta)) {
+                    return current + delta;
+                }
+            }
+        }
+
+        @Override
+        public long remaining(String key, long ceiling) {
+            var value = Optional.ofNullable(counters.get(key)).map(AtomicLong::get).orElse(0L);
+            return Math.max(0L, ceiling - 1 - value);
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.onixbyte.clearledger.service;
+
+import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.data.request.CreateTransactionRequest;
+import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.generator.BatchGuidCreator;
+import com.onixbyte.clearledger.repository.LedgerRepository;
+import com.onixbyte.clearledger.repository.TransactionRepository;
+import com.onixbyte.clearledger.repository.UserLedgerRepository;
+import com.onixbyte.clearledger.repository.ViewTransactionRepository;
+import com.onixbyte.clearledger.security.UserHolder;
+import com.onixbyte.clearledger.store.ExpiringStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceTests {
+
+    private static final String LEDGER_ID = "L250101000001";
+    private static final String USER_ID = "U250101000001";
+
+    private LedgerRepository ledgerRepository;
+    private UserLedgerRepository userLedgerRepository;
+    private ExpiringStore<String> permissionCache;
+    private TransactionRepository transactionRepository;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ledgerRepository = mock(LedgerRepository.class);
+        userLedgerRepository = mock(UserLedgerRepository.class);
+        when(ledgerRepository.hasLedger(LEDGER_ID)).thenReturn(true);
+        when(userLedgerRepository.selectRole(USER_ID, LEDGER_ID)).thenReturn("member");
+
+        // the cache server starts empty
+        permissionCache = mock(ExpiringStore.class);
+
+        var ids = new AtomicLong();
+        BatchGuidCreator<String> transactionIdCreator = mock(BatchGuidCreator.class);
+        when(transactionIdCreator.nextId()).thenAnswer((invocation) -> "T" + ids.incrementAndGet());
+
+        var ledgerMembershipService = new LedgerMembershipService(ledgerRepository,
+                userLedgerRepository,
+                permissionCache,
+                new CacheKeyComposer("clear-ledger-server"));
+        transactionRepository = mock(TransactionRepository.class);
+        transactionService = new TransactionService(transactionRepository,
+                transactionIdCreator,
+                ledgerMembershipService,
+                mock(ViewTransactionRepository.class),
+                mock(LedgerSummaryService.class));
+
+        UserHolder.setCurrentUser(new BizUser(USER_ID, "alice", "alice@example.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserHolder.clearCurrentUser();
+    }
+
+    @Test
+    void warmWritesRunNoPermissionQueries() {
+        for (var i = 0; i < 10; i++) {
+            transactionService.createTransaction(new CreateTransactionRequest(LEDGER_ID, -1_200, "lunch", LocalDateTime.now()));
+        }
+
+        // only the first write misses both caches and queries the database
+        verify(ledgerRepository, times(1)).hasLedger(LEDGER_ID);
+        verify(userLedgerRepository, times(1)).selectRole(USER_ID, LEDGER_ID);
+        verifyNoMoreInteractions(ledgerRepository, userLedgerRepository);
+        verify(permissionCache, times(2)).get(anyString());
+    }
+
+    @Test
+    void nonMembersCannotPageThroughLedger() {
+        when(userLedgerRepository.selectRole(USER_ID, LEDGER_ID)).thenReturn(null);
+
+        var exception = assertThrows(BizException.class,
+                () -> transactionService.getTransactionsAfter(LEDGER_ID, null, 10L, null));
+
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
+        verifyNoInteractions(transactionRepository);
+    }
+
+}
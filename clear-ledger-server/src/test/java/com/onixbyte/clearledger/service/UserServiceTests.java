@@ -0,0 +1,83 @@
+package com.onixbyte.clearledger.service;
+
+import com.mybatisflex.core.query.QueryCondition;
+import com.onixbyte.clearledger.configuration.property.UserCacheProperty;
+import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.data.entity.User;
+import com.onixbyte.clearledger.exception.BizException;
+import com.onixbyte.clearledger.repository.UserRepository;
+import com.onixbyte.clearledger.store.LocalExpiringStore;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTests {
+
+    private static final int CONCURRENT_MISSES = 1_000;
+
+    private UserRepository userRepository;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+
+        var userCacheService = new UserCacheService(new LocalExpiringStore<>(),
+                new CacheKeyComposer("clear-ledger-server"),
+                new UserCacheProperty());
+        userService = new UserService(userRepository, mock(PasswordHashService.class), userCacheService);
+    }
+
+    @Test
+    void concurrentMissesRunOneQuery() throws Exception {
+        when(userRepository.selectOneByCondition(any(QueryCondition.class))).thenAnswer((invocation) -> {
+            // keep the load in flight while the other misses arrive
+            Thread.sleep(200);
+            return new User("U250101000001", "alice", "hash", "alice@example.com", LocalDateTime.now());
+        });
+
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<BizUser>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < CONCURRENT_MISSES; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.getUserByUsername("alice");
+                }));
+            }
+            start.countDown();
+
+            for (var result : results) {
+                assertEquals("U250101000001", result.get(10, TimeUnit.SECONDS).id());
+            }
+        }
+
+        verify(userRepository, times(1)).selectOneByCondition(any(QueryCondition.class));
+    }
+
+    @Test
+    void unknownUsernamesAreCachedAsAbsent() {
+        when(userRepository.selectOneByCondition(any(QueryCondition.class))).thenReturn(null);
+
+        assertThrows(BizException.class, () -> userService.getUserByUsername("nobody"));
+        assertThrows(BizException.class, () -> userService.getUserByUsername("nobody"));
+
+        verify(userRepository, times(1)).selectOneByCondition(any(QueryCondition.class));
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.onixbyte.clearledger.store;
+
+import com.onixbyte.clearledger.configuration.property.ResilienceProperty;
+import com.onixbyte.clearledger.configuration.property.UserCacheProperty;
+import com.onixbyte.clearledger.data.dto.BizUser;
+import com.onixbyte.clearledger.exception.ServiceUnavailableException;
+import com.onixbyte.clearledger.service.UserCacheService;
+import com.onixbyte.clearledger.util.CacheKeyComposer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientStoreTests {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(100);
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(300);
+
+    private final StandInCacheServer cacheServer = new StandInCacheServer();
+
+    private ResilienceProperty resilienceProperty;
+
+    @BeforeEach
+    void setUp() {
+        resilienceProperty = new ResilienceProperty();
+        resilienceProperty.setWindowSize(4);
+        resilienceProperty.setMinimumCalls(4);
+        resilienceProperty.setSlowCallThreshold(TIMEOUT.dividedBy(2));
+        resilienceProperty.setOpenDuration(OPEN_DURATION);
+        resilienceProperty.setTrialCalls(1);
+    }
+
+    @Test
+    void userLookupsFallBackToDatabaseWhileCacheServerIsPaused() throws InterruptedException {
+        var circuitBreaker = new CircuitBreaker("user-cache", resilienceProperty);
+        var userCacheService = new UserCacheService(new ResilientExpiringStore<>(cacheServer, circuitBreaker),
+                new CacheKeyComposer("test"),
+                new UserCacheProperty());
+        var queries = new AtomicInteger();
+
+        cacheServer.pause();
+        var startedAt = System.nanoTime();
+        for (var i = 0; i < 50; i++) {
+            var user = userCacheService.get("user" + i, (username) -> {
+                queries.incrementAndGet();
+                return new BizUser("U" + username, username, username + "@example.com");
+            });
+            assertEquals("Uuser" + i, user.id());
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        // only the calls before the circuit opened waited for the stalled server
+        assertEquals(50, queries.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(resilienceProperty.getMinimumCalls(), cacheServer.calls.get());
+        assertTrue(elapsed.compareTo(TIMEOUT.multipliedBy(10)) < 0, "Lookups waited " + elapsed);
+
+        cacheServer.resume();
+        Thread.sleep(OPEN_DURATION.toMillis());
+        userCacheService.get("alice", (username) -> new BizUser("U1", username, "alice@example.com"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void serialsAreCountedInDatabaseWhileCacheServerIsPaused() throws InterruptedException {
+        var circuitBreaker = new CircuitBreaker("serial-counter", resilienceProperty);
+        var serialCounter = new ResilientSerialCounter(cacheServer,
+                new StandInCacheServer(),
+                circuitBreaker,
+                9_000L);
+
+        var serials = new HashSet<Long>();
+        for (var i = 0; i < 3; i++) {
+            serials.add(serialCounter.increment("tx", 1, 10_000L, Duration.ofDays(1)));
+        }
+
+        cacheServer.pause();
+        for (var i = 0; i < 20; i++) {
+            var serial = serialCounter.increment("tx", 1, 10_000L, Duration.ofDays(1));
+            assertTrue(serial >= 9_000L, "Serial " + serial + " was not counted in the database");
+            serials.add(serial);
+        }
+
+        cacheServer.resume();
+        Thread.sleep(OPEN_DURATION.toMillis());
+        var serial = serialCounter.increment("tx", 1, 10_000L, Duration.ofDays(1));
+        assertEquals(4L, serial);
+        serials.add(serial);
+
+        assertEquals(24, serials.size());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void evictionsAreReplayedOnceCacheServerRecovers() {
+        var store = new ResilientExpiringStore<>(cacheServer, new CircuitBreaker("permission-cache", resilienceProperty));
+        var user = new BizUser("U1", "alice", "alice@example.com");
+        store.set("alice", user, Duration.ofMinutes(10));
+
+        cacheServer.pause();
+        store.delete("alice");
+        store.publish("invalidation", "alice");
+        assertEquals(user, cacheServer.values.get("alice"));
+        assertNull(store.get("alice"));
+
+        cacheServer.resume();
+        assertNull(store.get("alice"));
+        assertNull(cacheServer.values.get("alice"));
+        assertEquals(List.of("alice"), cacheServer.messages);
+    }
+
+    @Test
+    void revocationsAreRefusedWhileCacheServerIsPaused() {
+        var store = new GuardedExpiringStore<>(cacheServer, new CircuitBreaker("revoked-token-cache", resilienceProperty));
+
+        cacheServer.pause();
+        assertThrows(ServiceUnavailableException.class, () -> store.hasKey("token"));
+        assertThrows(ServiceUnavailableException.class, () -> store.set("token", null, Duration.ofMinutes(10)));
+        assertThrows(ServiceUnavailableException.class, () -> store.publish("revocation", "token"));
+
+        cacheServer.resume();
+        assertFalse(store.hasKey("token"));
+    }
+
+    /**
+     * Stands in for the cache server. While paused every call stalls until the client times out.
+     */
+    private static final class StandInCacheServer implements ExpiringStore<BizUser>, SerialCounter {
+
+        private final LocalExpiringStore<BizUser> values = new LocalExpiringStore<>();
+        private final AtomicLong counter = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        private volatile boolean paused;
+
+        void pause() {
+            calls.set(0);
+            paused = true;
+        }
+
+        void resume() {
+            paused = false;
+        }
+
+        private void call() {
+            calls.incrementAndGet();
+            if (paused) {
+                try {
+                    Thread.sleep(TIMEOUT.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new QueryTimeoutException("Redis command timed out");
+            }
+        }
+
+        @Override
+        public BizUser get(String key) {
+            call();
+            return values.get(key);
+        }
+
+        @Override
+        public void set(String key, BizUser value, Duration ttl) {
+            call();
+            values.set(key, value, ttl);
+        }
+
+        @Override
+        public boolean hasKey(String key) {
+            call();
+            return values.hasKey(key);
+        }
+
+        @Override
+        public void delete(String key) {
+            call();
+            values.delete(key);
+        }
+
+        @Override
+        public void delete(Collection<String> keys) {
+            call();
+            values.delete(keys);
+        }
+
+        @Override
+        public void publish(String channel, String message) {
+            call();
+            messages.add(message);
+        }
+
+        @Override
+        public long increment(String key, long delta, long ceiling, Duration ttl) {
+            call();
+            synchronized (counter) {
+                return counter.get() + delta < ceiling ? counter.addAndGet(delta) : REFUSED;
+            }
+        }
+
+        @Override
+        public long remaining(String key, long ceiling) {
+            call();
+            return Math.max(0L, ceiling - 1 - counter.get());
+        }
+
+    }
+
+}